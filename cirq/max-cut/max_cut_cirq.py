@@ -11,11 +11,16 @@ import pandas as pd
 import sympy
 import numpy as np
 
+# "-" reads the input from stdin or writes the output to stdout
 input_path = sys.argv[1]
 output_path = sys.argv[2]
 
+output_file = sys.stdout.buffer if output_path == '-' else output_path
+# keep stdout free for the output
+sys.stdout = sys.stderr
+
 # Read in working graph from problem file
-working_graph: nx.Graph = nx.read_gml(input_path, None)
+working_graph: nx.Graph = nx.read_gml(sys.stdin.buffer if input_path == '-' else input_path, None)
 nx.set_edge_attributes(
     working_graph,
     {edge: {"weight": 1} for edge in working_graph.edges}  # TODO: use existing weight
@@ -137,4 +142,4 @@ nx.set_node_attributes(
     {node: {"partition": 1 if node in best_qaoa_S_partition else 2} for node in working_graph.nodes}
 )
 
-nx.write_gml(working_graph, output_path)
+nx.write_gml(working_graph, output_file)
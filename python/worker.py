@@ -0,0 +1,131 @@
+# Long-lived worker that runs a python solver script again and again without importing its
+# dependencies (e.g. qiskit or cirq) on each run.
+#
+# Usage: python worker.py <script> <end-of-output-marker>
+#
+# On start, the worker imports all top-level imports of the script. Each run is executed in a
+# forked child process, so runs start with the already imported modules but can't affect each
+# other or the worker.
+#
+# The worker is controlled through JSON lines:
+# * stdin receives commands:
+#   {"command": "run", "cwd": <working directory>, "args": [<script arguments>]}
+#   {"command": "ping"}
+# * stdout sends events:
+#   {"event": "ready"}                 after the imports are done
+#   {"event": "started", "pid": <pid>} after a run has been started
+#   {"event": "exited", "code": <exit code>} after a run has exited
+#   {"event": "pong", "rss": <resident memory of the worker in bytes>}
+# * stderr carries the console output (stdout and stderr) of the runs. The end-of-output-marker
+#   is written after the output of each run and after the output of the imports.
+#
+# The worker exits once stdin is closed.
+
+import ast
+import importlib
+import json
+import os
+import runpy
+import sys
+import traceback
+
+script_path = os.path.abspath(sys.argv[1])
+end_of_output_marker = sys.argv[2]
+
+# keep stdout for events, anything printed by the script goes to stderr instead
+events = os.fdopen(os.dup(sys.stdout.fileno()), "w")
+os.dup2(sys.stderr.fileno(), sys.stdout.fileno())
+
+
+def send(event):
+    events.write(json.dumps(event) + "\n")
+    events.flush()
+
+
+def end_output():
+    sys.stdout.flush()
+    sys.stderr.write(end_of_output_marker + "\n")
+    sys.stderr.flush()
+
+
+def preload_imports():
+    # local modules next to the script must be importable, like when running the script directly
+    sys.path.insert(0, os.path.dirname(script_path))
+
+    with open(script_path) as file:
+        tree = ast.parse(file.read(), script_path)
+
+    for node in tree.body:
+        if isinstance(node, ast.Import):
+            modules = [alias.name for alias in node.names]
+        elif isinstance(node, ast.ImportFrom) and node.level == 0 and node.module:
+            modules = [node.module]
+        else:
+            continue
+
+        for module in modules:
+            try:
+                importlib.import_module(module)
+            except Exception:
+                # the script reports missing modules itself once it is run
+                pass
+
+
+def run_script(cwd, args):
+    # don't let the script read the commands of the worker
+    os.dup2(os.open(os.devnull, os.O_RDONLY), sys.stdin.fileno())
+    events.close()
+
+    code = 0
+    try:
+        os.chdir(cwd)
+        sys.argv = [script_path] + args
+        runpy.run_path(script_path, run_name="__main__")
+    except SystemExit as e:
+        if e.code is None:
+            code = 0
+        elif isinstance(e.code, int):
+            code = e.code
+        else:
+            print(e.code, file=sys.stderr)
+            code = 1
+    except BaseException:
+        traceback.print_exc()
+        code = 1
+    finally:
+        sys.stdout.flush()
+        sys.stderr.flush()
+        os._exit(code)
+
+
+def run(command):
+    pid = os.fork()
+    if pid == 0:
+        run_script(command["cwd"], command["args"])
+
+    send({"event": "started", "pid": pid})
+    _, status = os.waitpid(pid, 0)
+    end_output()
+    send({"event": "exited", "code": os.waitstatus_to_exitcode(status)})
+
+
+def resident_memory():
+    with open("/proc/self/statm") as file:
+        return int(file.read().split()[1]) * os.sysconf("SC_PAGE_SIZE")
+
+
+def main():
+    preload_imports()
+    end_output()
+    send({"event": "ready"})
+
+    for line in sys.stdin:
+        command = json.loads(line)
+        if command["command"] == "run":
+            run(command)
+        elif command["command"] == "ping":
+            send({"event": "pong", "rss": resident_memory()})
+
+
+if __name__ == "__main__":
+    main()
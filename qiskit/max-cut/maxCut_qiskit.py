@@ -7,6 +7,8 @@
 import numpy as np
 import networkx as nx
 import sys
+import os
+import tempfile
 
 import pygmlparser as pygmlparser
 
@@ -28,33 +30,44 @@ from qiskit.utils import algorithm_globals, QuantumInstance
 if len(sys.argv) != 3:
     raise TypeError('This script expects exactly 2 arguments. Input file (argument 1) and output file (argument 2).')
 
+# "-" reads the input from stdin or writes the output to stdout
 input_path = sys.argv[1]
 output_path = sys.argv[2]
 
+output_file = sys.stdout if output_path == '-' else open(output_path, 'w')
+# keep stdout free for the output
+sys.stdout = sys.stderr
+
+# Read all lines of the input
+if input_path == '-':
+    lines = sys.stdin.readlines()
+else:
+    with open(input_path, 'r') as file:
+        lines = file.readlines()
+
 # To include the weight information, we'll need to map the weight to the label
 # so the parser can read it. Therefore, remove all existing "label" lines and
 # replace all "weight" lines with "label" lines.
-with open(input_path, 'r+') as file:
-    # Read all lines from the file
-    lines = file.readlines()
-
-    # Move the file cursor to the beginning
-    file.seek(0)
-
-    # Iterate through the lines, removing lines with "label" and replacing "weight" with "label"
+# The parser can only read files, so the modified lines are written to the input file,
+# or to a temporary file if the input is read from stdin.
+if input_path == '-':
+    gml_file = tempfile.NamedTemporaryFile('w', suffix='.gml', delete=False)
+else:
+    gml_file = open(input_path, 'w')
+
+with gml_file:
     for line in lines:
         if "label" not in line:
-            modified_line = line.replace("weight", "label")
-            file.write(modified_line)
-
-    # Truncate the remaining content in case the new content is shorter than the old content
-    file.truncate()
+            gml_file.write(line.replace("weight", "label"))
 
 # Instantiate a parser, load a file, and parse it!
 parser: Parser = Parser()
-parser.loadGML(input_path)
+parser.loadGML(gml_file.name)
 parser.parse()
 
+if input_path == '-':
+    os.remove(gml_file.name)
+
 # Retrieve the graph nodes
 nodes: Graph.Nodes = parser.graph.graphNodes  # a map of id -> Node objects
 
@@ -100,7 +113,7 @@ result = vqe.compute_minimum_eigenvalue(qubitOp)
 
 # save results
 x = max_cut.sample_most_likely(result.eigenstate)
-f = open(output_path, 'w')
+f = output_file
 f.write("energy:" + str(result.eigenvalue.real) + "\n")
 f.write("time:" + str(result.optimizer_time) + "\n")
 f.write("max-cut objective:" + str(result.eigenvalue.real + offset) + "\n")
@@ -1,4 +1,6 @@
+import os
 import sys
+import tempfile
 
 from qiskit.algorithms.minimum_eigensolvers import QAOA
 from qiskit.algorithms.optimizers import COBYLA
@@ -9,11 +11,23 @@ from qiskit_optimization.algorithms import MinimumEigenOptimizer
 if len(sys.argv) != 3:
     raise TypeError('This script expects exactly 2 arguments. Input file (argument 1) and output file (argument 2).')
 
+# "-" reads the input from stdin or writes the output to stdout
 input_path = sys.argv[1]
 output_path = sys.argv[2]
 
+output_file = sys.stdout if output_path == '-' else open(output_path, 'w')
+# keep stdout free for the output
+sys.stdout = sys.stderr
+
 qp = QuadraticProgram()
-qp.read_from_lp_file(input_path)
+if input_path == '-':
+    # LP files can only be read from files, so copy the input to a temporary file
+    with tempfile.NamedTemporaryFile('w', suffix='.lp', delete=False) as lp_file:
+        lp_file.write(sys.stdin.read())
+    qp.read_from_lp_file(lp_file.name)
+    os.remove(lp_file.name)
+else:
+    qp.read_from_lp_file(input_path)
 
 qaoa_mes = QAOA(Sampler(), optimizer=COBYLA(), initial_point=[0.0, 1.0])
 
@@ -22,6 +36,6 @@ qaoa = MinimumEigenOptimizer(qaoa_mes)
 qaoa_result = qaoa.solve(qp)
 print(qaoa_result.prettyprint())
 
-f = open(output_path, 'w')
+f = output_file
 f.write(qaoa_result.prettyprint())
 f.close()
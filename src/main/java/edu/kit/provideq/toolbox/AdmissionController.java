@@ -0,0 +1,132 @@
+package edu.kit.provideq.toolbox;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether a new solve request is accepted or shed because the toolbox is overloaded.
+ * Shedding requests early keeps the solve job queue short, so accepted requests are solved in a
+ * reasonable time instead of all requests waiting longer and longer.
+ *
+ * <p>A request is rejected if the number of waiting jobs of its problem type reaches
+ * {@code solver.admission.max-queued}, which can also be configured per problem type with the
+ * {@code solver.admission.<problem-type-id>.max-queued} property, or if the system load average
+ * per processor exceeds {@code solver.admission.max-load-per-cpu}.
+ */
+@Component
+public class AdmissionController {
+  private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+  private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(5);
+
+  private final SolveScheduler solveScheduler;
+  private final Environment environment;
+  private final int defaultMaxQueuedJobs;
+  private final double maxLoadPerProcessor;
+  private final Duration defaultRetryAfter;
+  private final OperatingSystemMXBean operatingSystem =
+      ManagementFactory.getOperatingSystemMXBean();
+
+  /**
+   * Creates an admission controller for the jobs of a solve scheduler.
+   *
+   * @param maxLoadPerProcessor system load average per processor above which requests are
+   *                            rejected, a negative value disables the check.
+   * @param retryAfterSeconds   time clients are asked to wait if the run time of jobs is unknown.
+   */
+  @Autowired
+  public AdmissionController(
+      SolveScheduler solveScheduler,
+      Environment environment,
+      @Value("${solver.admission.max-queued}") int defaultMaxQueuedJobs,
+      @Value("${solver.admission.max-load-per-cpu}") double maxLoadPerProcessor,
+      @Value("${solver.admission.retry-after-seconds}") long retryAfterSeconds) {
+    this.solveScheduler = solveScheduler;
+    this.environment = environment;
+    this.defaultMaxQueuedJobs = defaultMaxQueuedJobs;
+    this.maxLoadPerProcessor = maxLoadPerProcessor;
+    this.defaultRetryAfter = Duration.ofSeconds(retryAfterSeconds);
+  }
+
+  /**
+   * Checks whether a new solve request of a problem type can be accepted.
+   *
+   * @param problemType the problem type of the request.
+   * @return the reason for rejecting the request and when to retry it, or an empty optional if the
+   *     request is accepted.
+   */
+  public Optional<Rejection> checkAdmission(ProblemType problemType) {
+    int queuedJobCount = solveScheduler.getQueuedJobCount(problemType);
+    int maxQueuedJobs = environment.getProperty(
+        "solver.admission.%s.max-queued".formatted(problemType.getId()),
+        Integer.class, defaultMaxQueuedJobs);
+    if (queuedJobCount >= maxQueuedJobs) {
+      return Optional.of(new Rejection(
+          "Too many %s problems are waiting to be solved (%d queued, %d running)".formatted(
+              problemType.getId(), queuedJobCount,
+              solveScheduler.getRunningJobCount(problemType)),
+          estimateRetryAfter(problemType, queuedJobCount - maxQueuedJobs + 1)));
+    }
+
+    double loadPerProcessor =
+        operatingSystem.getSystemLoadAverage() / operatingSystem.getAvailableProcessors();
+    // the load average is negative if the platform doesn't provide it
+    if (maxLoadPerProcessor >= 0 && loadPerProcessor > maxLoadPerProcessor) {
+      return Optional.of(new Rejection(
+          "The system is overloaded (load %.2f per processor)".formatted(loadPerProcessor),
+          estimateRetryAfter(problemType, 1)));
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Rejects a solve request of a problem type that was admitted but didn't fit into the solve job
+   * queue of the {@link SolveScheduler} anymore.
+   *
+   * @param problemType the problem type of the request.
+   * @return the reason for rejecting the request and when to retry it.
+   */
+  public Rejection rejectFullQueue(ProblemType problemType) {
+    return new Rejection(
+        "The solve job queue is full (%d %s problems queued, %d running)".formatted(
+            solveScheduler.getQueuedJobCount(problemType), problemType.getId(),
+            solveScheduler.getRunningJobCount(problemType)),
+        estimateRetryAfter(problemType, 1));
+  }
+
+  /**
+   * Estimates how long it takes until a number of jobs of a problem type have been started.
+   */
+  private Duration estimateRetryAfter(ProblemType problemType, int jobCount) {
+    long averageRunMilliseconds = solveScheduler.getAverageRunMilliseconds(problemType);
+    if (averageRunMilliseconds == 0) {
+      return defaultRetryAfter;
+    }
+
+    Duration estimate = Duration.ofMillis(
+        averageRunMilliseconds * jobCount / solveScheduler.getConcurrency(problemType));
+    if (estimate.compareTo(MIN_RETRY_AFTER) < 0) {
+      return MIN_RETRY_AFTER;
+    }
+    if (estimate.compareTo(MAX_RETRY_AFTER) > 0) {
+      return MAX_RETRY_AFTER;
+    }
+    return estimate;
+  }
+
+  /**
+   * A rejected solve request.
+   *
+   * @param reason     why the request has been rejected.
+   * @param retryAfter how long the client should wait before sending the request again.
+   */
+  public record Rejection(String reason, Duration retryAfter) {
+  }
+}
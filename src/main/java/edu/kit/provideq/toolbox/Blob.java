@@ -0,0 +1,51 @@
+package edu.kit.provideq.toolbox;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A string that has been moved from the heap to a file by a {@link BlobStore}.
+ *
+ * @param path   the file that contains the deflated UTF-8 encoded string.
+ * @param length the length of the string in characters.
+ */
+public record Blob(Path path, long length) implements StoredText {
+  /**
+   * Reads the whole string into memory.
+   *
+   * @throws UncheckedIOException when the file couldn't be read, e.g., because it has already been
+   *                              deleted.
+   */
+  @Override
+  public String read() {
+    try (var in = new InflaterInputStream(Files.newInputStream(path))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read blob " + path, e);
+    }
+  }
+
+  @Override
+  public Reader openReader() throws IOException {
+    return new InputStreamReader(
+        new InflaterInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Deletes the file, the blob can't be read anymore afterwards.
+   */
+  @Override
+  public void release() {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      // the blob store removes left-over files on its next start
+    }
+  }
+}
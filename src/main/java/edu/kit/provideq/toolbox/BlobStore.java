@@ -0,0 +1,83 @@
+package edu.kit.provideq.toolbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves large strings, e.g., the solution data or debug data of solutions, from the heap to
+ * compressed files in the {@code solutions.blob.directory}.
+ * Strings are only moved if they are longer than {@code solutions.blob.threshold-chars}.
+ *
+ * <p>Blobs only live as long as the solutions that reference them are kept in memory, so all blobs
+ * of a previous run are deleted when the blob store is created.
+ */
+@Component
+@ConditionalOnProperty(name = "solutions.blob.enabled", havingValue = "true")
+public class BlobStore {
+  private static final String BLOB_FILE_EXTENSION = ".blob";
+
+  private final Path directory;
+  private final int thresholdChars;
+
+  /**
+   * Creates a blob store and deletes the blobs of previous runs.
+   */
+  @Autowired
+  public BlobStore(
+      @Value("${solutions.blob.directory}") String directory,
+      @Value("${solutions.blob.threshold-chars}") int thresholdChars) throws IOException {
+    this.directory = Path.of(directory).toAbsolutePath();
+    this.thresholdChars = thresholdChars;
+
+    Files.createDirectories(this.directory);
+    try (Stream<Path> files = Files.list(this.directory)) {
+      for (Path file : files.toList()) {
+        if (file.getFileName().toString().endsWith(BLOB_FILE_EXTENSION)) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns whether a string is long enough to be moved to a blob.
+   */
+  public boolean shouldSpill(String content) {
+    return content != null && content.length() > thresholdChars;
+  }
+
+  /**
+   * Writes a string to a new blob.
+   *
+   * @throws UncheckedIOException when the blob couldn't be written.
+   */
+  public Blob write(String content) {
+    Path path = directory.resolve(UUID.randomUUID() + BLOB_FILE_EXTENSION);
+    var deflater = new Deflater(Deflater.BEST_SPEED);
+    try (var out = new DeflaterOutputStream(Files.newOutputStream(path), deflater)) {
+      out.write(content.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException ignored) {
+        // deleted on the next start
+      }
+      throw new UncheckedIOException("Could not write blob " + path, e);
+    } finally {
+      deflater.end();
+    }
+
+    return new Blob(path, content.length());
+  }
+}
@@ -0,0 +1,189 @@
+package edu.kit.provideq.toolbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.lang.Nullable;
+
+/**
+ * Signals that a solving process should be stopped.
+ * Solver processes that are registered with the token are killed together with their descendants
+ * as soon as the token is cancelled, so their resources are freed immediately.
+ * The token is shared with all sub-routine calls of the solving process, so no further sub-routine
+ * calls are made after it has been cancelled.
+ *
+ * <p>A token can have a deadline, which limits the time budget of the solving process.
+ * Registered processes that are still running at the deadline are killed by a watchdog, and the
+ * token is considered timed out from then on.
+ */
+public class CancellationToken {
+  private static final ScheduledThreadPoolExecutor WATCHDOG = createWatchdog();
+
+  @Nullable
+  private final CancellationToken parent;
+  @Nullable
+  private final Instant deadline;
+
+  private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+  private final Map<Process, ScheduledFuture<?>> watchdogs = new ConcurrentHashMap<>();
+  private final Set<Runnable> stopListeners = ConcurrentHashMap.newKeySet();
+  private volatile boolean cancelled;
+  private volatile boolean timedOut;
+
+  /**
+   * Creates a token without a deadline.
+   */
+  public CancellationToken() {
+    this(null, null);
+  }
+
+  private CancellationToken(@Nullable CancellationToken parent, @Nullable Instant deadline) {
+    this.parent = parent;
+    this.deadline = deadline;
+  }
+
+  /**
+   * Creates a token for a part of this solving process that has a time budget of its own.
+   * The part is stopped once its own budget or the budget of this token is spent, or when this
+   * token is cancelled, whichever happens first.
+   *
+   * @param timeout the time budget of the part, starting now.
+   * @return a token whose processes are also registered with this token.
+   */
+  public CancellationToken createChild(Duration timeout) {
+    Instant childDeadline = Instant.now().plus(timeout);
+    if (deadline != null && deadline.isBefore(childDeadline)) {
+      childDeadline = deadline;
+    }
+
+    return new CancellationToken(this, childDeadline);
+  }
+
+  /**
+   * Cancels the solving process and kills all registered processes.
+   */
+  public void cancel() {
+    cancelled = true;
+    processes.forEach(CancellationToken::destroyProcessTree);
+    stopListeners.forEach(Runnable::run);
+  }
+
+  public boolean isCancelled() {
+    return cancelled || (parent != null && parent.isCancelled());
+  }
+
+  /**
+   * Returns true once the time budget of the solving process is spent.
+   */
+  public boolean isTimedOut() {
+    return timedOut
+        || (deadline != null && !Instant.now().isBefore(deadline))
+        || (parent != null && parent.isTimedOut());
+  }
+
+  /**
+   * Registers a process to be killed when this token is cancelled or its deadline is reached.
+   * The process is killed immediately if this token has already been cancelled or timed out.
+   *
+   * @param process the process that solves (a part of) the problem.
+   */
+  public void register(Process process) {
+    processes.add(process);
+    if (parent != null) {
+      parent.register(process);
+    }
+
+    if (deadline != null) {
+      long delay = Duration.between(Instant.now(), deadline).toMillis();
+      watchdogs.put(process, WATCHDOG.schedule(() -> {
+        timedOut = true;
+        destroyProcessTree(process);
+      }, delay, TimeUnit.MILLISECONDS));
+    }
+
+    // cancel() might have run before the process was added
+    if (isCancelled() || isTimedOut()) {
+      destroyProcessTree(process);
+    }
+  }
+
+  /**
+   * Registers a listener that is called once this token is cancelled or its deadline is reached,
+   * so waiting for something else doesn't need to check the token periodically.
+   * The listener is called at most once, immediately if this token is already stopped, and runs
+   * on the thread that stops the token, so it must not block.
+   *
+   * @param listener the action to run when the solving process is stopped.
+   * @return an action that removes the listener again.
+   */
+  public Runnable addStopListener(Runnable listener) {
+    var called = new AtomicBoolean();
+    Runnable callOnce = () -> {
+      if (called.compareAndSet(false, true)) {
+        listener.run();
+      }
+    };
+
+    stopListeners.add(callOnce);
+    Runnable removeFromParent = parent == null ? () -> {} : parent.addStopListener(callOnce);
+    ScheduledFuture<?> deadlineWatchdog = deadline == null ? null : WATCHDOG.schedule(callOnce,
+        Duration.between(Instant.now(), deadline).toMillis(), TimeUnit.MILLISECONDS);
+
+    // cancel() might have run before the listener was added
+    if (isCancelled() || isTimedOut()) {
+      callOnce.run();
+    }
+
+    return () -> {
+      stopListeners.remove(callOnce);
+      removeFromParent.run();
+      if (deadlineWatchdog != null) {
+        deadlineWatchdog.cancel(false);
+      }
+    };
+  }
+
+  /**
+   * Unregisters a process that has exited.
+   */
+  public void unregister(Process process) {
+    processes.remove(process);
+
+    var watchdog = watchdogs.remove(process);
+    if (watchdog != null) {
+      watchdog.cancel(false);
+    }
+
+    if (parent != null) {
+      parent.unregister(process);
+    }
+  }
+
+  /**
+   * Kills a process and all of its descendants.
+   * Solver scripts might start processes of their own (e.g. GAMS starting its solvers),
+   * so killing only the direct child wouldn't free all resources.
+   */
+  static void destroyProcessTree(Process process) {
+    process.descendants().forEach(ProcessHandle::destroyForcibly);
+    process.destroyForcibly();
+  }
+
+  private static ScheduledThreadPoolExecutor createWatchdog() {
+    var watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+      var thread = new Thread(runnable, "process-watchdog");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // unregistered processes and removed listeners don't need their watchdog anymore, don't keep
+    // it until its deadline
+    watchdog.setRemoveOnCancelPolicy(true);
+    return watchdog;
+  }
+}
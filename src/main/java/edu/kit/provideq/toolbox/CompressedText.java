@@ -0,0 +1,86 @@
+package edu.kit.provideq.toolbox;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A string that is kept compressed on the heap.
+ * Solution formats like DIMACS, GML and solver logs are repetitive text, which the fastest
+ * deflate level already shrinks severalfold.
+ */
+public final class CompressedText implements StoredText {
+  private final byte[] compressed;
+  private final long length;
+
+  private CompressedText(byte[] compressed, long length) {
+    this.compressed = compressed;
+    this.length = length;
+  }
+
+  /**
+   * Compresses a string.
+   *
+   * @return the compressed string, or an empty optional if compressing it doesn't save memory.
+   */
+  public static Optional<CompressedText> compress(String text) {
+    var out = new ByteArrayOutputStream(text.length() / 4);
+    var deflater = new Deflater(Deflater.BEST_SPEED);
+    try (var deflaterOut = new DeflaterOutputStream(out, deflater)) {
+      deflaterOut.write(text.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      // byte array streams don't fail
+      throw new UncheckedIOException(e);
+    } finally {
+      deflater.end();
+    }
+
+    // strings of single-byte characters take one byte per character on the heap
+    return out.size() < text.length()
+        ? Optional.of(new CompressedText(out.toByteArray(), text.length()))
+        : Optional.empty();
+  }
+
+  @Override
+  public long length() {
+    return length;
+  }
+
+  /**
+   * Returns the size of the compressed string in bytes.
+   */
+  public int compressedSize() {
+    return compressed.length;
+  }
+
+  @Override
+  public String read() {
+    try (var in = openStream()) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not decompress text", e);
+    }
+  }
+
+  @Override
+  public Reader openReader() {
+    return new InputStreamReader(openStream(), StandardCharsets.UTF_8);
+  }
+
+  private InflaterInputStream openStream() {
+    return new InflaterInputStream(new ByteArrayInputStream(compressed));
+  }
+
+  @Override
+  public void release() {
+    // the garbage collector frees the memory
+  }
+}
@@ -1,6 +1,12 @@
 package edu.kit.provideq.toolbox;
 
 import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
@@ -12,6 +18,18 @@ import org.springframework.stereotype.Component;
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class GamsProcessRunner extends ProcessRunner {
+  /**
+   * Batch scripts write a line starting with this separator in front of the solution of each
+   * instance of a batch.
+   */
+  public static final String BATCH_INSTANCE_SEPARATOR = "c Instance";
+
+  /**
+   * The name of the input file that contains the instances of a batch.
+   * Batch scripts receive its path through the {@code --INSTANCES} argument.
+   */
+  private static final String INSTANCES_FILE_NAME = "instances";
+
   /**
    * GAMS will print the following prefix in front of its license output.
    */
@@ -52,33 +70,97 @@ public class GamsProcessRunner extends ProcessRunner {
     addProblemFilePathToProcessCommand("--INPUT=\"%s\"");
   }
 
-  @Override
-  public ProcessResult run(ProblemType problemType, long solutionId, String problemData) {
-    var result = super.run(problemType, solutionId, problemData);
+  /**
+   * Runs a batch script that solves many instances sharing a base problem in a single GAMS
+   * invocation, so GAMS is only started once for all of them.
+   * Each instance is written to the instances file after a {@link #BATCH_INSTANCE_SEPARATOR} line.
+   *
+   * @param problemType  The type of the problem that is run
+   * @param solutionId   The id of the resulting solution
+   * @param baseProblem  The problem data that all instances share
+   * @param instanceData The data that each instance adds to the base problem
+   * @return Returns the process result, which contains the solutions of all instances
+   *     or an error as output depending on the success of the process.
+   *     Use {@link #splitBatchOutput(String)} to get the solution of each instance.
+   */
+  public ProcessResult runBatch(ProblemType problemType, long solutionId, String baseProblem,
+                                List<String> instanceData) {
+    Path instancesFilePath;
+    try {
+      instancesFilePath = resourceProvider
+          .getProblemDirectory(problemType, solutionId)
+          .toPath()
+          .resolve(INSTANCES_FILE_NAME);
+
+      try (var writer = Files.newBufferedWriter(instancesFilePath)) {
+        for (String instance : instanceData) {
+          writer.write(BATCH_INSTANCE_SEPARATOR);
+          writer.newLine();
+          writer.write(instance);
+          writer.newLine();
+        }
+      }
+    } catch (IOException e) {
+      return new ProcessResult(
+          false,
+          "Error: The instance data couldn't be written:%n%s".formatted(e.getMessage())
+      );
+    }
+
+    addCommand("--INSTANCES=\"%s\"".formatted(instancesFilePath.toString().replace("\\", "/")));
 
-    var obfuscatedOutput = obfuscateGamsLicense(result.output());
-    return new ProcessResult(result.success(), obfuscatedOutput);
+    return run(problemType, solutionId, baseProblem);
   }
 
   /**
-   * Removes GAMS' license output from an output log.
+   * Splits the output of a successful {@link #runBatch(ProblemType, long, String, List)} call
+   * into the solutions of the instances.
+   *
+   * @param output the output of the batch run.
+   * @return the solution of each instance, in the order of the instances.
    */
-  private static String obfuscateGamsLicense(String output) {
-    String[] lines = output.split("\n");
-
-    // init negatively to avoid unintended obfuscation in the beginning
-    int lastLicenseHeader = -LICENSE_LINE_COUNT;
-    for (int i = 0; i < lines.length; i++) {
-      if (lines[i].startsWith(LICENSE_HEADER_PREFIX)) {
-        lastLicenseHeader = i;
+  public static List<String> splitBatchOutput(String output) {
+    var solutions = new ArrayList<StringBuilder>();
+
+    output.lines()
+        .filter(line -> !line.isBlank())
+        .forEach(line -> {
+          if (line.startsWith(BATCH_INSTANCE_SEPARATOR)) {
+            solutions.add(new StringBuilder());
+          } else if (!solutions.isEmpty()) {
+            solutions.get(solutions.size() - 1).append(line).append('\n');
+          }
+        });
+
+    return solutions.stream()
+        .map(StringBuilder::toString)
+        .toList();
+  }
+
+  @Override
+  protected UnaryOperator<String> createOutputLineFilter() {
+    return new LicenseObfuscator();
+  }
+
+  /**
+   * Removes GAMS' license output from an output log while it is being read line by line.
+   */
+  private static class LicenseObfuscator implements UnaryOperator<String> {
+    private int remainingLicenseLineCount = 0;
+
+    @Override
+    public String apply(String line) {
+      if (line.startsWith(LICENSE_HEADER_PREFIX)) {
+        remainingLicenseLineCount = LICENSE_LINE_COUNT;
       }
 
-      if (i - lastLicenseHeader < LICENSE_LINE_COUNT) {
-        lines[i] = obfuscateLine(lines[i]);
+      if (remainingLicenseLineCount > 0) {
+        remainingLicenseLineCount--;
+        return obfuscateLine(line);
       }
-    }
 
-    return String.join("\n", lines);
+      return line;
+    }
   }
 
   /**
@@ -0,0 +1,321 @@
+package edu.kit.provideq.toolbox;
+
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provides problem instances that are too large to be sent as problem data of a solve request.
+ * Solve requests reference an instance by using {@code instance:<name>} as problem data.
+ *
+ * <p>Instances are either uploaded once, in which case they are kept in the instance directory of
+ * the working directory until they haven't been used for the working directory's time to live, or
+ * they are files of the local instance library in {@code instances.library.directory}.
+ * Uploaded instances never change, instances of the library are expected not to change either,
+ * results of deterministic solvers are cached by the name of the instance.
+ *
+ * <p>Instances are read by mapping their files into memory, so their contents don't have to be
+ * copied onto the heap, and solvers that read files can be given the instance files directly.
+ *
+ * <p>An upload can't be larger than {@code instances.upload.max-size-mb}, and all uploaded
+ * instances together, including the uploads that are still being written, can't take up more than
+ * {@code instances.upload.max-total-size-mb}.
+ *
+ * <p>Solvers can also {@link #share(DimacsCnf) share} formulas they have built with their
+ * sub-routine calls. Shared formulas are referenced by {@code shared:<hash>} and kept in memory
+ * while they are shared, so sub-routines can read them without their text ever being built.
+ */
+@Component
+public class InstanceLibrary {
+  /**
+   * Problem data that starts with this prefix references an instance.
+   */
+  public static final String REFERENCE_PREFIX = "instance:";
+
+  /**
+   * Problem data that starts with this prefix references a shared formula.
+   */
+  public static final String SHARED_PREFIX = "shared:";
+
+  private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+  private final WorkingDirectoryManager workingDirectoryManager;
+  private final long maxUploadBytes;
+  private final long maxTotalUploadBytes;
+
+  /**
+   * The uploads that are being written right now, they count with their maximum size.
+   */
+  private final Set<Upload> pendingUploads = new HashSet<>();
+
+  /**
+   * The formulas that are shared right now by their references.
+   */
+  private final Map<String, SharedFormula> sharedFormulas = new ConcurrentHashMap<>();
+
+  /**
+   * The directory of the local instance library, null if there is none.
+   */
+  private final Path libraryDirectory;
+
+  /**
+   * Creates an instance library.
+   */
+  @Autowired
+  public InstanceLibrary(
+      WorkingDirectoryManager workingDirectoryManager,
+      @Value("${instances.library.directory}") String libraryDirectory,
+      @Value("${instances.upload.max-size-mb}") long maxUploadMegabytes,
+      @Value("${instances.upload.max-total-size-mb}") long maxTotalUploadMegabytes) {
+    this.workingDirectoryManager = workingDirectoryManager;
+    this.maxUploadBytes = maxUploadMegabytes * BYTES_PER_MEGABYTE;
+    this.maxTotalUploadBytes = maxTotalUploadMegabytes * BYTES_PER_MEGABYTE;
+    this.libraryDirectory = libraryDirectory.isBlank()
+        ? null
+        : Path.of(libraryDirectory).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Returns whether problem data references an instance instead of containing the problem.
+   */
+  public static boolean isReference(String problemData) {
+    return problemData != null && problemData.startsWith(REFERENCE_PREFIX);
+  }
+
+  /**
+   * Starts a new upload and reserves space for it, the file itself is not created.
+   * The upload must be {@link #finishUpload(Upload) finished} once its file has been written or
+   * deleted.
+   *
+   * @param extension the file extension of the instance, e.g., {@code .cnf}.
+   * @return the file that the instance should be written to, whose name is the name of the
+   *     instance, and how large it may be. The optional is empty if there is no space left for
+   *     uploads.
+   * @throws IOException when the instance directory couldn't be accessed.
+   */
+  public synchronized Optional<Upload> startUpload(String extension) throws IOException {
+    Path instanceDirectory = workingDirectoryManager.getInstanceDirectory();
+    long usedBytes = pendingUploads.stream().mapToLong(Upload::maxBytes).sum();
+    try (Stream<Path> instances = Files.list(instanceDirectory)) {
+      for (Path instance : instances.toList()) {
+        if (pendingUploads.stream().noneMatch(upload -> upload.file().equals(instance))) {
+          usedBytes += instance.toFile().length();
+        }
+      }
+    }
+
+    long maxBytes = Math.min(maxUploadBytes, maxTotalUploadBytes - usedBytes);
+    if (maxBytes <= 0) {
+      return Optional.empty();
+    }
+
+    var upload = new Upload(instanceDirectory.resolve(UUID.randomUUID() + extension), maxBytes);
+    pendingUploads.add(upload);
+    return Optional.of(upload);
+  }
+
+  /**
+   * Releases the space reserved for an upload, the size of its file counts instead.
+   */
+  public synchronized void finishUpload(Upload upload) {
+    pendingUploads.remove(upload);
+  }
+
+  /**
+   * Finds the file of an instance.
+   * Uploaded instances take precedence over instances of the library with the same name.
+   *
+   * @param reference problem data that references an instance.
+   * @return the file of the instance, or an empty optional if there is no such instance.
+   * @throws IOException when the instance directory couldn't be accessed.
+   */
+  public Optional<Path> resolve(String reference) throws IOException {
+    if (!isReference(reference)) {
+      return Optional.empty();
+    }
+    String name = reference.substring(REFERENCE_PREFIX.length()).strip();
+
+    Optional<Path> upload = resolveIn(workingDirectoryManager.getInstanceDirectory(), name);
+    if (upload.isPresent()) {
+      // keep instances that are used from being swept
+      Files.setLastModifiedTime(upload.get(), FileTime.fromMillis(System.currentTimeMillis()));
+      return upload;
+    }
+
+    return libraryDirectory == null ? Optional.empty() : resolveIn(libraryDirectory, name);
+  }
+
+  /**
+   * Returns whether problem data references a shared formula.
+   */
+  public static boolean isSharedReference(String problemData) {
+    return problemData != null && problemData.startsWith(SHARED_PREFIX);
+  }
+
+  /**
+   * Shares a formula with sub-routine calls until the returned formula is closed.
+   * The reference is the SHA-256 hash of the DIMACS text of the formula, so results of
+   * deterministic solvers are cached by the formula, and identical formulas that are shared at
+   * the same time share one reference.
+   *
+   * @return the shared formula, whose reference is sent as problem data of sub-routine calls.
+   */
+  public SharedFormula share(DimacsCnf formula) {
+    String reference = SHARED_PREFIX + hash(formula);
+    return sharedFormulas.compute(reference, (key, shared) -> shared == null
+        ? new SharedFormula(reference, formula)
+        : shared.retain());
+  }
+
+  /**
+   * Finds a shared formula.
+   *
+   * @param reference problem data that references a shared formula.
+   * @return the formula, or an empty optional if it isn't shared anymore.
+   */
+  public Optional<DimacsCnf> resolveShared(String reference) {
+    return Optional.ofNullable(sharedFormulas.get(reference.strip()))
+        .map(SharedFormula::formula);
+  }
+
+  private static String hash(DimacsCnf formula) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+
+    // the text is hashed chunk by chunk as it is written
+    try {
+      formula.writeTo(new WritableByteChannel() {
+        @Override
+        public int write(ByteBuffer src) {
+          int length = src.remaining();
+          digest.update(src);
+          return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+          return true;
+        }
+
+        @Override
+        public void close() {
+        }
+      });
+    } catch (IOException e) {
+      // the digest never fails to be written to
+      throw new IllegalStateException(e);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Deletes an uploaded instance, instances of the library can't be deleted.
+   *
+   * @param name the name of the instance.
+   * @return true if the instance was deleted, false if there is no such uploaded instance.
+   * @throws IOException when the instance couldn't be deleted.
+   */
+  public boolean deleteUpload(String name) throws IOException {
+    Optional<Path> upload = resolveIn(workingDirectoryManager.getInstanceDirectory(), name);
+    return upload.isPresent() && Files.deleteIfExists(upload.get());
+  }
+
+  private static Optional<Path> resolveIn(Path directory, String name) {
+    if (name.isEmpty()) {
+      return Optional.empty();
+    }
+
+    // names must not escape the directory
+    Path base = directory.normalize();
+    Path file = base.resolve(name).normalize();
+    return file.startsWith(base) && Files.isRegularFile(file)
+        ? Optional.of(file)
+        : Optional.empty();
+  }
+
+  /**
+   * Maps the file of an instance into memory for reading.
+   * The mapping stays valid until the buffer is garbage collected, even if the file is deleted.
+   *
+   * @throws IOException when the file couldn't be mapped, e.g., because it is larger than 2 GB.
+   */
+  public static MappedByteBuffer map(Path file) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Instance %s is too large to be mapped".formatted(file));
+      }
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  /**
+   * An instance that is being uploaded.
+   *
+   * @param file     the file that the instance is written to.
+   * @param maxBytes how large the instance may be.
+   */
+  public record Upload(Path file, long maxBytes) {
+  }
+
+  /**
+   * A formula that is shared with sub-routine calls, see {@link #share(DimacsCnf)}.
+   * It stays shared until everyone who shared it has closed it.
+   */
+  public final class SharedFormula implements AutoCloseable {
+    private final String reference;
+    private final DimacsCnf formula;
+    private int shareCount = 1;
+
+    private SharedFormula(String reference, DimacsCnf formula) {
+      this.reference = reference;
+      this.formula = formula;
+    }
+
+    /**
+     * Returns the reference that is sent as problem data instead of the formula.
+     */
+    public String reference() {
+      return reference;
+    }
+
+    DimacsCnf formula() {
+      return formula;
+    }
+
+    private SharedFormula retain() {
+      shareCount++;
+      return this;
+    }
+
+    @Override
+    public void close() {
+      sharedFormulas.computeIfPresent(reference,
+          (key, shared) -> --shared.shareCount == 0 ? null : shared);
+    }
+  }
+}
@@ -0,0 +1,420 @@
+package edu.kit.provideq.toolbox;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores solutions in an append-only journal file in the {@code solutions.store.directory}.
+ * Storing or removing a solution appends a record to the journal, so a crash can at most lose the
+ * record that is being written.
+ *
+ * <p>Only the position of each solution's latest record is kept in memory, the solutions
+ * themselves are read from the journal when they are loaded.
+ * On startup, this index is rebuilt by reading the record headers, skipping over the solution data.
+ * A periodic compaction rewrites the journal with only the latest records of solutions that are
+ * younger than {@code solutions.store.retention-minutes}, so the journal doesn't grow with the
+ * history of all solutions.
+ *
+ * <p>A record consists of a header and the solution serialized as JSON:
+ * <pre>
+ * byte   operation ({@value STORE} = store, {@value REMOVE} = remove)
+ * long   timestamp (milliseconds since the epoch)
+ * short  length of the problem type id, followed by the UTF-8 encoded problem type id
+ * long   solution id
+ * int    payload length, followed by the payload (empty for remove records)
+ * int    CRC-32 of the payload
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "solutions.store.enabled", havingValue = "true")
+public class JournalSolutionStore implements SolutionStore {
+  private static final String JOURNAL_FILE_NAME = "solutions.journal";
+  private static final String COMPACTION_FILE_NAME = "solutions.journal.compacting";
+
+  private static final byte STORE = 1;
+  private static final byte REMOVE = 2;
+
+  /**
+   * Length of the header before the problem type id.
+   */
+  private static final int HEADER_START_LENGTH = Byte.BYTES + Long.BYTES + Short.BYTES;
+
+  /**
+   * Length of the header after the problem type id.
+   */
+  private static final int HEADER_END_LENGTH = Long.BYTES + Integer.BYTES;
+
+  /**
+   * The journal is compacted once it is this many times larger than the records it needs to keep.
+   */
+  private static final int COMPACTION_RATIO = 2;
+  private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+  private final Path journalPath;
+  private final Path compactionPath;
+  private final long retentionMillis;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ScheduledExecutorService compactor;
+
+  private final Map<RecordKey, RecordLocation> index = new HashMap<>();
+  private final Map<ProblemType, Long> latestIds = new EnumMap<>(ProblemType.class);
+  private FileChannel journal;
+  private long journalSize;
+  private long liveSize;
+
+  /**
+   * Opens the journal, rebuilds the index from it and schedules its compaction.
+   */
+  @Autowired
+  public JournalSolutionStore(
+      @Value("${solutions.store.directory}") String directory,
+      @Value("${solutions.store.retention-minutes}") long retentionMinutes,
+      @Value("${solutions.store.compaction-interval-minutes}") long compactionIntervalMinutes)
+      throws IOException {
+    Path directoryPath = Path.of(directory).toAbsolutePath();
+    Files.createDirectories(directoryPath);
+    this.journalPath = directoryPath.resolve(JOURNAL_FILE_NAME);
+    this.compactionPath = directoryPath.resolve(COMPACTION_FILE_NAME);
+    this.retentionMillis = Duration.ofMinutes(retentionMinutes).toMillis();
+
+    this.journal = openJournal();
+    recover();
+
+    var threadFactory = new CustomizableThreadFactory("solution-store-compactor-");
+    threadFactory.setDaemon(true);
+    this.compactor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    this.compactor.scheduleWithFixedDelay(
+        this::compactIfNeeded, compactionIntervalMinutes, compactionIntervalMinutes,
+        TimeUnit.MINUTES);
+  }
+
+  private FileChannel openJournal() throws IOException {
+    return FileChannel.open(journalPath,
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Rebuilds the index from the journal and cuts off a record that was written incompletely.
+   */
+  private void recover() throws IOException {
+    long size = journal.size();
+    long position = 0;
+    while (position < size) {
+      Optional<RecordLocation> location = readHeader(position, size);
+      if (location.isEmpty()) {
+        break;
+      }
+
+      apply(location.get());
+      position = location.get().end();
+    }
+
+    if (position < size) {
+      journal.truncate(position);
+    }
+    journalSize = position;
+  }
+
+  private Optional<RecordLocation> readHeader(long position, long size) throws IOException {
+    if (position + HEADER_START_LENGTH > size) {
+      return Optional.empty();
+    }
+    ByteBuffer headerStart = readFully(position, HEADER_START_LENGTH);
+    byte operation = headerStart.get();
+    long timestamp = headerStart.getLong();
+    int problemTypeIdLength = headerStart.getShort();
+    if ((operation != STORE && operation != REMOVE) || problemTypeIdLength < 0) {
+      return Optional.empty();
+    }
+
+    long problemTypeIdPosition = position + HEADER_START_LENGTH;
+    if (problemTypeIdPosition + problemTypeIdLength + HEADER_END_LENGTH > size) {
+      return Optional.empty();
+    }
+    String problemTypeId = StandardCharsets.UTF_8.decode(
+        readFully(problemTypeIdPosition, problemTypeIdLength)).toString();
+    ByteBuffer headerEnd = readFully(
+        problemTypeIdPosition + problemTypeIdLength, HEADER_END_LENGTH);
+    long solutionId = headerEnd.getLong();
+    int payloadLength = headerEnd.getInt();
+    if (payloadLength < 0) {
+      return Optional.empty();
+    }
+
+    long payloadPosition = problemTypeIdPosition + problemTypeIdLength + HEADER_END_LENGTH;
+    if (payloadPosition + payloadLength + Integer.BYTES > size) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new RecordLocation(
+        operation, timestamp, problemTypeId, solutionId, position, payloadPosition,
+        payloadLength));
+  }
+
+  private void apply(RecordLocation location) {
+    var key = new RecordKey(location.problemTypeId(), location.solutionId());
+    RecordLocation previous = location.operation() == STORE
+        ? index.put(key, location)
+        : index.remove(key);
+    if (previous != null) {
+      liveSize -= previous.length();
+    }
+    if (location.operation() == STORE) {
+      liveSize += location.length();
+    }
+
+    Arrays.stream(ProblemType.values())
+        .filter(problemType -> problemType.getId().equals(location.problemTypeId()))
+        .findFirst()
+        .ifPresent(problemType -> latestIds.merge(problemType, location.solutionId(), Math::max));
+  }
+
+  @Override
+  public void store(ProblemType problemType, Solution<String> solution) {
+    byte[] payload;
+    try {
+      payload = objectMapper.writeValueAsBytes(solution);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not serialize solution " + solution.getId(), e);
+    }
+
+    append(STORE, problemType, solution.getId(), payload);
+  }
+
+  @Override
+  public void remove(ProblemType problemType, long solutionId) {
+    synchronized (this) {
+      if (!index.containsKey(new RecordKey(problemType.getId(), solutionId))) {
+        return;
+      }
+    }
+
+    append(REMOVE, problemType, solutionId, new byte[0]);
+  }
+
+  private synchronized void append(byte operation, ProblemType problemType, long solutionId,
+                                   byte[] payload) {
+    long timestamp = System.currentTimeMillis();
+    ByteBuffer record = encode(operation, timestamp, problemType.getId(), solutionId, payload);
+
+    long position = journalSize;
+    try {
+      write(journal, record, position);
+      journal.force(false);
+    } catch (IOException e) {
+      // drop whatever made it into the journal, so the next record starts at a record boundary
+      try {
+        journal.truncate(position);
+      } catch (IOException ignored) {
+        // recovery cuts off the incomplete record on the next start
+      }
+      throw new UncheckedIOException("Could not write to the solution journal", e);
+    }
+
+    journalSize = position + record.limit();
+    apply(new RecordLocation(operation, timestamp, problemType.getId(), solutionId, position,
+        journalSize - payload.length - Integer.BYTES, payload.length));
+  }
+
+  private static ByteBuffer encode(byte operation, long timestamp, String problemTypeId,
+                                   long solutionId, byte[] payload) {
+    byte[] encodedProblemTypeId = problemTypeId.getBytes(StandardCharsets.UTF_8);
+    var crc = new CRC32();
+    crc.update(payload);
+
+    ByteBuffer record = ByteBuffer.allocate(HEADER_START_LENGTH + encodedProblemTypeId.length
+        + HEADER_END_LENGTH + payload.length + Integer.BYTES);
+    return record.put(operation)
+        .putLong(timestamp)
+        .putShort((short) encodedProblemTypeId.length)
+        .put(encodedProblemTypeId)
+        .putLong(solutionId)
+        .putInt(payload.length)
+        .put(payload)
+        .putInt((int) crc.getValue())
+        .flip();
+  }
+
+  private static void write(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+
+  @Override
+  public synchronized Optional<Solution<String>> load(ProblemType problemType, long solutionId) {
+    RecordLocation location = index.get(new RecordKey(problemType.getId(), solutionId));
+    if (location == null || isExpired(location, System.currentTimeMillis())) {
+      return Optional.empty();
+    }
+
+    try {
+      ByteBuffer buffer = readFully(
+          location.payloadPosition(), location.payloadLength() + Integer.BYTES);
+      byte[] payload = new byte[location.payloadLength()];
+      buffer.get(payload);
+
+      var crc = new CRC32();
+      crc.update(payload);
+      if (buffer.getInt() != (int) crc.getValue()) {
+        return Optional.empty();
+      }
+
+      return Optional.of(objectMapper.readValue(payload, new TypeReference<Solution<String>>() {
+      }));
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public synchronized long getLatestId(ProblemType problemType) {
+    return latestIds.getOrDefault(problemType, 0L);
+  }
+
+  private boolean isExpired(RecordLocation location, long now) {
+    return now - location.timestamp() > retentionMillis;
+  }
+
+  /**
+   * Rewrites the journal with only the records that still need to be kept, if the journal has
+   * grown large enough for that to be worth it.
+   */
+  synchronized void compactIfNeeded() {
+    if (journalSize < MIN_COMPACTION_SIZE || journalSize < liveSize * COMPACTION_RATIO) {
+      return;
+    }
+
+    try {
+      compact();
+    } catch (IOException | UncheckedIOException e) {
+      // keep using the current journal, compaction is tried again next time
+    }
+  }
+
+  private void compact() throws IOException {
+    long now = System.currentTimeMillis();
+    Map<RecordKey, RecordLocation> compactedIndex = new HashMap<>();
+    long position = 0;
+
+    try (FileChannel compacted = FileChannel.open(compactionPath, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      // copy the records in the order of the journal, so recovery applies them in the same order
+      var locations = index.values().stream()
+          .filter(location -> !isExpired(location, now))
+          .sorted((a, b) -> Long.compare(a.position(), b.position()))
+          .toList();
+      for (RecordLocation location : locations) {
+        long copied = 0;
+        while (copied < location.length()) {
+          copied += journal.transferTo(
+              location.position() + copied, location.length() - copied, compacted);
+        }
+
+        compactedIndex.put(new RecordKey(location.problemTypeId(), location.solutionId()),
+            location.moveTo(position));
+        position += location.length();
+      }
+
+      // keep the latest ids of removed solutions, so they aren't handed out again after a restart
+      for (Map.Entry<ProblemType, Long> latestId : latestIds.entrySet()) {
+        var key = new RecordKey(latestId.getKey().getId(), latestId.getValue());
+        if (!compactedIndex.containsKey(key)) {
+          ByteBuffer record = encode(REMOVE, now, key.problemTypeId(), key.solutionId(),
+              new byte[0]);
+          write(compacted, record, position);
+          position += record.limit();
+        }
+      }
+      compacted.force(true);
+    }
+
+    journal.close();
+    Files.move(compactionPath, journalPath,
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    journal = openJournal();
+
+    index.clear();
+    index.putAll(compactedIndex);
+    journalSize = position;
+    liveSize = position;
+  }
+
+  private ByteBuffer readFully(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (journal.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of the solution journal");
+      }
+    }
+
+    return buffer.flip();
+  }
+
+  /**
+   * Stops the compaction and closes the journal.
+   */
+  @PreDestroy
+  public synchronized void shutdown() throws IOException {
+    compactor.shutdownNow();
+    journal.close();
+  }
+
+  private record RecordKey(String problemTypeId, long solutionId) {
+  }
+
+  /**
+   * Where a record is located in the journal.
+   *
+   * @param position        the position of the record's header.
+   * @param payloadPosition the position of the record's payload.
+   */
+  private record RecordLocation(
+      byte operation,
+      long timestamp,
+      String problemTypeId,
+      long solutionId,
+      long position,
+      long payloadPosition,
+      int payloadLength) {
+    private long end() {
+      return payloadPosition + payloadLength + Integer.BYTES;
+    }
+
+    private long length() {
+      return end() - position;
+    }
+
+    private RecordLocation moveTo(long newPosition) {
+      return new RecordLocation(operation, timestamp, problemTypeId, solutionId, newPosition,
+          payloadPosition - position + newPosition, payloadLength);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package edu.kit.provideq.toolbox;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Collects the console output of a process line by line, up to a maximum length.
+ * Lines can be appended from multiple threads, so stdout and stderr of a process can be drained
+ * at the same time.
+ * Once the output exceeds the maximum length, its beginning and its end are kept while the lines
+ * in between are dropped, since both usually are the most helpful parts of a solver log.
+ */
+public class ProcessOutput {
+  private final int headCapacity;
+  private final int tailCapacity;
+
+  private final StringBuilder head = new StringBuilder();
+  private final Deque<String> tail = new ArrayDeque<>();
+  private int tailLength;
+  private long omittedLength;
+
+  /**
+   * Creates an empty output.
+   *
+   * @param maxLength the maximum number of characters that are kept.
+   */
+  public ProcessOutput(int maxLength) {
+    this.headCapacity = maxLength / 2;
+    this.tailCapacity = maxLength - headCapacity;
+  }
+
+  /**
+   * Appends a line of output.
+   *
+   * @param line the line without its line terminator.
+   */
+  public synchronized void appendLine(String line) {
+    int separatorLength = head.isEmpty() ? 0 : 1;
+    if (tail.isEmpty() && head.length() + separatorLength + line.length() <= headCapacity) {
+      if (separatorLength > 0) {
+        head.append('\n');
+      }
+      head.append(line);
+      return;
+    }
+
+    // keep only the end of lines that wouldn't fit into the tail at all
+    if (line.length() > tailCapacity) {
+      omittedLength += line.length() - tailCapacity;
+      line = line.substring(line.length() - tailCapacity);
+    }
+
+    tail.addLast(line);
+    tailLength += line.length() + 1;
+    while (tailLength > tailCapacity + 1 && !tail.isEmpty()) {
+      int removedLength = tail.removeFirst().length() + 1;
+      tailLength -= removedLength;
+      omittedLength += removedLength;
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    var builder = new StringBuilder(head);
+
+    if (omittedLength > 0) {
+      if (!builder.isEmpty()) {
+        builder.append('\n');
+      }
+      builder.append("[... %d characters omitted ...]".formatted(omittedLength));
+    }
+
+    for (String line : tail) {
+      if (!builder.isEmpty()) {
+        builder.append('\n');
+      }
+      builder.append(line);
+    }
+
+    return builder.toString();
+  }
+}
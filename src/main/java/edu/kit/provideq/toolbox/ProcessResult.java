@@ -3,9 +3,12 @@ package edu.kit.provideq.toolbox;
 /**
  * Result of running a process.
  *
- * @param success did the process complete successfully
- * @param output  process console output
+ * @param success  did the process complete successfully
+ * @param output   process console output
+ * @param timedOut was the process killed because the time budget of the solving process was spent
  */
-public record ProcessResult(boolean success, String output) {
-
+public record ProcessResult(boolean success, String output, boolean timedOut) {
+  public ProcessResult(boolean success, String output) {
+    this(success, output, false);
+  }
 }
@@ -4,10 +4,21 @@ import edu.kit.provideq.toolbox.meta.ProblemType;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -32,6 +43,12 @@ public class ProcessRunner {
    */
   private static final String SOLUTION_FILE_NAME = "solution";
 
+  /**
+   * The path that is passed to the process instead of a file path when it should use stdin or
+   * stdout instead of a file.
+   */
+  private static final String STANDARD_STREAM_PATH = "-";
+
   protected final ProcessBuilder processBuilder;
   protected ResourceProvider resourceProvider;
 
@@ -39,6 +56,10 @@ public class ProcessRunner {
   private String solutionFilePathCommandFormat;
   private String problemFileName = PROBLEM_FILE_NAME;
   private String solutionFileName = SOLUTION_FILE_NAME;
+  private CancellationToken cancellationToken = new CancellationToken();
+  private int maxOutputLength = Integer.MAX_VALUE;
+  private int maxSolutionLength = Integer.MAX_VALUE;
+  private boolean pipeTransport;
 
   public ProcessRunner(ProcessBuilder processBuilder) {
     this.processBuilder = processBuilder;
@@ -49,6 +70,26 @@ public class ProcessRunner {
     this.resourceProvider = resourceProvider;
   }
 
+  /**
+   * Sets the maximum number of characters of the console output of the process that are kept.
+   * The middle part of longer output is dropped.
+   */
+  @Autowired
+  public void setMaxOutputLength(@Value("${process.output.max-length}") int maxOutputLength) {
+    this.maxOutputLength = maxOutputLength;
+  }
+
+  /**
+   * Sets the maximum number of characters of the solution that are read.
+   * Processes whose solution is longer fail, a process that writes its solution to stdout is
+   * killed as soon as it exceeds the limit.
+   */
+  @Autowired
+  public void setMaxSolutionLength(
+      @Value("${process.solution.max-length}") int maxSolutionLength) {
+    this.maxSolutionLength = maxSolutionLength;
+  }
+
   /**
    * Adds another command to the process builder.
    * This command is the path a file that contains the problem data.
@@ -121,6 +162,35 @@ public class ProcessRunner {
     return this;
   }
 
+  /**
+   * Streams the problem data to stdin of the process and reads the solution from its stdout,
+   * instead of exchanging them through files in the problem directory.
+   * The problem and solution file paths that are added to the command are replaced by
+   * {@code -}, the process must write any console output to stderr in this mode.
+   * Like the problem and solution files, both streams are UTF-8 encoded.
+   * Runners that don't support this fall back to files.
+   *
+   * @return Returns this instance for chaining.
+   */
+  public ProcessRunner pipeTransport() {
+    this.pipeTransport = true;
+
+    return this;
+  }
+
+  /**
+   * Sets the cancellation token of the solving process this process belongs to.
+   * The process is killed as soon as the token is cancelled or its deadline is reached.
+   *
+   * @param cancellationToken The token of the solving process.
+   * @return Returns this instance for chaining.
+   */
+  public ProcessRunner cancellationToken(CancellationToken cancellationToken) {
+    this.cancellationToken = cancellationToken;
+
+    return this;
+  }
+
   /**
    * Runs the process provided in the constructor.
    *
@@ -131,62 +201,242 @@ public class ProcessRunner {
    *     or an error as output depending on the success of the process.
    */
   public ProcessResult run(ProblemType problemType, long solutionId, String problemData) {
-    // Retrieve the problem directory
-    String problemDirectoryPath;
-    try {
-      problemDirectoryPath = resourceProvider
-          .getProblemDirectory(problemType, solutionId)
-          .getAbsolutePath();
-    } catch (IOException e) {
-      return new ProcessResult(
-          false,
-          "Error: The problem directory couldn't be retrieved:%n%s".formatted(e.getMessage())
-      );
-    }
+    return run(problemType, solutionId, channel -> {
+      ByteBuffer bytes = StandardCharsets.UTF_8.encode(problemData);
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+    });
+  }
 
-    // Build the problem and solution file paths
-    var problemFilePath = Paths.get(problemDirectoryPath, problemFileName);
-    var normalizedProblemFilePath = problemFilePath.toString().replace("\\", "/");
+  /**
+   * Runs the process provided in the constructor on problem data that is written straight to the
+   * problem file or to stdin of the process, so it doesn't have to be built as a string first.
+   *
+   * @param problemType   The type of the problem that is run
+   * @param solutionId    The id of the resulting solution
+   * @param problemWriter Writes the problem data that should be solved
+   * @return Returns the process result, which contains the solution data
+   *     or an error as output depending on the success of the process.
+   */
+  public ProcessResult run(ProblemType problemType, long solutionId,
+                           ProblemWriter problemWriter) {
+    ProcessResult result = runProcess(problemType, solutionId, problemWriter, null);
 
-    var solutionFile = Paths.get(problemDirectoryPath, solutionFileName);
-    var normalizedSolutionFilePath = solutionFile.toString().replace("\\", "/");
+    // The problem directory isn't needed anymore
+    resourceProvider.releaseProblemDirectory(problemType, solutionId, result.success());
 
-    // Write the problem data to the problem file
-    try {
-      Files.writeString(problemFilePath, problemData);
-    } catch (IOException e) {
-      return new ProcessResult(
-          false,
-          "Error: The problem data couldn't be written to %s:%n%s".formatted(
-              normalizedProblemFilePath, e.getMessage())
-      );
-    }
+    return result;
+  }
 
-    // Optionally add the problem file path to the command
-    if (problemFilePathCommandFormat != null) {
-      addCommand(problemFilePathCommandFormat.formatted(normalizedProblemFilePath));
+  /**
+   * Runs the process provided in the constructor on a problem that is already stored in a file.
+   * The process reads the file itself, so the problem data is neither loaded into memory nor
+   * copied to the problem directory.
+   *
+   * @param problemType The type of the problem that is run
+   * @param solutionId  The id of the resulting solution
+   * @param problemFile The file that contains the problem data that should be solved
+   * @return Returns the process result, which contains the solution data
+   *     or an error as output depending on the success of the process.
+   */
+  public ProcessResult run(ProblemType problemType, long solutionId, Path problemFile) {
+    ProcessResult result = runProcess(problemType, solutionId, null, problemFile);
+
+    // The problem directory isn't needed anymore
+    resourceProvider.releaseProblemDirectory(problemType, solutionId, result.success());
+
+    return result;
+  }
+
+  /**
+   * Runs the process on either a problem writer or a problem file, the other one is null.
+   */
+  private ProcessResult runProcess(ProblemType problemType, long solutionId,
+                                   ProblemWriter problemWriter, Path problemFile) {
+    boolean usePipes = pipeTransport && supportsPipeTransport();
+
+    Path solutionFile = null;
+    if (usePipes) {
+      // Tell the process to read the problem from stdin and to write the solution to stdout
+      if (problemFilePathCommandFormat != null) {
+        addCommand(problemFilePathCommandFormat.formatted(STANDARD_STREAM_PATH));
+      }
+      if (solutionFilePathCommandFormat != null) {
+        addCommand(solutionFilePathCommandFormat.formatted(STANDARD_STREAM_PATH));
+      }
+    } else {
+      // Retrieve the problem directory
+      String problemDirectoryPath;
+      try {
+        problemDirectoryPath = resourceProvider
+            .getProblemDirectory(problemType, solutionId)
+            .getAbsolutePath();
+      } catch (IOException e) {
+        return new ProcessResult(
+            false,
+            "Error: The problem directory couldn't be retrieved:%n%s".formatted(e.getMessage())
+        );
+      }
+
+      // Build the problem and solution file paths
+      var problemFilePath = problemFile != null
+          ? problemFile.toAbsolutePath()
+          : Paths.get(problemDirectoryPath, problemFileName);
+      var normalizedProblemFilePath = problemFilePath.toString().replace("\\", "/");
+
+      solutionFile = Paths.get(problemDirectoryPath, solutionFileName);
+      var normalizedSolutionFilePath = solutionFile.toString().replace("\\", "/");
+
+      // Write the problem data to the problem file, a given problem file is used as it is
+      if (problemFile == null) {
+        try (var channel = FileChannel.open(problemFilePath, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+          problemWriter.writeTo(channel);
+        } catch (IOException e) {
+          return new ProcessResult(
+              false,
+              "Error: The problem data couldn't be written to %s:%n%s".formatted(
+                  normalizedProblemFilePath, e.getMessage())
+          );
+        }
+      }
+
+      // Optionally add the problem file path to the command
+      if (problemFilePathCommandFormat != null) {
+        addCommand(problemFilePathCommandFormat.formatted(normalizedProblemFilePath));
+      }
+
+      // Optionally add the solution path to the command
+      if (solutionFilePathCommandFormat != null) {
+        addCommand(solutionFilePathCommandFormat.formatted(normalizedSolutionFilePath));
+      }
     }
 
-    // Optionally add the solution path to the command
-    if (solutionFilePathCommandFormat != null) {
-      addCommand(solutionFilePathCommandFormat.formatted(normalizedSolutionFilePath));
+    // Don't start the process if the solving process has already been cancelled or timed out
+    if (cancellationToken.isCancelled()) {
+      return new ProcessResult(false, "Solving %s problem was cancelled".formatted(problemType));
+    }
+    if (cancellationToken.isTimedOut()) {
+      return new ProcessResult(
+          false,
+          "Solving %s problem timed out before it was started".formatted(problemType),
+          true);
     }
 
     // Run the process
+    var output = new ProcessOutput(maxOutputLength);
+    var solution = new StringBuilder();
+    var solutionTooLong = new AtomicBoolean();
     String processOutput;
     int processExitCode;
+    Process process = null;
     try {
-      Process process = processBuilder.start();
-
-      processOutput = resourceProvider.readStream(process.inputReader())
-              + resourceProvider.readStream(process.errorReader());
-
+      process = startProcess();
+      cancellationToken.register(process);
+      String threadName = Thread.currentThread().getName();
+
+      // Drain stdout and stderr at the same time,
+      // a process blocks once the pipe buffer of a stream that isn't read is full
+      var errorReader = process.errorReader();
+      var errorDrainer = new Thread(() -> drainStream(errorReader, output), threadName + "-stderr");
+      errorDrainer.setDaemon(true);
+      errorDrainer.start();
+
+      Thread outputDrainer;
+      Thread inputWriter = null;
+      if (usePipes) {
+        // Write the problem while reading the solution, the process might start writing its
+        // solution before it has read the whole problem
+        var inputStream = process.getOutputStream();
+        inputWriter = new Thread(() -> writeProblem(inputStream, problemWriter, problemFile),
+            threadName + "-stdin");
+        inputWriter.setDaemon(true);
+        inputWriter.start();
+
+        var solutionReader = process.inputReader(StandardCharsets.UTF_8);
+        var runningProcess = process;
+        outputDrainer = new Thread(() -> {
+          try (solutionReader) {
+            if (!readSolution(solutionReader, solution)) {
+              // the solution is useless once it's cut off, don't let the process run on
+              solutionTooLong.set(true);
+              killProcess(runningProcess);
+            }
+          } catch (IOException e) {
+            // the stream is closed when the process is killed
+            output.appendLine("Error: The solution couldn't be read:%n%s".formatted(
+                e.getMessage()));
+          }
+        }, threadName + "-stdout");
+      } else {
+        var outputReader = process.inputReader();
+        outputDrainer = new Thread(() -> drainStream(outputReader, output),
+            threadName + "-stdout");
+      }
+      outputDrainer.setDaemon(true);
+      outputDrainer.start();
+
+      // Only wait in interruptible calls, so the solving thread can be stopped at any time
       processExitCode = process.waitFor();
-    } catch (IOException | InterruptedException e) {
+      outputDrainer.join();
+      errorDrainer.join();
+      if (inputWriter != null) {
+        inputWriter.join();
+      }
+      processOutput = output.toString();
+    } catch (InterruptedException e) {
+      // The solving thread is being stopped, e.g. because the server shuts down,
+      // don't leave the process running without anyone to kill it
+      killProcess(process);
+      Thread.currentThread().interrupt();
+      return new ProcessResult(
+          false,
+          "Solving %s problem was cancelled:%n%s".formatted(problemType, output));
+    } catch (IOException e) {
+      killProcess(process);
+      if (cancellationToken.isTimedOut()) {
+        return new ProcessResult(
+            false,
+            "Solving %s problem timed out:%n%s".formatted(problemType, output),
+            true);
+      }
+      if (cancellationToken.isCancelled()) {
+        return new ProcessResult(
+            false,
+            "Solving %s problem was cancelled:%n%s".formatted(problemType, output));
+      }
       return new ProcessResult(
           false,
           "Solving %s problem resulted in exception:%n%s".formatted(problemType, e.getMessage())
       );
+    } finally {
+      if (process != null) {
+        cancellationToken.unregister(process);
+      }
+    }
+
+    // Return prematurely if the process was killed because the solving process was cancelled
+    if (cancellationToken.isCancelled()) {
+      return new ProcessResult(
+          false,
+          "Solving %s problem was cancelled:%n%s".formatted(problemType, processOutput));
+    }
+
+    // Return prematurely if the process was killed because its solution was too long
+    if (solutionTooLong.get()) {
+      return new ProcessResult(
+          false,
+          "Error: The solution of the %s problem exceeds %d characters:%n%s".formatted(
+              problemType, maxSolutionLength, processOutput));
+    }
+
+    // Return prematurely if the process was killed because the time budget was spent
+    if (processExitCode != 0 && cancellationToken.isTimedOut()) {
+      return new ProcessResult(
+          false,
+          "Solving %s problem timed out:%n%s".formatted(problemType, processOutput),
+          true);
     }
 
     // Return prematurely if the process failed
@@ -196,27 +446,129 @@ public class ProcessRunner {
           "%s problem couldn't be solved:%n%s".formatted(problemType, processOutput));
     }
 
+    // The solution has already been read from stdout
+    if (usePipes) {
+      return new ProcessResult(true, solution.toString());
+    }
+
     // Read the solution file
-    String solutionText;
-    try {
-      solutionText = Files.readString(solutionFile);
+    try (var solutionReader = Files.newBufferedReader(solutionFile)) {
+      if (!readSolution(solutionReader, solution)) {
+        return new ProcessResult(
+            false,
+            "Error: The solution data in %s exceeds %d characters".formatted(
+                solutionFile, maxSolutionLength));
+      }
     } catch (IOException e) {
       return new ProcessResult(
           false,
-          "Error: The problem data couldn't be read from %s:%n%s".formatted(
-              normalizedProblemFilePath, e.getMessage())
+          "Error: The solution data couldn't be read from %s:%n%s".formatted(
+              solutionFile, e.getMessage())
       );
     }
 
     // Return the solution
     return new ProcessResult(
         true,
-        solutionText
+        solution.toString()
     );
 
   }
 
-  private void addCommand(String command) {
+  /**
+   * Returns whether this runner's processes can be run with {@link #pipeTransport()}.
+   */
+  protected boolean supportsPipeTransport() {
+    return true;
+  }
+
+  /**
+   * Starts the process that is configured by the process builder.
+   *
+   * @return the started process.
+   * @throws IOException when the process couldn't be started.
+   */
+  protected Process startProcess() throws IOException {
+    return processBuilder.start();
+  }
+
+  /**
+   * Kills a process that is still running together with its descendants, so it doesn't outlive
+   * the solving thread that has stopped waiting for it.
+   */
+  private static void killProcess(Process process) {
+    if (process != null) {
+      CancellationToken.destroyProcessTree(process);
+    }
+  }
+
+  /**
+   * Writes the problem data or copies the problem file to stdin of the process.
+   */
+  private static void writeProblem(OutputStream stream, ProblemWriter problemWriter,
+                                   Path problemFile) {
+    try (stream) {
+      if (problemFile != null) {
+        Files.copy(problemFile, stream);
+      } else {
+        problemWriter.writeTo(Channels.newChannel(stream));
+      }
+    } catch (IOException e) {
+      // the process has exited without reading the whole problem, its exit code reports that
+    }
+  }
+
+  /**
+   * Reads the solution from stdout of the process or from the solution file.
+   *
+   * @return false if the solution is longer than the maximum solution length, the solution is
+   *     incomplete then.
+   */
+  private boolean readSolution(BufferedReader reader, StringBuilder solution)
+      throws IOException {
+    char[] buffer = new char[8192];
+    int read = reader.read(buffer);
+    while (read != -1) {
+      if (read > maxSolutionLength - solution.length()) {
+        return false;
+      }
+      solution.append(buffer, 0, read);
+      read = reader.read(buffer);
+    }
+    return true;
+  }
+
+  /**
+   * Reads a stream of console output of the process line by line into the output.
+   */
+  private void drainStream(BufferedReader reader, ProcessOutput output) {
+    UnaryOperator<String> lineFilter = createOutputLineFilter();
+
+    try (reader) {
+      String line = reader.readLine();
+      while (line != null) {
+        output.appendLine(lineFilter.apply(line));
+        line = reader.readLine();
+      }
+    } catch (IOException e) {
+      // the stream is closed when the process is killed
+      output.appendLine("Error: The process output couldn't be read:%n%s".formatted(
+          e.getMessage()));
+    }
+  }
+
+  /**
+   * Creates a filter that is applied to each line of console output of the process before it is
+   * kept, e.g. to remove sensitive information.
+   * A new filter is created for each output stream, so filters may keep state across lines.
+   *
+   * @return a function that maps a line of output to the line that is kept.
+   */
+  protected UnaryOperator<String> createOutputLineFilter() {
+    return UnaryOperator.identity();
+  }
+
+  protected void addCommand(String command) {
     List<String> existingCommands = processBuilder.command();
     existingCommands.add(command);
     processBuilder.command(existingCommands);
@@ -236,4 +588,12 @@ public class ProcessRunner {
         .directory(new File(directory))
         .command(commands);
   }
+
+  /**
+   * Writes problem data to a channel, e.g., to the problem file or to stdin of the process.
+   */
+  @FunctionalInterface
+  public interface ProblemWriter {
+    void writeTo(WritableByteChannel channel) throws IOException;
+  }
 }
@@ -1,5 +1,7 @@
 package edu.kit.provideq.toolbox;
 
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -15,6 +17,8 @@ public class PythonProcessRunner extends ProcessRunner {
    */
   private static final String PYTHON_EXECUTABLE_NAME = "python";
 
+  private PythonWorkerPool workerPool;
+
   /**
    * Creates a process runner for a Python script.
    *
@@ -37,4 +41,32 @@ public class PythonProcessRunner extends ProcessRunner {
     super(
         createGenericProcessBuilder(directory, PYTHON_EXECUTABLE_NAME, scriptFileName, arguments));
   }
+
+  @Autowired
+  public void setWorkerPool(PythonWorkerPool workerPool) {
+    this.workerPool = workerPool;
+  }
+
+  /**
+   * Workers exchange problem and solution through files, so when the worker pool is enabled,
+   * files are preferred over pipes to benefit from the warm workers.
+   */
+  @Override
+  protected boolean supportsPipeTransport() {
+    return !workerPool.isEnabled();
+  }
+
+  /**
+   * Runs the script in a warm worker of the {@link PythonWorkerPool} if one is available,
+   * and in a fresh Python interpreter otherwise.
+   */
+  @Override
+  protected Process startProcess() throws IOException {
+    var workerProcess = workerPool.run(processBuilder);
+    if (workerProcess.isPresent()) {
+      return workerProcess.get();
+    }
+
+    return super.startProcess();
+  }
 }
@@ -0,0 +1,214 @@
+package edu.kit.provideq.toolbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * A long-lived Python process that runs one solver script again and again.
+ * The worker imports the dependencies of the script once when it is started, each run is then
+ * executed in a forked child process of the worker.
+ * See {@code python/worker.py} for the protocol the worker is controlled with.
+ */
+class PythonWorker {
+  private final Process process;
+  private final BufferedWriter commands;
+  private final BufferedReader events;
+  private final BufferedReader output;
+  private final String endOfOutputMarker;
+  private final ObjectMapper objectMapper;
+
+  private int jobCount;
+  private volatile boolean endOfOutputReached;
+
+  private PythonWorker(Process process, String endOfOutputMarker, ObjectMapper objectMapper) {
+    this.process = process;
+    this.endOfOutputMarker = endOfOutputMarker;
+    this.objectMapper = objectMapper;
+    this.commands = new BufferedWriter(
+        new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+    this.events = new BufferedReader(
+        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    this.output = new BufferedReader(
+        new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Starts a worker and waits until it has imported the dependencies of the script.
+   *
+   * @param executable   the Python executable to run the worker with.
+   * @param workerScript the path to the worker script.
+   * @param script       the path to the solver script the worker runs.
+   * @param objectMapper used to encode commands and decode events.
+   * @return the ready worker.
+   * @throws IOException when the worker couldn't be started.
+   */
+  static PythonWorker start(String executable, Path workerScript, Path script,
+                            ObjectMapper objectMapper) throws IOException {
+    String endOfOutputMarker = "<<end of output %s>>".formatted(UUID.randomUUID());
+
+    var processBuilder = new ProcessBuilder(
+        executable, workerScript.toString(), script.toString(), endOfOutputMarker)
+        .directory(script.getParent().toFile());
+    processBuilder.environment().put("PYTHONUNBUFFERED", "1");
+    processBuilder.environment().put("PYTHONIOENCODING", "utf-8");
+
+    var worker = new PythonWorker(processBuilder.start(), endOfOutputMarker, objectMapper);
+    try {
+      // output of the imports (e.g. deprecation warnings) doesn't belong to any run
+      worker.skipOutput();
+      worker.expectEvent("ready");
+    } catch (IOException e) {
+      worker.destroy();
+      throw e;
+    }
+
+    return worker;
+  }
+
+  /**
+   * Runs the solver script in a child process of the worker.
+   *
+   * @param workingDirectory the directory to run the script in.
+   * @param arguments        the arguments to pass to the script.
+   * @param onExit           called with this worker once the run has exited and the worker can
+   *                         take the next run.
+   * @return the process of the run.
+   * @throws IOException when the worker couldn't start the run.
+   */
+  PythonWorkerProcess run(Path workingDirectory, List<String> arguments,
+                          Consumer<PythonWorker> onExit) throws IOException {
+    jobCount++;
+    endOfOutputReached = false;
+    send(Map.of(
+        "command", "run",
+        "cwd", workingDirectory.toString(),
+        "args", arguments));
+    long pid = expectEvent("started").get("pid").asLong();
+
+    return new PythonWorkerProcess(this, pid, onExit);
+  }
+
+  /**
+   * Checks whether the worker responds in time and doesn't use too much memory.
+   *
+   * @param timeout        the time the worker has to respond.
+   * @param maxMemoryBytes the maximum resident memory of the worker.
+   * @return true if the worker can take another run, false otherwise.
+   */
+  boolean isHealthy(Duration timeout, long maxMemoryBytes) {
+    if (!process.isAlive()) {
+      return false;
+    }
+
+    try {
+      send(Map.of("command", "ping"));
+      JsonNode pong = CompletableFuture
+          .supplyAsync(() -> {
+            try {
+              return expectEvent("pong");
+            } catch (IOException e) {
+              throw new IllegalStateException(e);
+            }
+          })
+          .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+      return pong.get("rss").asLong() <= maxMemoryBytes;
+    } catch (IOException | ExecutionException | TimeoutException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  int getJobCount() {
+    return jobCount;
+  }
+
+  /**
+   * Kills the worker. Reading from a worker that is blocked waiting for it fails afterward.
+   */
+  void destroy() {
+    process.destroyForcibly();
+  }
+
+  /**
+   * Reads a line of console output of the current run.
+   *
+   * @return the line, or null once the end of the output of the run has been reached.
+   */
+  String readOutputLine() throws IOException {
+    if (endOfOutputReached) {
+      return null;
+    }
+
+    String line = output.readLine();
+    if (line == null) {
+      throw new IOException("The Python worker has exited unexpectedly");
+    }
+
+    // the marker follows the output of the run directly, even if it doesn't end with a newline
+    if (line.endsWith(endOfOutputMarker)) {
+      endOfOutputReached = true;
+      line = line.substring(0, line.length() - endOfOutputMarker.length());
+      return line.isEmpty() ? null : line;
+    }
+
+    return line;
+  }
+
+  /**
+   * Waits until the current run has exited.
+   * The output of the run must have been read to its end before, the worker reports the exit of
+   * a run only after its output.
+   *
+   * @return the exit code of the run.
+   */
+  int awaitExit() throws IOException {
+    return expectEvent("exited").get("code").asInt();
+  }
+
+  private void skipOutput() throws IOException {
+    String line = readOutputLine();
+    while (line != null) {
+      line = readOutputLine();
+    }
+  }
+
+  private void send(Map<String, Object> command) throws IOException {
+    commands.write(objectMapper.writeValueAsString(command));
+    commands.newLine();
+    commands.flush();
+  }
+
+  private JsonNode expectEvent(String eventName) throws IOException {
+    String line = events.readLine();
+    if (line == null) {
+      throw new IOException("The Python worker has exited unexpectedly");
+    }
+
+    JsonNode event = objectMapper.readTree(line);
+    if (!eventName.equals(event.path("event").asText())) {
+      throw new IOException("Expected %s event from the Python worker, but got: %s".formatted(
+          eventName, line));
+    }
+
+    return event;
+  }
+}
@@ -0,0 +1,186 @@
+package edu.kit.provideq.toolbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps long-lived Python worker processes that have already imported the dependencies of a solver
+ * script (e.g. qiskit or cirq), which often takes longer than solving small problems.
+ * Solver scripts that are run through a {@link PythonProcessRunner} are dispatched to these
+ * workers if the pool is enabled with the {@code python.worker.enabled} property.
+ *
+ * <p>Each solver script has its own workers, up to {@code python.worker.pool-size} of them.
+ * The pool size can also be configured per script with the
+ * {@code python.worker.<script-name-without-extension>.pool-size} property.
+ * Workers are checked for responsiveness before each run and are replaced after running
+ * {@code python.worker.max-jobs} runs or once they use more than
+ * {@code python.worker.max-memory-mb} of memory.
+ */
+@Component
+public class PythonWorkerPool {
+  private final boolean enabled;
+  private final Path workerScript;
+  private final int defaultPoolSize;
+  private final int maxJobsPerWorker;
+  private final long maxMemoryBytes;
+  private final Duration healthCheckTimeout;
+  private final Environment environment;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final Map<WorkerKey, Deque<PythonWorker>> idleWorkers = new HashMap<>();
+  private final Map<WorkerKey, Integer> workerCounts = new HashMap<>();
+  private boolean shutDown;
+
+  /**
+   * Creates an empty pool, workers are started when they are first needed.
+   */
+  @Autowired
+  public PythonWorkerPool(
+      @Value("${python.worker.enabled}") boolean enabled,
+      @Value("${python.worker.script}") String workerScript,
+      @Value("${python.worker.pool-size}") int defaultPoolSize,
+      @Value("${python.worker.max-jobs}") int maxJobsPerWorker,
+      @Value("${python.worker.max-memory-mb}") long maxMemoryMegabytes,
+      @Value("${python.worker.health-check-timeout-ms}") long healthCheckTimeoutMilliseconds,
+      Environment environment) {
+    this.enabled = enabled;
+    this.workerScript = Path.of(workerScript).toAbsolutePath();
+    this.defaultPoolSize = defaultPoolSize;
+    this.maxJobsPerWorker = maxJobsPerWorker;
+    this.maxMemoryBytes = maxMemoryMegabytes * 1024 * 1024;
+    this.healthCheckTimeout = Duration.ofMillis(healthCheckTimeoutMilliseconds);
+    this.environment = environment;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Runs the Python script that the process builder would run in a worker.
+   *
+   * @param processBuilder a process builder for the command
+   *                       {@code <python executable> <script> <arguments...>}.
+   * @return the process of the run, or an empty optional if the pool is disabled, all workers of
+   *     the script are busy or no worker could be started. Start the process builder instead then.
+   */
+  public Optional<Process> run(ProcessBuilder processBuilder) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+
+    List<String> command = processBuilder.command();
+    Path workingDirectory = processBuilder.directory() == null
+        ? Path.of("").toAbsolutePath()
+        : processBuilder.directory().toPath().toAbsolutePath();
+    var key = new WorkerKey(command.get(0), workingDirectory.resolve(command.get(1)).normalize());
+    List<String> arguments = new ArrayList<>(command.subList(2, command.size()));
+
+    Optional<PythonWorker> worker = borrow(key);
+    if (worker.isEmpty()) {
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of(worker.get().run(workingDirectory, arguments, w -> release(key, w)));
+    } catch (IOException e) {
+      discard(key, worker.get());
+      return Optional.empty();
+    }
+  }
+
+  private Optional<PythonWorker> borrow(WorkerKey key) {
+    while (true) {
+      PythonWorker worker;
+      synchronized (this) {
+        if (shutDown) {
+          return Optional.empty();
+        }
+
+        worker = idleWorkers.computeIfAbsent(key, k -> new ArrayDeque<>()).pollFirst();
+        if (worker == null) {
+          int workerCount = workerCounts.getOrDefault(key, 0);
+          if (workerCount >= getPoolSize(key)) {
+            return Optional.empty();
+          }
+          workerCounts.put(key, workerCount + 1);
+        }
+      }
+
+      if (worker == null) {
+        try {
+          return Optional.of(PythonWorker.start(
+              key.executable(), workerScript, key.script(), objectMapper));
+        } catch (IOException e) {
+          synchronized (this) {
+            workerCounts.merge(key, -1, Integer::sum);
+          }
+          return Optional.empty();
+        }
+      }
+
+      if (worker.isHealthy(healthCheckTimeout, maxMemoryBytes)) {
+        return Optional.of(worker);
+      }
+
+      // replace the unhealthy worker
+      discard(key, worker);
+    }
+  }
+
+  private void release(WorkerKey key, PythonWorker worker) {
+    synchronized (this) {
+      if (!shutDown && worker.getJobCount() < maxJobsPerWorker) {
+        idleWorkers.computeIfAbsent(key, k -> new ArrayDeque<>()).addFirst(worker);
+        return;
+      }
+    }
+
+    discard(key, worker);
+  }
+
+  private void discard(WorkerKey key, PythonWorker worker) {
+    worker.destroy();
+    synchronized (this) {
+      workerCounts.merge(key, -1, Integer::sum);
+    }
+  }
+
+  private int getPoolSize(WorkerKey key) {
+    String scriptName = key.script().getFileName().toString();
+    int extensionIndex = scriptName.lastIndexOf('.');
+    if (extensionIndex > 0) {
+      scriptName = scriptName.substring(0, extensionIndex);
+    }
+
+    return environment.getProperty(
+        "python.worker.%s.pool-size".formatted(scriptName), Integer.class, defaultPoolSize);
+  }
+
+  /**
+   * Kills all idle workers, busy workers are killed once their run has exited.
+   */
+  @PreDestroy
+  public synchronized void shutdown() {
+    shutDown = true;
+    idleWorkers.values().forEach(workers -> workers.forEach(PythonWorker::destroy));
+    idleWorkers.clear();
+  }
+
+  private record WorkerKey(String executable, Path script) {
+  }
+}
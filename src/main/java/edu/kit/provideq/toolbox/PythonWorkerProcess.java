@@ -0,0 +1,190 @@
+package edu.kit.provideq.toolbox;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * A run of a solver script in a {@link PythonWorker}.
+ * Behaves like the process of a fresh Python interpreter running the script, so a
+ * {@link ProcessRunner} can handle both the same way:
+ * the console output of the run is provided as its input stream, and destroying it kills the
+ * child process of the worker that executes the run.
+ *
+ * <p>Like the pipes of a real process, the input stream must be read to its end for the run to
+ * exit: {@link #waitFor()} doesn't read any output itself, it only waits for the reader to reach
+ * the end before it takes the exit code from the worker and hands the worker back to its pool.
+ */
+class PythonWorkerProcess extends Process {
+  private final PythonWorker worker;
+  private final long pid;
+  private final Optional<ProcessHandle> handle;
+  private final Consumer<PythonWorker> onExit;
+  private final InputStream output = new RunOutputStream();
+  private final CountDownLatch outputEnded = new CountDownLatch(1);
+
+  private Integer exitCode;
+
+  PythonWorkerProcess(PythonWorker worker, long pid, Consumer<PythonWorker> onExit) {
+    this.worker = worker;
+    this.pid = pid;
+    // the run might have exited already
+    this.handle = ProcessHandle.of(pid);
+    this.onExit = onExit;
+  }
+
+  @Override
+  public OutputStream getOutputStream() {
+    return OutputStream.nullOutputStream();
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return output;
+  }
+
+  /**
+   * The worker merges the error output of the run into its console output.
+   */
+  @Override
+  public InputStream getErrorStream() {
+    return InputStream.nullInputStream();
+  }
+
+  @Override
+  public synchronized int waitFor() throws InterruptedException {
+    if (exitCode == null) {
+      try {
+        outputEnded.await();
+      } catch (InterruptedException e) {
+        // the output of the run is still being read, so the worker can't take another run,
+        // killing it ends the read, killing the run doesn't leave it without a parent
+        destroyForcibly();
+        worker.destroy();
+        exitCode = -1;
+        onExit.accept(worker);
+        throw e;
+      }
+
+      try {
+        exitCode = worker.awaitExit();
+      } catch (IOException e) {
+        // the worker is broken, don't let it take any further runs
+        worker.destroy();
+        exitCode = -1;
+      }
+      onExit.accept(worker);
+    }
+
+    return exitCode;
+  }
+
+  @Override
+  public synchronized int exitValue() {
+    if (exitCode == null) {
+      throw new IllegalThreadStateException("The Python worker run hasn't exited yet");
+    }
+
+    return exitCode;
+  }
+
+  @Override
+  public void destroy() {
+    handle.ifPresent(ProcessHandle::destroy);
+  }
+
+  @Override
+  public Process destroyForcibly() {
+    handle.ifPresent(ProcessHandle::destroyForcibly);
+    return this;
+  }
+
+  @Override
+  public boolean isAlive() {
+    return handle.map(ProcessHandle::isAlive).orElse(false);
+  }
+
+  @Override
+  public long pid() {
+    return pid;
+  }
+
+  @Override
+  public ProcessHandle toHandle() {
+    return handle.orElseThrow(() -> new UnsupportedOperationException(
+        "The Python worker run has already exited"));
+  }
+
+  @Override
+  public Stream<ProcessHandle> descendants() {
+    return handle.map(ProcessHandle::descendants).orElseGet(Stream::empty);
+  }
+
+  /**
+   * Reads the console output of the run from the worker, line by line.
+   */
+  private class RunOutputStream extends InputStream {
+    private byte[] buffer = new byte[0];
+    private int position;
+    private boolean ended;
+
+    @Override
+    public int read() throws IOException {
+      if (!fill()) {
+        return -1;
+      }
+
+      return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (!fill()) {
+        return -1;
+      }
+
+      int count = Math.min(length, buffer.length - position);
+      System.arraycopy(buffer, position, bytes, offset, count);
+      position += count;
+      return count;
+    }
+
+    private boolean fill() throws IOException {
+      while (position == buffer.length) {
+        if (ended) {
+          return false;
+        }
+
+        String line;
+        try {
+          line = worker.readOutputLine();
+        } catch (IOException e) {
+          endOutput();
+          throw e;
+        }
+
+        if (line == null) {
+          endOutput();
+        } else {
+          buffer = (line + "\n").getBytes(StandardCharsets.UTF_8);
+          position = 0;
+        }
+      }
+
+      return true;
+    }
+
+    private void endOutput() {
+      ended = true;
+      outputEnded.countDown();
+    }
+  }
+}
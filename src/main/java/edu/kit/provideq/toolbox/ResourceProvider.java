@@ -7,11 +7,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
@@ -21,14 +19,14 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class ResourceProvider {
-  private final String workingDirectoryPath;
+  private final WorkingDirectoryManager workingDirectoryManager;
   private final ResourceLoader resourceLoader;
 
   @Autowired
   public ResourceProvider(
-      @Value("${working.directory}") String workingDirectoryPath,
+      WorkingDirectoryManager workingDirectoryManager,
       ResourceLoader resourceLoader) {
-    this.workingDirectoryPath = workingDirectoryPath;
+    this.workingDirectoryManager = workingDirectoryManager;
     this.resourceLoader = resourceLoader;
   }
 
@@ -39,12 +37,7 @@ public class ResourceProvider {
    * @throws IOException when the directory couldn't be created
    */
   public File getWorkingDirectory() throws IOException {
-    var workingDirectory = new File(workingDirectoryPath);
-
-    // Create working directory
-    Files.createDirectories(Paths.get(workingDirectory.toURI()));
-
-    return workingDirectory;
+    return workingDirectoryManager.getWorkingDirectory();
   }
 
   /**
@@ -56,13 +49,20 @@ public class ResourceProvider {
    * @throws IOException when the directory couldn't be accessed or created
    */
   public File getProblemDirectory(ProblemType problemType, long solutionId) throws IOException {
-    File workingDirectory = getWorkingDirectory();
-
-    Path dir =
-        Paths.get(workingDirectory.toString(), problemType.toString(), String.valueOf(solutionId));
-    Files.createDirectories(dir);
+    return workingDirectoryManager.getProblemDirectory(problemType, solutionId);
+  }
 
-    return dir.toFile();
+  /**
+   * Signals that a run in the directory for a problem type and solution id is finished,
+   * so the directory can be cleaned up.
+   *
+   * @param problemType problem type of the directory
+   * @param solutionId  solution id of the directory
+   * @param succeeded   whether the run succeeded, directories of failed runs are kept longer
+   */
+  public void releaseProblemDirectory(ProblemType problemType, long solutionId,
+                                      boolean succeeded) {
+    workingDirectoryManager.releaseProblemDirectory(problemType, solutionId, succeeded);
   }
 
   public List<String> getExampleProblems(String examplesDirectoryPath) throws IOException {
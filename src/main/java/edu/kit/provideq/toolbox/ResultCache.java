@@ -0,0 +1,336 @@
+package edu.kit.provideq.toolbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the results of deterministic solvers, so identical solve requests are answered without
+ * starting the solver again.
+ *
+ * <p>Results are keyed by the SHA-256 hash of the problem type, the normalized problem content,
+ * the id of the solver, the requested meta-solver settings and the requested sub-routine calls.
+ * Only solved solutions are cached. Entries that haven't been used for longer than
+ * {@code solutions.cache.ttl-minutes} are dropped, and if there are more entries than
+ * {@code solutions.cache.max-entries} or they take up more than {@code solutions.cache.max-mb},
+ * the least recently used ones are evicted.
+ *
+ * <p>Textual solution data and debug data are kept compressed. Other solution data is shared with
+ * the solutions, its size is estimated by the length of its string form.
+ */
+@Component
+@ConditionalOnProperty(name = "solutions.cache.enabled", havingValue = "true")
+public class ResultCache {
+  private static final ObjectMapper KEY_MAPPER = new ObjectMapper()
+      .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+  private final long timeToLiveMillis;
+  private final int maxEntries;
+  private final long maxBytes;
+  private long totalBytes;
+
+  /**
+   * All entries in the order of their last use, the least recently used entry comes first.
+   */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<ProblemType, Counters> counters = new EnumMap<>(ProblemType.class);
+
+  /**
+   * Creates an empty result cache.
+   */
+  @Autowired
+  public ResultCache(
+      @Value("${solutions.cache.ttl-minutes}") long timeToLiveMinutes,
+      @Value("${solutions.cache.max-entries}") int maxEntries,
+      @Value("${solutions.cache.max-mb}") long maxMegabytes) {
+    this.timeToLiveMillis = Duration.ofMinutes(timeToLiveMinutes).toMillis();
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxMegabytes * 1024 * 1024;
+    for (ProblemType problemType : ProblemType.values()) {
+      counters.put(problemType, new Counters());
+    }
+  }
+
+  /**
+   * Computes the key of the result of a solve request.
+   *
+   * @param problemType the type of the problem that is solved.
+   * @param solverId    the id of the solver that solves the problem.
+   * @param request     the solve request.
+   * @return the key, or an empty optional if the request can't be hashed, e.g., because its content
+   *         can't be serialized.
+   */
+  public static Optional<String> computeKey(ProblemType problemType, String solverId,
+                                            SolveRequest<?> request) {
+    Map<String, Object> keyContent = describe(request);
+    keyContent.put("problemType", problemType.getId());
+    keyContent.put("solverId", solverId);
+
+    try {
+      byte[] canonicalJson = KEY_MAPPER.writeValueAsBytes(keyContent);
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonicalJson);
+      return Optional.of(HexFormat.of().formatHex(hash));
+    } catch (JsonProcessingException e) {
+      return Optional.empty();
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Describes everything of a request that influences its result. Priorities and time budgets
+   * are left out, they only decide when and whether a result is computed, but not which one.
+   */
+  private static Map<String, Object> describe(SolveRequest<?> request) {
+    Map<String, Object> description = new TreeMap<>();
+    description.put("content", normalize(request.requestContent));
+    description.put("solverId", request.requestedSolverId);
+    description.put("settings", request.requestedMetaSolverSettings);
+
+    Map<String, Object> subRoutines = new TreeMap<>();
+    if (request.requestedSubSolveRequests != null) {
+      request.requestedSubSolveRequests.forEach((problemType, subRequest) ->
+          subRoutines.put(problemType.getId(), describe(subRequest)));
+    }
+    description.put("subRoutines", subRoutines);
+
+    return description;
+  }
+
+  private static Object normalize(Object content) {
+    if (content instanceof String text) {
+      // problems that only differ in their line endings or surrounding whitespace are the same
+      return text.replace("\r\n", "\n").strip();
+    }
+    return content;
+  }
+
+  /**
+   * Copies a cached result into a solution and marks it solved.
+   *
+   * @return true if there was a cached result, false if the solution wasn't changed.
+   */
+  public <S> boolean restore(ProblemType problemType, String key, Solution<S> solution) {
+    Entry entry = lookUp(problemType, key, true);
+    if (entry == null) {
+      return false;
+    }
+
+    copyInto(entry, solution);
+    return true;
+  }
+
+  /**
+   * Creates a solution from a cached result and marks it solved, if there is a cached result.
+   * Unlike {@link #restore(ProblemType, String, Solution)}, a missing result isn't counted as a
+   * miss, as it is looked up again by the solving process of the request.
+   *
+   * @param solutionSupplier creates the solution, it is only called if there is a cached result.
+   */
+  public <S> Optional<Solution<S>> restore(ProblemType problemType, String key,
+                                           Supplier<Solution<S>> solutionSupplier) {
+    Entry entry = lookUp(problemType, key, false);
+    if (entry == null) {
+      return Optional.empty();
+    }
+
+    Solution<S> solution = solutionSupplier.get();
+    copyInto(entry, solution);
+    return Optional.of(solution);
+  }
+
+  private synchronized Entry lookUp(ProblemType problemType, String key, boolean countMiss) {
+    evictExpired(System.currentTimeMillis());
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      if (countMiss) {
+        counters.get(problemType).missCount++;
+      }
+      return null;
+    }
+    entry.lastUsed = System.currentTimeMillis();
+    counters.get(problemType).hitCount++;
+    return entry;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <S> void copyInto(Entry entry, Solution<S> solution) {
+    // entries are only shared by solvers of the same solution type
+    solution.setSolutionData(entry.solutionText != null
+        ? (S) entry.solutionText.read()
+        : (S) entry.solutionData);
+    solution.setDebugData(entry.debugData == null ? null : entry.debugData.read());
+    solution.setMetaData(entry.metaData);
+    solution.complete();
+  }
+
+  /**
+   * Caches the result of a solution if it has been solved.
+   */
+  public void store(ProblemType problemType, String key, Solution<?> solution) {
+    if (solution.getStatus() != SolutionStatus.SOLVED) {
+      return;
+    }
+
+    // compressed before locking, so other requests don't wait for it
+    var entry = new Entry(problemType, solution.getSolutionData(), solution.getDebugData(),
+        solution.getMetaData());
+    if (entry.size > maxBytes) {
+      return;
+    }
+
+    synchronized (this) {
+      Entry previous = entries.put(key, entry);
+      if (previous != null) {
+        counters.get(previous.problemType).entryCount--;
+        totalBytes -= previous.size;
+      }
+      counters.get(problemType).entryCount++;
+      totalBytes += entry.size;
+
+      evictExpired(entry.lastUsed);
+      for (Iterator<Entry> it = entries.values().iterator();
+           it.hasNext() && (entries.size() > maxEntries || totalBytes > maxBytes); ) {
+        var evicted = it.next();
+        it.remove();
+        totalBytes -= evicted.size;
+        var evictedCounters = counters.get(evicted.problemType);
+        evictedCounters.entryCount--;
+        evictedCounters.evictedCount++;
+      }
+    }
+  }
+
+  /**
+   * Returns the hit and miss metrics of the results of a problem type.
+   */
+  public synchronized Statistics getStatistics(ProblemType problemType) {
+    var problemTypeCounters = counters.get(problemType);
+    return new Statistics(
+        problemTypeCounters.entryCount,
+        problemTypeCounters.hitCount,
+        problemTypeCounters.missCount,
+        problemTypeCounters.expiredCount,
+        problemTypeCounters.evictedCount);
+  }
+
+  private void evictExpired(long now) {
+    // the least recently used entries expire first, so the sweep can stop at the first live one
+    for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+      var entry = it.next();
+      if (now - entry.lastUsed <= timeToLiveMillis) {
+        return;
+      }
+
+      it.remove();
+      totalBytes -= entry.size;
+      var expiredCounters = counters.get(entry.problemType);
+      expiredCounters.entryCount--;
+      expiredCounters.expiredCount++;
+    }
+  }
+
+  private static class Entry {
+    private final ProblemType problemType;
+
+    /**
+     * Solution data that isn't a string, null if it is kept as {@link #solutionText}.
+     */
+    private final Object solutionData;
+    private final CachedText solutionText;
+    private final CachedText debugData;
+    private final String metaData;
+
+    /**
+     * The estimated number of bytes the entry takes up.
+     */
+    private final long size;
+    private long lastUsed = System.currentTimeMillis();
+
+    private Entry(ProblemType problemType, Object solutionData, String debugData,
+                  String metaData) {
+      this.problemType = problemType;
+      if (solutionData instanceof String text) {
+        this.solutionData = null;
+        this.solutionText = CachedText.of(text);
+      } else {
+        this.solutionData = solutionData;
+        this.solutionText = null;
+      }
+      this.debugData = debugData == null ? null : CachedText.of(debugData);
+      this.metaData = metaData;
+
+      long solutionSize = solutionText != null
+          ? solutionText.size()
+          : solutionData == null ? 0 : solutionData.toString().length();
+      this.size = solutionSize
+          + (this.debugData == null ? 0 : this.debugData.size())
+          + (metaData == null ? 0 : metaData.length());
+    }
+  }
+
+  /**
+   * A string that is kept compressed, unless compressing it doesn't save memory.
+   */
+  private record CachedText(String text, CompressedText compressed) {
+    private static CachedText of(String text) {
+      return CompressedText.compress(text)
+          .map(compressed -> new CachedText(null, compressed))
+          .orElseGet(() -> new CachedText(text, null));
+    }
+
+    private String read() {
+      return compressed == null ? text : compressed.read();
+    }
+
+    private long size() {
+      return compressed == null ? text.length() : compressed.compressedSize();
+    }
+  }
+
+  private static class Counters {
+    private int entryCount;
+    private long hitCount;
+    private long missCount;
+    private long expiredCount;
+    private long evictedCount;
+  }
+
+  /**
+   * Result cache metrics of a problem type.
+   *
+   * @param entryCount   the number of results that are currently cached.
+   * @param hitCount     the number of solve requests that have been answered with a cached result.
+   * @param missCount    the number of solve requests of deterministic solvers that had no cached
+   *                     result.
+   * @param expiredCount the number of results that have been dropped because they haven't been
+   *                     used for longer than the time to live.
+   * @param evictedCount the number of results that have been evicted because there were too many
+   *                     results.
+   */
+  public record Statistics(
+      int entryCount,
+      long hitCount,
+      long missCount,
+      long expiredCount,
+      long evictedCount) {
+  }
+}
@@ -1,8 +1,14 @@
 package edu.kit.provideq.toolbox;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotNull;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntSupplier;
+import org.springframework.lang.Nullable;
 
 /**
  * A solution holds all information concerning a specific
@@ -10,16 +16,39 @@ import java.util.function.Function;
  * {@link edu.kit.provideq.toolbox.meta.ProblemSolver}. This includes metadata, debug data,
  * the current status of the process, as well as the eventually generated solution data
  *
+ * <p>Solutions are written by solver threads and read by other threads, e.g., those serving HTTP
+ * requests. All changes are published safely, and a completed status can't be changed by the
+ * status transitions ({@link #complete()}, {@link #fail()}, ...) anymore.
+ * Change listeners are notified after each change, on the thread that made the change, and the
+ * {@link #getVersion() version} is incremented, so consumers don't need to poll for changes.
+ *
  * @param <S> the type of the generated solution data
  */
 public class Solution<S> {
+  /**
+   * Strings shorter than this barely shrink when compressed and aren't worth decompressing.
+   */
+  private static final int MIN_COMPRESSED_LENGTH = 1024;
+
   private final long id;
-  private SolutionStatus status = SolutionStatus.COMPUTING;
-  private String metaData = "";
-  private S solutionData;
-  private String debugData;
-  private String solverName;
-  private long executionMilliseconds;
+  private volatile SolutionStatus status = SolutionStatus.COMPUTING;
+  private volatile String metaData = "";
+  private volatile S solutionData;
+  private volatile String debugData;
+  private volatile StoredText storedSolutionData;
+  private volatile StoredText storedDebugData;
+  private volatile String solverName;
+  private volatile long executionMilliseconds;
+  private volatile int queuePosition;
+  /**
+   * Computes the queue position on each read while the solving process is waiting, or null.
+   */
+  private volatile IntSupplier queuePositionSource;
+  private volatile long waitingMilliseconds;
+  private volatile long version;
+  private volatile boolean finished;
+  private final List<Consumer<? super Solution<S>>> changeListeners =
+      new CopyOnWriteArrayList<>();
 
   /**
    * Internal constructor, used for de-serialization.
@@ -40,8 +69,85 @@ public class Solution<S> {
     return this.status;
   }
 
+  /**
+   * Sets the status, even if the solution has already been completed.
+   * Use the status transitions ({@link #complete()}, {@link #fail()}, ...) unless the status of a
+   * completed solution needs to be corrected.
+   */
   public void setStatus(SolutionStatus newStatus) {
-    this.status = newStatus;
+    update(() -> this.status = newStatus);
+  }
+
+  /**
+   * Returns the number of changes that have been made to this solution.
+   * A solution with a higher version than a previously observed copy of it has been changed since.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns whether the solving process of this solution has ended and won't change it anymore.
+   * Unlike a completed status, which is set by the solver, this includes the changes that are
+   * made after the solver has returned, e.g., the execution time.
+   */
+  @JsonIgnore
+  public boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Marks this solution as finished, see {@link #isFinished()}.
+   */
+  public void finish() {
+    update(() -> this.finished = true);
+  }
+
+  /**
+   * Registers a listener that is notified after each change of this solution.
+   * Listeners are called on the thread that made the change, so they must not block.
+   */
+  public void addChangeListener(Consumer<? super Solution<S>> listener) {
+    changeListeners.add(listener);
+  }
+
+  public void removeChangeListener(Consumer<? super Solution<S>> listener) {
+    changeListeners.remove(listener);
+  }
+
+  private void update(Runnable change) {
+    synchronized (this) {
+      change.run();
+      version++;
+    }
+    notifyChangeListeners();
+  }
+
+  /**
+   * Changes the status if this solution isn't completed yet.
+   *
+   * @return true if the status has been changed, false if the solution was already completed.
+   */
+  private boolean transitionTo(SolutionStatus newStatus) {
+    synchronized (this) {
+      if (status.isCompleted()) {
+        return false;
+      }
+      status = newStatus;
+      version++;
+    }
+    notifyChangeListeners();
+    return true;
+  }
+
+  private void notifyChangeListeners() {
+    for (Consumer<? super Solution<S>> listener : changeListeners) {
+      try {
+        listener.accept(this);
+      } catch (RuntimeException e) {
+        // a broken listener must not break the solver that changed the solution
+      }
+    }
   }
 
   public Solution<String> toStringSolution() {
@@ -59,14 +165,27 @@ public class Solution<S> {
   public Solution<String> toStringSolution(@NotNull Function<S, String> stringSelector) {
     Objects.requireNonNull(stringSelector, "Missing String selector!");
 
+    // the copy is taken under the lock, so it isn't a mix of the states before and after a
+    // change, but the selector may be slow and runs after the lock has been released
     var stringSolution = new Solution<String>(getId());
-    stringSolution.status = status;
-    stringSolution.metaData = metaData;
-    stringSolution.solutionData =
-        (solutionData == null) ? null : stringSelector.apply(solutionData);
-    stringSolution.debugData = debugData;
-    stringSolution.solverName = solverName;
-    stringSolution.executionMilliseconds = executionMilliseconds;
+    S data;
+    synchronized (this) {
+      stringSolution.status = status;
+      stringSolution.metaData = metaData;
+      data = solutionData;
+      stringSolution.debugData = debugData;
+      // compacted solution data is a string already
+      stringSolution.storedSolutionData = storedSolutionData;
+      stringSolution.storedDebugData = storedDebugData;
+      stringSolution.solverName = solverName;
+      stringSolution.executionMilliseconds = executionMilliseconds;
+      stringSolution.waitingMilliseconds = waitingMilliseconds;
+      stringSolution.version = version;
+      stringSolution.finished = finished;
+    }
+
+    stringSolution.solutionData = data == null ? null : stringSelector.apply(data);
+    stringSolution.queuePosition = getQueuePosition();
     return stringSolution;
   }
 
@@ -74,27 +193,35 @@ public class Solution<S> {
    * sets the status to 'invalid'. irreversible
    */
   public void abort() {
-    if (!this.status.isCompleted()) {
-      this.status = SolutionStatus.INVALID;
-    }
+    transitionTo(SolutionStatus.INVALID);
   }
 
   /**
    * sets the status to 'invalid'. irreversible
    */
   public void fail() {
-    if (!this.status.isCompleted()) {
-      this.status = SolutionStatus.ERROR;
-    }
+    transitionTo(SolutionStatus.ERROR);
+  }
+
+  /**
+   * Sets the status to 'cancelled'. irreversible
+   */
+  public void cancel() {
+    transitionTo(SolutionStatus.CANCELLED);
+  }
+
+  /**
+   * Sets the status to 'timed out'. irreversible
+   */
+  public void timeOut() {
+    transitionTo(SolutionStatus.TIMED_OUT);
   }
 
   /**
    * Sets the status to 'solved'. irreversible
    */
   public void complete() {
-    if (!this.status.isCompleted()) {
-      this.status = SolutionStatus.SOLVED;
-    }
+    transitionTo(SolutionStatus.SOLVED);
   }
 
   public String getMetaData() {
@@ -102,23 +229,118 @@ public class Solution<S> {
   }
 
   public void setMetaData(String metaData) {
-    this.metaData = metaData;
+    update(() -> this.metaData = metaData);
   }
 
+  /**
+   * Returns the solution data, decompressing it if it has been compacted.
+   */
+  @SuppressWarnings("unchecked")
   public S getSolutionData() {
-    return this.solutionData;
+    S data = this.solutionData;
+    if (data != null) {
+      return data;
+    }
+
+    // only string solution data is compacted, so the cast is safe
+    StoredText storedData = this.storedSolutionData;
+    return storedData == null ? null : (S) storedData.read();
   }
 
   public void setSolutionData(S solutionData) {
-    this.solutionData = solutionData;
+    update(() -> {
+      this.solutionData = solutionData;
+      this.storedSolutionData = null;
+    });
   }
 
+  /**
+   * Returns the debug data, decompressing it if it has been compacted.
+   */
   public String getDebugData() {
-    return this.debugData;
+    String data = this.debugData;
+    if (data != null) {
+      return data;
+    }
+
+    StoredText storedData = this.storedDebugData;
+    return storedData == null ? null : storedData.read();
   }
 
   public void setDebugData(String debugData) {
-    this.debugData = debugData;
+    update(() -> {
+      this.debugData = debugData;
+      this.storedDebugData = null;
+    });
+  }
+
+  /**
+   * Returns the compacted solution data, or null if the solution data hasn't been compacted.
+   */
+  @JsonIgnore
+  public StoredText getStoredSolutionData() {
+    return storedSolutionData;
+  }
+
+  /**
+   * Returns the compacted debug data, or null if the debug data hasn't been compacted.
+   */
+  @JsonIgnore
+  public StoredText getStoredDebugData() {
+    return storedDebugData;
+  }
+
+  /**
+   * Replaces string solution data and debug data by compact forms, which are decompressed again
+   * when they are requested.
+   * Strings that the blob store considers too long are moved to blobs, other long strings are
+   * compressed on the heap.
+   *
+   * @param blobStore the blob store to move long strings to, null to keep all strings on the heap.
+   */
+  public void compact(@Nullable BlobStore blobStore) {
+    String debug = this.debugData;
+    StoredText storedDebug = store(debug, blobStore);
+    if (storedDebug != null) {
+      synchronized (this) {
+        // the debug data might have been replaced while it was stored
+        if (this.debugData == debug) {
+          // set the stored data first, so readers that see no string find the stored data
+          this.storedDebugData = storedDebug;
+          this.debugData = null;
+          storedDebug = null;
+        }
+      }
+      if (storedDebug != null) {
+        storedDebug.release();
+      }
+    }
+
+    if (this.solutionData instanceof String data) {
+      StoredText storedData = store(data, blobStore);
+      if (storedData != null) {
+        synchronized (this) {
+          if (this.solutionData == data) {
+            this.storedSolutionData = storedData;
+            this.solutionData = null;
+            storedData = null;
+          }
+        }
+        if (storedData != null) {
+          storedData.release();
+        }
+      }
+    }
+  }
+
+  private static StoredText store(String text, @Nullable BlobStore blobStore) {
+    if (text == null || text.length() < MIN_COMPRESSED_LENGTH) {
+      return null;
+    }
+    if (blobStore != null && blobStore.shouldSpill(text)) {
+      return blobStore.write(text);
+    }
+    return CompressedText.compress(text).orElse(null);
   }
 
   public String getSolverName() {
@@ -126,7 +348,7 @@ public class Solution<S> {
   }
 
   public void setSolverName(String solverName) {
-    this.solverName = solverName;
+    update(() -> this.solverName = solverName);
   }
 
   public long getExecutionMilliseconds() {
@@ -134,7 +356,43 @@ public class Solution<S> {
   }
 
   public void setExecutionMilliseconds(long executionMilliseconds) {
-    this.executionMilliseconds = executionMilliseconds;
+    update(() -> this.executionMilliseconds = executionMilliseconds);
+  }
+
+  /**
+   * Returns the position of the solving process in the queue of its problem type, starting at 1.
+   * 0 means that the solving process isn't waiting (anymore).
+   */
+  public int getQueuePosition() {
+    IntSupplier source = queuePositionSource;
+    return source == null ? queuePosition : source.getAsInt();
+  }
+
+  public void setQueuePosition(int queuePosition) {
+    update(() -> {
+      this.queuePositionSource = null;
+      this.queuePosition = queuePosition;
+    });
+  }
+
+  /**
+   * Lets the queue position be computed on each read, so it doesn't have to be set again whenever
+   * a job ahead of this one leaves the queue. The source must not lock this solution.
+   */
+  @JsonIgnore
+  public void setQueuePositionSource(IntSupplier queuePositionSource) {
+    update(() -> this.queuePositionSource = queuePositionSource);
+  }
+
+  /**
+   * Returns how long the solving process has been waiting in the queue before it was started.
+   */
+  public long getWaitingMilliseconds() {
+    return waitingMilliseconds;
+  }
+
+  public void setWaitingMilliseconds(long waitingMilliseconds) {
+    update(() -> this.waitingMilliseconds = waitingMilliseconds);
   }
 
   @Override
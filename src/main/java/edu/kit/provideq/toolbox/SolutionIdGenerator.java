@@ -0,0 +1,139 @@
+package edu.kit.provideq.toolbox;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates solution ids that are unique across all problem types and toolbox instances.
+ *
+ * <p>An id encodes, from the most to the least significant bit:
+ * <pre>
+ * 32 bits  seconds since 2024-01-01T00:00:00Z
+ *  4 bits  the {@link ProblemType#getCode() code} of the problem type
+ *  6 bits  the id of the toolbox instance ({@code solutions.node-id})
+ * 11 bits  a sequence number within the second
+ * </pre>
+ * Ids fit into 53 bits, so JavaScript clients can represent them exactly.
+ * If more than 2048 ids are requested within a second, the following ids are taken from the next
+ * second instead of waiting for it.
+ */
+@Component
+public class SolutionIdGenerator {
+  private static final long EPOCH_SECOND = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+
+  private static final int SEQUENCE_BITS = 11;
+  private static final int NODE_BITS = 6;
+  private static final int PROBLEM_TYPE_BITS = 4;
+
+  private static final int NODE_SHIFT = SEQUENCE_BITS;
+  private static final int PROBLEM_TYPE_SHIFT = NODE_SHIFT + NODE_BITS;
+  private static final int TIME_SHIFT = PROBLEM_TYPE_SHIFT + PROBLEM_TYPE_BITS;
+
+  private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+  private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+  private static final ProblemType[] PROBLEM_TYPES_BY_CODE =
+      new ProblemType[1 << PROBLEM_TYPE_BITS];
+
+  static {
+    for (ProblemType problemType : ProblemType.values()) {
+      int code = problemType.getCode();
+      if (code < 0 || code >= PROBLEM_TYPES_BY_CODE.length) {
+        throw new IllegalStateException("Solution ids can't encode the problem type code %d of %s"
+            .formatted(code, problemType));
+      }
+      if (PROBLEM_TYPES_BY_CODE[code] != null) {
+        throw new IllegalStateException("The problem types %s and %s have the same code %d"
+            .formatted(PROBLEM_TYPES_BY_CODE[code], problemType, code));
+      }
+      PROBLEM_TYPES_BY_CODE[code] = problemType;
+    }
+  }
+
+  private final long nodeId;
+  private long lastSecond;
+  private long sequence;
+
+  /**
+   * Creates an id generator for a toolbox instance.
+   *
+   * @param nodeId the id of the toolbox instance, between 0 and 63. Toolbox instances that share
+   *               clients or a solution store must have different ids.
+   */
+  @Autowired
+  public SolutionIdGenerator(@Value("${solutions.node-id}") long nodeId) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException(
+          "The node id must be between 0 and %d, but is %d".formatted(MAX_NODE_ID, nodeId));
+    }
+
+    this.nodeId = nodeId;
+  }
+
+  /**
+   * Returns a new unique id for a solution of a problem type.
+   */
+  public synchronized long nextId(ProblemType problemType) {
+    long second = Math.max(Instant.now().getEpochSecond() - EPOCH_SECOND, lastSecond);
+    if (second > lastSecond) {
+      sequence = 0;
+    } else if (sequence < MAX_SEQUENCE) {
+      sequence++;
+    } else {
+      second++;
+      sequence = 0;
+    }
+    lastSecond = second;
+
+    return second << TIME_SHIFT
+        | (long) problemType.getCode() << PROBLEM_TYPE_SHIFT
+        | nodeId << NODE_SHIFT
+        | sequence;
+  }
+
+  /**
+   * Makes sure that all ids generated from now on are greater than a given id, e.g., one that was
+   * generated before a restart with a clock that was ahead.
+   */
+  public synchronized void advancePast(long id) {
+    long second = id >>> TIME_SHIFT;
+    if (second >= lastSecond) {
+      // continue with the next second, ids of other problem types might be greater within this one
+      lastSecond = second;
+      sequence = MAX_SEQUENCE;
+    }
+  }
+
+  /**
+   * Returns the problem type that is encoded in a solution id.
+   *
+   * @return the problem type, or an empty optional if the id doesn't encode a known problem type.
+   */
+  public static Optional<ProblemType> getProblemType(long id) {
+    int code = (int) (id >>> PROBLEM_TYPE_SHIFT & ((1 << PROBLEM_TYPE_BITS) - 1));
+    return id < 0
+        ? Optional.empty()
+        : Optional.ofNullable(PROBLEM_TYPES_BY_CODE[code]);
+  }
+
+  /**
+   * Returns the smallest id that can be generated at or after a given time, ids are ordered by the
+   * second they have been generated in.
+   */
+  public static long getFirstIdAt(Instant time) {
+    long second = Math.max(time.getEpochSecond() - EPOCH_SECOND, 0);
+    // ids have 53 bits at most
+    return Math.min(second, (1L << (53 - TIME_SHIFT)) - 1) << TIME_SHIFT;
+  }
+
+  /**
+   * Returns when a solution id was generated, with a precision of one second.
+   */
+  public static Instant getCreationTime(long id) {
+    return Instant.ofEpochSecond(EPOCH_SECOND + (id >>> TIME_SHIFT));
+  }
+}
@@ -1,35 +1,436 @@
 package edu.kit.provideq.toolbox;
 
-import java.util.LinkedList;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.lang.Nullable;
 
 /**
  * Manages all solutions currently present in memory.
+ *
+ * <p>Solutions are evicted once they have been completed for longer than the time to live.
+ * If there are more solutions than the maximum count, the oldest completed solutions are evicted.
+ * Solutions that are still being computed are never evicted, their clients could neither poll nor
+ * cancel them anymore while their solvers keep running. How many of them there are is limited by
+ * the admission control and the queue of the {@link SolveScheduler} instead.
+ * Eviction happens while new solutions are created, so no background thread is needed.
+ *
+ * <p>Solutions are kept in the order of their ids, which is the order of their creation time.
+ * Indexes by status and by solver name are updated whenever a solution changes, so solutions can
+ * be queried without scanning all of them.
+ *
+ * <p>If a {@link SolutionStore} is configured, completed solutions are persisted in it as well,
+ * so they can still be retrieved after they have been evicted or the toolbox has been restarted.
+ *
+ * <p>The solution data and debug data of completed solutions are kept compressed. If a
+ * {@link BlobStore} is configured, large data is moved to blobs, which are deleted together with
+ * their solutions.
  */
 public class SolutionManager<SolutionT> {
-  private final AtomicLong nextId = new AtomicLong();
+  /**
+   * Minimum time between two evictions of expired solutions.
+   */
+  private static final Duration MIN_SWEEP_INTERVAL = Duration.ofSeconds(1);
 
-  private final List<Solution<SolutionT>> solutions = new LinkedList<>();
+  private final SolutionIdGenerator idGenerator;
+  private final ProblemType problemType;
+  private final SolutionStore store;
+  private final BlobStore blobStore;
 
+  private final NavigableMap<Long, Entry<SolutionT>> solutions = new ConcurrentSkipListMap<>();
+
+  /**
+   * The number of solutions, counting the skip list itself would take linear time.
+   */
+  private final AtomicInteger solutionCount = new AtomicInteger();
+  private final Map<SolutionStatus, NavigableSet<Long>> idsByStatus =
+      new EnumMap<>(SolutionStatus.class);
+  private final Map<String, NavigableSet<Long>> idsBySolverName = new ConcurrentHashMap<>();
+
+  /**
+   * All entries in the order of their creation, might still contain evicted entries.
+   */
+  private final Queue<Entry<SolutionT>> creationOrder = new ConcurrentLinkedQueue<>();
+
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final long timeToLiveMillis;
+  private final long sweepIntervalMillis;
+  private final int maxCount;
+  private volatile long lastSweep;
+
+  private final AtomicLong expiredCount = new AtomicLong();
+  private final AtomicLong evictedCount = new AtomicLong();
+
+  /**
+   * Creates a solution manager that never evicts solutions and doesn't persist them.
+   */
+  public SolutionManager(ProblemType problemType) {
+    this(problemType, new SolutionIdGenerator(0), Duration.ofMillis(Long.MAX_VALUE),
+        Integer.MAX_VALUE, null, null);
+  }
+
+  /**
+   * Creates a solution manager that evicts solutions.
+   *
+   * @param problemType the type of problem the solutions solve.
+   * @param idGenerator generates the ids of new solutions.
+   * @param timeToLive  how long completed solutions are kept in memory.
+   * @param maxCount    how many completed solutions are kept in memory at most, solutions that
+   *                    are still being computed are kept in addition to them.
+   * @param store       the store to persist completed solutions in, null to not persist them.
+   * @param blobStore   the store to move large data of completed solutions to, null to keep all
+   *                    data on the heap.
+   */
+  public SolutionManager(ProblemType problemType, SolutionIdGenerator idGenerator,
+                         Duration timeToLive, int maxCount, @Nullable SolutionStore store,
+                         @Nullable BlobStore blobStore) {
+    this.problemType = problemType;
+    this.store = store;
+    this.blobStore = blobStore;
+    this.idGenerator = idGenerator;
+    if (store != null) {
+      // don't hand out the ids of persisted solutions again
+      idGenerator.advancePast(store.getLatestId(problemType));
+    }
+    this.timeToLiveMillis = timeToLive.toMillis();
+    this.sweepIntervalMillis = Math.max(timeToLiveMillis / 10, MIN_SWEEP_INTERVAL.toMillis());
+    this.maxCount = maxCount;
+    for (SolutionStatus status : SolutionStatus.values()) {
+      idsByStatus.put(status, new ConcurrentSkipListSet<>());
+    }
+  }
+
+  /**
+   * Creates a new solution with a unique id and keeps it until it is evicted.
+   */
   public Solution<SolutionT> createSolution() {
-    var id = nextId.incrementAndGet();
+    var id = idGenerator.nextId(problemType);
     Solution<SolutionT> solution = new Solution<>(id);
-    solutions.add(solution);
+    var entry = new Entry<>(solution);
+    solutions.put(id, entry);
+    solutionCount.incrementAndGet();
+    creationOrder.add(entry);
+    updateIndexes(entry);
+    solution.addChangeListener(changedSolution -> updateIndexes(entry));
+
+    evictIfNeeded();
     return solution;
   }
 
+  /**
+   * Returns a solution that is kept in memory.
+   *
+   * @return the solution, or null if there is no solution with this id in memory.
+   */
   public Solution<SolutionT> getSolution(long id) {
-    return solutions.stream()
-        .filter(s -> s.getId() == id)
-        .findFirst()
-        .orElse(null);
+    var entry = solutions.get(id);
+    return entry == null ? null : entry.solution;
   }
 
-  public void removeSolution(long id) {
+  /**
+   * Returns a solution in the form it is reported to clients, from memory or, if it isn't kept in
+   * memory, from the solution store.
+   *
+   * @return the solution, or an empty optional if there is no solution with this id.
+   */
+  public Optional<Solution<String>> getStringSolution(long id) {
     var solution = getSolution(id);
     if (solution != null) {
-      solutions.remove(solution);
+      return Optional.of(solution.toStringSolution());
+    }
+
+    return store == null ? Optional.empty() : store.load(problemType, id);
+  }
+
+  /**
+   * Returns a solution from memory or, if it isn't kept in memory, in the form it is reported to
+   * clients from the solution store.
+   *
+   * @return the solution, or an empty optional if there is no solution with this id.
+   */
+  public Optional<Solution<?>> findSolution(long id) {
+    Solution<SolutionT> solution = getSolution(id);
+    if (solution != null) {
+      return Optional.of(solution);
+    }
+
+    return store == null
+        ? Optional.empty()
+        : store.load(problemType, id).map(storedSolution -> storedSolution);
+  }
+
+  /**
+   * Returns the solutions in memory that match a query, newest first.
+   */
+  public List<Solution<SolutionT>> findSolutions(SolutionQuery query) {
+    long fromId = query.createdAfter() == null
+        ? Long.MIN_VALUE
+        : SolutionIdGenerator.getFirstIdAt(query.createdAfter());
+    long toId = query.createdBefore() == null
+        ? Long.MAX_VALUE
+        : SolutionIdGenerator.getFirstIdAt(query.createdBefore());
+    if (query.beforeId() != null) {
+      toId = Math.min(toId, query.beforeId());
+    }
+    if (fromId >= toId) {
+      return List.of();
+    }
+
+    // walk the most selective index and check the other criteria on its solutions
+    NavigableSet<Long> ids;
+    if (query.status() != null) {
+      ids = idsByStatus.get(query.status());
+    } else if (query.solverName() != null) {
+      ids = idsBySolverName.getOrDefault(query.solverName(), Collections.emptyNavigableSet());
+    } else {
+      ids = solutions.navigableKeySet();
+    }
+
+    List<Solution<SolutionT>> result = new ArrayList<>();
+    for (long id : ids.subSet(fromId, true, toId, false).descendingSet()) {
+      if (result.size() >= query.limit()) {
+        break;
+      }
+
+      var solution = getSolution(id);
+      if (solution != null
+          && (query.status() == null || solution.getStatus() == query.status())
+          && (query.solverName() == null || query.solverName().equals(solution.getSolverName()))) {
+        result.add(solution);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Persists the current state of a solution in the solution store, if there is one.
+   */
+  public void persistSolution(Solution<SolutionT> solution) {
+    if (store != null) {
+      store.store(problemType, solution.toStringSolution());
+    }
+  }
+
+  /**
+   * Compresses the solution data and debug data of a completed solution, large data is moved to
+   * blobs if there is a blob store. The solution shouldn't change anymore afterwards.
+   */
+  public void compactData(Solution<SolutionT> solution) {
+    var entry = solutions.get(solution.getId());
+    if (entry == null) {
+      // the solution has been discarded already, blobs written for it would never be released
+      return;
+    }
+
+    synchronized (entry) {
+      if (entry.discarded) {
+        return;
+      }
+      try {
+        solution.compact(blobStore);
+      } catch (UncheckedIOException e) {
+        // the data just stays on the heap
+      }
+    }
+  }
+
+  public void removeSolution(long id) {
+    // the entry is dropped from the creation order by the next sweep
+    var entry = solutions.remove(id);
+    if (entry != null) {
+      discard(entry);
     }
+    if (store != null) {
+      store.remove(problemType, id);
+    }
+  }
+
+  /**
+   * Returns the number of solutions and how many of them have been evicted so far.
+   */
+  public Statistics getStatistics() {
+    return new Statistics(
+        solutionCount.get(),
+        expiredCount.get(),
+        evictedCount.get());
+  }
+
+  private void evictIfNeeded() {
+    long now = System.currentTimeMillis();
+    if (solutionCount.get() <= maxCount && now - lastSweep < sweepIntervalMillis) {
+      return;
+    }
+
+    // one thread evicting is enough, the others don't need to wait for it
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      lastSweep = now;
+      evictExpired(now);
+      evictOverflow();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void evictExpired(long now) {
+    for (Iterator<Entry<SolutionT>> it = creationOrder.iterator(); it.hasNext(); ) {
+      var entry = it.next();
+      if (!solutions.containsKey(entry.solution.getId())) {
+        it.remove();
+        continue;
+      }
+
+      if (entry.finishedAt == 0) {
+        if (!entry.solution.isFinished()) {
+          continue;
+        }
+        // the time to live starts at the first sweep that sees the solution finished
+        entry.finishedAt = now;
+      }
+
+      if (now - entry.finishedAt > timeToLiveMillis) {
+        it.remove();
+        if (solutions.remove(entry.solution.getId()) != null) {
+          discard(entry);
+          expiredCount.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  private void evictOverflow() {
+    for (Iterator<Entry<SolutionT>> it = creationOrder.iterator();
+         it.hasNext() && solutionCount.get() > maxCount; ) {
+      var entry = it.next();
+      // a solution is completed before it is compacted and persisted, so only finished
+      // solutions can be evicted without losing data
+      if (!entry.solution.isFinished()) {
+        continue;
+      }
+
+      it.remove();
+      if (solutions.remove(entry.solution.getId()) != null) {
+        discard(entry);
+        evictedCount.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Moves a solution to the indexes of its current status and solver name.
+   */
+  private void updateIndexes(Entry<SolutionT> entry) {
+    long id = entry.solution.getId();
+    // changes are reported concurrently, so the entry is locked to keep the indexes consistent
+    synchronized (entry) {
+      if (entry.discarded) {
+        return;
+      }
+
+      SolutionStatus status = entry.solution.getStatus();
+      if (status != entry.indexedStatus) {
+        if (entry.indexedStatus != null) {
+          idsByStatus.get(entry.indexedStatus).remove(id);
+        }
+        idsByStatus.get(status).add(id);
+        entry.indexedStatus = status;
+      }
+
+      String solverName = entry.solution.getSolverName();
+      if (!Objects.equals(solverName, entry.indexedSolverName)) {
+        if (entry.indexedSolverName != null) {
+          idsBySolverName.get(entry.indexedSolverName).remove(id);
+        }
+        if (solverName != null) {
+          idsBySolverName.computeIfAbsent(solverName, name -> new ConcurrentSkipListSet<>())
+              .add(id);
+        }
+        entry.indexedSolverName = solverName;
+      }
+    }
+  }
+
+  /**
+   * Cleans up after a solution that has been removed from memory.
+   */
+  private void discard(Entry<SolutionT> entry) {
+    solutionCount.decrementAndGet();
+    long id = entry.solution.getId();
+    synchronized (entry) {
+      entry.discarded = true;
+      if (entry.indexedStatus != null) {
+        idsByStatus.get(entry.indexedStatus).remove(id);
+      }
+      if (entry.indexedSolverName != null) {
+        idsBySolverName.get(entry.indexedSolverName).remove(id);
+      }
+
+      // locked, so the data can't be compacted into new blobs after it has been released
+      releaseStoredData(entry);
+    }
+  }
+
+  private static void releaseStoredData(Entry<?> entry) {
+    // persisted solutions contain the data itself, so the blobs aren't needed anymore
+    var storedSolutionData = entry.solution.getStoredSolutionData();
+    if (storedSolutionData != null) {
+      storedSolutionData.release();
+    }
+    var storedDebugData = entry.solution.getStoredDebugData();
+    if (storedDebugData != null) {
+      storedDebugData.release();
+    }
+  }
+
+  private static class Entry<SolutionT> {
+    private final Solution<SolutionT> solution;
+
+    /**
+     * When the solution has been seen finished first, 0 while it is being computed.
+     */
+    private long finishedAt;
+
+    private SolutionStatus indexedStatus;
+    private String indexedSolverName;
+    private boolean discarded;
+
+    private Entry(Solution<SolutionT> solution) {
+      this.solution = solution;
+    }
+  }
+
+  /**
+   * Eviction metrics of a solution manager.
+   *
+   * @param solutionCount the number of solutions that are currently kept.
+   * @param expiredCount  the number of completed solutions that have been evicted because they
+   *                      outlived the time to live.
+   * @param evictedCount  the number of completed solutions that have been evicted because there
+   *                      were too many solutions.
+   */
+  public record Statistics(
+      int solutionCount,
+      long expiredCount,
+      long evictedCount) {
   }
 }
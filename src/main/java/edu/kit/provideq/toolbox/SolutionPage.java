@@ -0,0 +1,15 @@
+package edu.kit.provideq.toolbox;
+
+import java.util.List;
+import org.springframework.lang.Nullable;
+
+/**
+ * A page of solutions, newest first.
+ *
+ * @param solutions  the solutions of the page.
+ * @param nextCursor the id to request the next page with, null if this is the last page.
+ */
+public record SolutionPage(
+    List<SolutionSummary> solutions,
+    @Nullable Long nextCursor) {
+}
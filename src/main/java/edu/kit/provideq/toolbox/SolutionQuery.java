@@ -0,0 +1,25 @@
+package edu.kit.provideq.toolbox;
+
+import java.time.Instant;
+import org.springframework.lang.Nullable;
+
+/**
+ * Selects a page of solutions, newest first. Criteria that are null match all solutions.
+ *
+ * @param status        only solutions with this status.
+ * @param solverName    only solutions computed by the solver with this name.
+ * @param createdAfter  only solutions created at or after this time, with a precision of one
+ *                      second.
+ * @param createdBefore only solutions created before this time, with a precision of one second.
+ * @param beforeId      only solutions with a smaller id, used to continue after the last solution
+ *                      of the previous page.
+ * @param limit         the maximum number of solutions of the page.
+ */
+public record SolutionQuery(
+    @Nullable SolutionStatus status,
+    @Nullable String solverName,
+    @Nullable Instant createdAfter,
+    @Nullable Instant createdBefore,
+    @Nullable Long beforeId,
+    int limit) {
+}
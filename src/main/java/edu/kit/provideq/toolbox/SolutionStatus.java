@@ -23,7 +23,17 @@ public enum SolutionStatus {
   /**
    * The problem could not be solved.
    */
-  ERROR(true);
+  ERROR(true),
+
+  /**
+   * The solving process was cancelled before it could be completed.
+   */
+  CANCELLED(true),
+
+  /**
+   * The time budget of the solving process was spent before it could be completed.
+   */
+  TIMED_OUT(true);
 
   /**
    * The solution is currently being computed.
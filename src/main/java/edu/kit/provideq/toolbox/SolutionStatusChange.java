@@ -0,0 +1,16 @@
+package edu.kit.provideq.toolbox;
+
+/**
+ * A change of the status or the queue position of a {@link Solution} that hasn't finished yet.
+ *
+ * @param id            the id of the solution.
+ * @param status        the status of the solution.
+ * @param queuePosition the position of the solution in the queue, 0 if it isn't waiting.
+ * @param version       the version of the solution after the change.
+ */
+public record SolutionStatusChange(
+    long id,
+    SolutionStatus status,
+    int queuePosition,
+    long version) {
+}
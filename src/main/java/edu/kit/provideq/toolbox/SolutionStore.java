@@ -0,0 +1,47 @@
+package edu.kit.provideq.toolbox;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.util.Optional;
+
+/**
+ * Persists completed solutions, so they outlive restarts of the toolbox.
+ * {@link SolutionManager}s keep solutions in memory and fall back to the solution store for
+ * solutions that aren't in memory (anymore).
+ *
+ * <p>Solutions are stored in the form they are reported to clients, i.e., with their solution data
+ * converted to a string.
+ */
+public interface SolutionStore {
+  /**
+   * Stores a solution, replacing a stored solution with the same id.
+   *
+   * @param problemType the type of problem the solution solves.
+   * @param solution    the solution to store.
+   */
+  void store(ProblemType problemType, Solution<String> solution);
+
+  /**
+   * Loads a stored solution.
+   *
+   * @param problemType the type of problem the solution solves.
+   * @param solutionId  the id of the solution.
+   * @return the solution, or an empty optional if there is no stored solution with this id.
+   */
+  Optional<Solution<String>> load(ProblemType problemType, long solutionId);
+
+  /**
+   * Removes a stored solution, does nothing if there is no stored solution with this id.
+   *
+   * @param problemType the type of problem the solution solves.
+   * @param solutionId  the id of the solution.
+   */
+  void remove(ProblemType problemType, long solutionId);
+
+  /**
+   * Returns the highest id of all stored solutions of a problem type, so new solutions can be
+   * given ids that don't collide with them.
+   *
+   * @return the highest id, 0 if there are no stored solutions of the problem type.
+   */
+  long getLatestId(ProblemType problemType);
+}
@@ -0,0 +1,37 @@
+package edu.kit.provideq.toolbox;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.time.Instant;
+
+/**
+ * Describes a solution without its solution data and debug data, for listing many solutions.
+ *
+ * @param id                    the id of the solution.
+ * @param problemType           the problem type of the solution.
+ * @param status                the status of the solution.
+ * @param solverName            the name of the solver that computes the solution, null if no
+ *                              solver has been chosen yet.
+ * @param createdAt             when the solution has been created, with a precision of one second.
+ * @param executionMilliseconds how long the solver has been running.
+ */
+public record SolutionSummary(
+    long id,
+    ProblemType problemType,
+    SolutionStatus status,
+    String solverName,
+    Instant createdAt,
+    long executionMilliseconds) {
+
+  /**
+   * Summarizes a solution of a problem type.
+   */
+  public static SolutionSummary of(ProblemType problemType, Solution<?> solution) {
+    return new SolutionSummary(
+        solution.getId(),
+        problemType,
+        solution.getStatus(),
+        solution.getSolverName(),
+        SolutionIdGenerator.getCreationTime(solution.getId()),
+        solution.getExecutionMilliseconds());
+  }
+}
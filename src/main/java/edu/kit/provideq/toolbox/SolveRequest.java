@@ -23,12 +23,38 @@ public class SolveRequest<RequestT> {
   @Nullable
   public Map<ProblemType, SolveRequest<?>> requestedSubSolveRequests;
 
+  /**
+   * Requests with a higher priority are solved before other waiting requests of the same problem
+   * type. Defaults to 0.
+   */
+  @Nullable
+  public Integer priority;
+
+  /**
+   * Time budget for solving the request in milliseconds, measured from when solving starts.
+   * Solver processes that are still running once the budget is spent are killed.
+   * Sub-routine calls can't exceed the remaining budget of the request that calls them.
+   * Unlimited if not set.
+   */
+  @Nullable
+  public Long timeoutMilliseconds;
+
+  /**
+   * Whether the result may be taken from the result cache if a deterministic solver has solved
+   * the same problem before. The result of the request is cached either way. Defaults to true.
+   */
+  @Nullable
+  public Boolean useCachedResult;
+
   public <T> SolveRequest<T> replaceContent(T otherContent) {
     var request = new SolveRequest<T>();
     request.requestContent = otherContent;
     request.requestedSolverId = requestedSolverId;
     request.requestedMetaSolverSettings = requestedMetaSolverSettings;
     request.requestedSubSolveRequests = requestedSubSolveRequests;
+    request.priority = priority;
+    request.timeoutMilliseconds = timeoutMilliseconds;
+    request.useCachedResult = useCachedResult;
 
     return request;
   }
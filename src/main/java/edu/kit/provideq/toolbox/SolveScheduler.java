@@ -0,0 +1,320 @@
+package edu.kit.provideq.toolbox;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs solve jobs on a dedicated, bounded pool of solver threads.
+ * Solvers typically block until an external solver process exits, so they must never run on the
+ * threads that serve HTTP requests.
+ *
+ * <p>Jobs wait in one queue per {@link ProblemType}, ordered by their priority and their arrival.
+ * Free solver threads are shared between the problem types by weighted fair queuing (stride
+ * scheduling): each problem type receives solver threads in proportion to its configured weight,
+ * so a burst of jobs of one type cannot starve the jobs of another type.
+ * Additionally, the number of jobs of a problem type that may run at the same time can be limited.
+ * Both can be configured per problem type with the
+ * {@code solver.scheduler.<problem-type-id>.weight} and
+ * {@code solver.scheduler.<problem-type-id>.concurrency} properties.
+ */
+@Component
+public class SolveScheduler {
+  private static final String THREAD_NAME_PREFIX = "solver-";
+  private static final String COMPLETION_THREAD_NAME_PREFIX = "solution-completion-";
+  private static final int COMPLETION_THREAD_COUNT = 2;
+
+  /**
+   * Virtual time that a job of a problem type with weight 1 advances its queue by.
+   */
+  private static final long STRIDE = 1 << 20;
+
+  /**
+   * Weight of the latest run time in the average run time of a problem type.
+   */
+  private static final double RUN_TIME_SMOOTHING = 0.2;
+
+  private final ExecutorService executor;
+  private final ExecutorService completionExecutor;
+  private final int threadCount;
+  private final int queueCapacity;
+  private final Map<ProblemType, JobQueue> queues = new EnumMap<>(ProblemType.class);
+
+  private long nextSequenceNumber;
+  private long virtualTime;
+  private int runningJobCount;
+  private int queuedJobCount;
+
+  /**
+   * Creates a scheduler with a fixed number of solver threads.
+   *
+   * @param threadCount   the number of solve jobs that may run at the same time.
+   * @param queueCapacity the number of solve jobs that may wait for a free solver thread.
+   * @param environment   used to read the scheduling configuration of each problem type.
+   */
+  @Autowired
+  public SolveScheduler(
+      @Value("${solver.threads}") int threadCount,
+      @Value("${solver.queue-capacity}") int queueCapacity,
+      Environment environment) {
+    this.threadCount = threadCount;
+    this.queueCapacity = queueCapacity;
+    this.executor = Executors.newFixedThreadPool(
+        threadCount, new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+    this.completionExecutor = Executors.newFixedThreadPool(
+        COMPLETION_THREAD_COUNT, new CustomizableThreadFactory(COMPLETION_THREAD_NAME_PREFIX));
+
+    for (ProblemType problemType : ProblemType.values()) {
+      int weight = environment.getProperty(
+          getPropertyName(problemType, "weight"), Integer.class, 1);
+      int concurrency = environment.getProperty(
+          getPropertyName(problemType, "concurrency"), Integer.class, threadCount);
+
+      queues.put(problemType, new JobQueue(Math.max(weight, 1), Math.max(concurrency, 1)));
+    }
+  }
+
+  private static String getPropertyName(ProblemType problemType, String setting) {
+    return "solver.scheduler.%s.%s".formatted(problemType.getId(), setting);
+  }
+
+  /**
+   * Schedules a solve job to run on one of the solver threads.
+   * While the job is waiting, its position in the queue of its problem type is reported through
+   * {@link Solution#getQueuePosition()}. Once it starts, the time it has been waiting is reported
+   * through {@link Solution#getWaitingMilliseconds()}.
+   *
+   * @param problemType the type of problem the job solves.
+   * @param priority    jobs with a higher priority are started before other jobs of the same
+   *                    problem type.
+   * @param solution    the solution the job computes.
+   * @param job         the job to run.
+   * @throws RejectedExecutionException when the queue is full.
+   */
+  public void submit(ProblemType problemType, int priority, Solution<?> solution, Runnable job) {
+    JobQueue queue = queues.get(problemType);
+    QueuedJob queuedJob;
+    List<StartedJob> startedJobs;
+    synchronized (this) {
+      if (queuedJobCount >= queueCapacity) {
+        throw new RejectedExecutionException("The solve job queue is full");
+      }
+
+      if (queue.isIdle()) {
+        // don't let problem types save up credit while they don't have any jobs
+        queue.pass = Math.max(queue.pass, virtualTime);
+      }
+
+      queuedJob = new QueuedJob(
+          priority, nextSequenceNumber++, System.currentTimeMillis(), solution, job);
+      queue.jobs.add(queuedJob);
+      queuedJobCount++;
+
+      startedJobs = dispatch();
+    }
+
+    // the position is computed on each read, so jobs leaving the queue don't have to update the
+    // positions of all jobs behind them
+    if (startedJobs.stream().noneMatch(startedJob -> startedJob.job() == queuedJob)) {
+      solution.setQueuePositionSource(() -> getQueuePosition(queue, queuedJob));
+    }
+    start(startedJobs);
+  }
+
+  /**
+   * Removes a job that hasn't been started yet from the queue.
+   *
+   * @param problemType the type of problem the job solves.
+   * @param solution    the solution the job computes.
+   * @return true if the job was still waiting and has been removed, false otherwise.
+   */
+  public boolean cancel(ProblemType problemType, Solution<?> solution) {
+    boolean removed;
+    synchronized (this) {
+      JobQueue queue = queues.get(problemType);
+      removed = queue.jobs.removeIf(job -> job.solution() == solution);
+      if (removed) {
+        queuedJobCount--;
+      }
+    }
+
+    if (removed) {
+      solution.setQueuePosition(0);
+    }
+    return removed;
+  }
+
+  private synchronized int getQueuePosition(JobQueue queue, QueuedJob job) {
+    if (!queue.jobs.contains(job)) {
+      return 0;
+    }
+    return queue.jobs.headSet(job).size() + 1;
+  }
+
+  /**
+   * Returns the number of jobs of a problem type that are waiting for a solver thread.
+   */
+  public synchronized int getQueuedJobCount(ProblemType problemType) {
+    return queues.get(problemType).jobs.size();
+  }
+
+  /**
+   * Returns the number of jobs of a problem type that are currently running.
+   */
+  public synchronized int getRunningJobCount(ProblemType problemType) {
+    return queues.get(problemType).runningJobCount;
+  }
+
+  /**
+   * Returns how long the recent jobs of a problem type took to run, on average.
+   *
+   * @return the average run time in milliseconds, 0 if no job of the problem type has finished yet.
+   */
+  public synchronized long getAverageRunMilliseconds(ProblemType problemType) {
+    return Math.round(queues.get(problemType).averageRunMilliseconds);
+  }
+
+  /**
+   * Returns the number of jobs of a problem type that may run at the same time.
+   */
+  public int getConcurrency(ProblemType problemType) {
+    return Math.min(queues.get(problemType).concurrency, threadCount);
+  }
+
+  /**
+   * Returns the executor for the short work that completes a solution once the solving process it
+   * waited for is done, e.g. copying its result and persisting the solution.
+   * That work runs neither on the solver threads, which may all be busy with long jobs, nor on the
+   * common pool, which must not block on I/O.
+   */
+  public Executor getCompletionExecutor() {
+    return completionExecutor;
+  }
+
+  /**
+   * Takes queued jobs from their queues as long as there are free solver threads.
+   * The jobs are only {@link #start(List) started} once the lock has been released, as starting
+   * them notifies the listeners of their solutions.
+   */
+  private List<StartedJob> dispatch() {
+    List<StartedJob> startedJobs = new ArrayList<>();
+    while (runningJobCount < threadCount) {
+      JobQueue queue = queues.values().stream()
+          .filter(JobQueue::canStartJob)
+          .min(Comparator.comparingLong(q -> q.pass))
+          .orElse(null);
+      if (queue == null) {
+        break;
+      }
+
+      QueuedJob job = queue.jobs.pollFirst();
+      virtualTime = Math.max(virtualTime, queue.pass);
+      queue.pass += STRIDE / queue.weight;
+      queue.runningJobCount++;
+      runningJobCount++;
+      queuedJobCount--;
+
+      startedJobs.add(new StartedJob(queue, job));
+    }
+    return startedJobs;
+  }
+
+  private void start(List<StartedJob> startedJobs) {
+    for (StartedJob startedJob : startedJobs) {
+      QueuedJob job = startedJob.job();
+      job.solution().setQueuePosition(0);
+      job.solution().setWaitingMilliseconds(System.currentTimeMillis() - job.enqueuedAt());
+      try {
+        executor.execute(() -> run(startedJob.queue(), job));
+      } catch (RejectedExecutionException e) {
+        // the scheduler has been shut down, so nobody waits for the job anymore
+        return;
+      }
+    }
+  }
+
+  private void run(JobQueue queue, QueuedJob job) {
+    long startedAt = System.currentTimeMillis();
+    List<StartedJob> startedJobs;
+    try {
+      job.task().run();
+    } finally {
+      synchronized (this) {
+        queue.recordRunTime(System.currentTimeMillis() - startedAt);
+        queue.runningJobCount--;
+        runningJobCount--;
+        startedJobs = dispatch();
+      }
+    }
+    start(startedJobs);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+    completionExecutor.shutdownNow();
+  }
+
+  private record QueuedJob(
+      int priority,
+      long sequenceNumber,
+      long enqueuedAt,
+      Solution<?> solution,
+      Runnable task) {
+  }
+
+  private record StartedJob(JobQueue queue, QueuedJob job) {
+  }
+
+  /**
+   * The waiting jobs of one problem type and its scheduling state.
+   */
+  private static class JobQueue {
+    private final TreeSet<QueuedJob> jobs = new TreeSet<>(
+        Comparator.comparingInt(QueuedJob::priority).reversed()
+            .thenComparingLong(QueuedJob::sequenceNumber));
+    private final int weight;
+    private final int concurrency;
+
+    /**
+     * Virtual time of this queue, the queue with the lowest pass is served next.
+     */
+    private long pass;
+    private int runningJobCount;
+    private double averageRunMilliseconds;
+
+    private JobQueue(int weight, int concurrency) {
+      this.weight = weight;
+      this.concurrency = concurrency;
+    }
+
+    private boolean canStartJob() {
+      return !jobs.isEmpty() && runningJobCount < concurrency;
+    }
+
+    private boolean isIdle() {
+      return jobs.isEmpty() && runningJobCount == 0;
+    }
+
+    private void recordRunTime(long runMilliseconds) {
+      averageRunMilliseconds = averageRunMilliseconds == 0
+          ? runMilliseconds
+          : RUN_TIME_SMOOTHING * runMilliseconds
+              + (1 - RUN_TIME_SMOOTHING) * averageRunMilliseconds;
+    }
+  }
+}
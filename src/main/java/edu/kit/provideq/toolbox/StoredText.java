@@ -0,0 +1,33 @@
+package edu.kit.provideq.toolbox;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * A string that is kept in a compact form instead of a {@link String} on the heap, e.g., the
+ * solution data or debug data of a completed solution.
+ */
+public interface StoredText {
+  /**
+   * Returns the length of the string in characters.
+   */
+  long length();
+
+  /**
+   * Reads the whole string into memory.
+   *
+   * @throws UncheckedIOException when the string couldn't be read.
+   */
+  String read();
+
+  /**
+   * Opens a reader for the string, so it can be processed without reading it into memory at once.
+   */
+  Reader openReader() throws IOException;
+
+  /**
+   * Frees the resources of the string, it can't be read anymore afterwards.
+   */
+  void release();
+}
@@ -17,6 +17,7 @@ public class SubRoutinePool {
   private final Map<ProblemType, SolveRequest<?>> subRoutineCalls;
 
   private MetaSolverProvider metaSolverProvider;
+  private CancellationToken cancellationToken = new CancellationToken();
 
   public SubRoutinePool() {
     subRoutineCalls = Collections.emptyMap();
@@ -36,10 +37,32 @@ public class SubRoutinePool {
     this.metaSolverProvider = metaSolverProvider;
   }
 
+  /**
+   * Returns the cancellation token of the solving process this pool belongs to.
+   * Solvers should pass it to the processes they run, so they can be killed on cancellation.
+   */
+  public CancellationToken getCancellationToken() {
+    return cancellationToken;
+  }
+
+  /**
+   * Sets the cancellation token of the solving process this pool belongs to.
+   * All sub-routine calls share this token, no more sub-routines are solved once it is cancelled.
+   */
+  public void setCancellationToken(CancellationToken cancellationToken) {
+    this.cancellationToken = cancellationToken;
+  }
+
   /**
    * Request a subroutine for a problem type that invokes the solving process that was previously
    * specified.
    * If no subroutine is available, use the default meta solver strategy in the routine.
+   * Once the solving process is cancelled, the subroutine only returns cancelled solutions.
+   * Likewise, once the time budget of the solving process is spent, the subroutine only returns
+   * timed out solutions. Sub-routine calls are stopped when they reach the deadline of the
+   * solving process, even if their own requests specify a longer time budget.
+   * Identical sub-routine calls of deterministic solvers that run at the same time, e.g., of
+   * several analyses of the same feature model, share a single solving process.
    *
    * @param problemType problem type to solve
    * @return function to solve a problem of type problemType
@@ -57,7 +80,7 @@ public class SubRoutinePool {
       MetaSolver<ProblemT, SolutionT, ? extends ProblemSolver<ProblemT, SolutionT>> metaSolver =
               (MetaSolver<ProblemT, SolutionT, ? extends ProblemSolver<ProblemT, SolutionT>>)
                       metaSolverProvider.getMetaSolver(problemType);
-      return metaSolver.solve(newSolveRequest);
+      return metaSolver.solve(newSolveRequest, cancellationToken);
     };
   }
 }
@@ -0,0 +1,283 @@
+package edu.kit.provideq.toolbox;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import jakarta.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Manages the problem directories that solver processes exchange their data in.
+ *
+ * <p>The working directory can be placed in memory ({@code working.directory.in-memory}), which
+ * avoids disk I/O for the many short-lived problem directories of sub-routine calls.
+ * Problem directories of successful runs are deleted right away if
+ * {@code working.directory.delete-on-success} is set, problem directories of failed runs are kept
+ * for debugging.
+ * A background sweep deletes problem directories that are older than
+ * {@code working.directory.ttl-minutes} and the oldest problem directories once all of them take
+ * up more than {@code working.directory.max-size-mb}.
+ */
+@Component
+public class WorkingDirectoryManager {
+  /**
+   * The tmpfs mount that is used for in-memory working directories.
+   */
+  private static final Path SHARED_MEMORY_DIRECTORY = Path.of("/dev/shm");
+
+  /**
+   * The name of the directory in the working directory that contains uploaded instances.
+   */
+  private static final String INSTANCE_DIRECTORY_NAME = "instances";
+
+  private final Path workingDirectory;
+  private final boolean deleteOnSuccess;
+  private final Duration timeToLive;
+  private final long maxSizeBytes;
+  private final ScheduledExecutorService sweeper;
+
+  /**
+   * Directories that are known to exist, so they don't have to be created again.
+   */
+  private final Set<Path> existingDirectories = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Problem directories that haven't been released yet, the sweep doesn't touch them.
+   */
+  private final Set<Path> activeDirectories = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Creates a working directory manager and schedules its background sweep.
+   */
+  @Autowired
+  public WorkingDirectoryManager(
+      @Value("${working.directory}") String workingDirectoryPath,
+      @Value("${working.directory.in-memory}") boolean inMemory,
+      @Value("${working.directory.delete-on-success}") boolean deleteOnSuccess,
+      @Value("${working.directory.ttl-minutes}") long timeToLiveMinutes,
+      @Value("${working.directory.max-size-mb}") long maxSizeMegabytes,
+      @Value("${working.directory.sweep-interval-minutes}") long sweepIntervalMinutes) {
+    this.workingDirectory = resolveWorkingDirectory(workingDirectoryPath, inMemory);
+    this.deleteOnSuccess = deleteOnSuccess;
+    this.timeToLive = Duration.ofMinutes(timeToLiveMinutes);
+    this.maxSizeBytes = maxSizeMegabytes * 1024 * 1024;
+
+    var threadFactory = new CustomizableThreadFactory("working-directory-sweeper-");
+    threadFactory.setDaemon(true);
+    this.sweeper = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    this.sweeper.scheduleWithFixedDelay(
+        this::sweep, sweepIntervalMinutes, sweepIntervalMinutes, TimeUnit.MINUTES);
+  }
+
+  private static Path resolveWorkingDirectory(String workingDirectoryPath, boolean inMemory) {
+    Path path = Path.of(workingDirectoryPath);
+    if (inMemory && Files.isDirectory(SHARED_MEMORY_DIRECTORY)) {
+      // keep relative paths relative to the tmpfs, so different toolboxes can be configured
+      path = SHARED_MEMORY_DIRECTORY.resolve(path.isAbsolute()
+          ? path.getRoot().relativize(path)
+          : path);
+    }
+
+    return path.toAbsolutePath();
+  }
+
+  /**
+   * Returns the working directory and creates it if non-existing.
+   *
+   * @return File object of the working directory
+   * @throws IOException when the directory couldn't be created
+   */
+  public File getWorkingDirectory() throws IOException {
+    return ensureDirectory(workingDirectory).toFile();
+  }
+
+  /**
+   * Returns the directory of uploaded instances and creates it if non-existing.
+   *
+   * @return path of the instance directory
+   * @throws IOException when the directory couldn't be created
+   */
+  public Path getInstanceDirectory() throws IOException {
+    return ensureDirectory(workingDirectory.resolve(INSTANCE_DIRECTORY_NAME));
+  }
+
+  /**
+   * Returns the directory for a problem type and solution id and creates it if non-existing.
+   *
+   * @param problemType problem type to build the directory path
+   * @param solutionId  solution id to build the directory path
+   * @return File object of the directory
+   * @throws IOException when the directory couldn't be accessed or created
+   */
+  public File getProblemDirectory(ProblemType problemType, long solutionId) throws IOException {
+    Path problemTypeDirectory = ensureDirectory(workingDirectory.resolve(problemType.toString()));
+    Path problemDirectory = problemTypeDirectory.resolve(String.valueOf(solutionId));
+    activeDirectories.add(problemDirectory);
+
+    try {
+      Files.createDirectory(problemDirectory);
+    } catch (FileAlreadyExistsException e) {
+      // the directory is reused by another run of the same solution
+    } catch (NoSuchFileException e) {
+      // the working directory has been deleted externally
+      existingDirectories.clear();
+      ensureDirectory(problemDirectory);
+    }
+
+    return problemDirectory.toFile();
+  }
+
+  /**
+   * Signals that a run in a problem directory is finished.
+   * The directory is deleted if the run succeeded and successful runs shouldn't be kept,
+   * otherwise it is left to the background sweep.
+   *
+   * @param problemType problem type of the directory
+   * @param solutionId  solution id of the directory
+   * @param succeeded   whether the run succeeded
+   */
+  public void releaseProblemDirectory(ProblemType problemType, long solutionId,
+                                      boolean succeeded) {
+    Path problemDirectory = workingDirectory
+        .resolve(problemType.toString())
+        .resolve(String.valueOf(solutionId));
+    activeDirectories.remove(problemDirectory);
+
+    if (!succeeded || !deleteOnSuccess) {
+      return;
+    }
+
+    try {
+      deleteRecursively(problemDirectory);
+    } catch (IOException | UncheckedIOException e) {
+      // the sweep will try again once the directory has expired
+    }
+  }
+
+  /**
+   * Deletes expired problem directories and, if the problem directories still take up too much
+   * space, the oldest ones of the rest.
+   */
+  void sweep() {
+    Instant expiry = Instant.now().minus(timeToLive);
+    sweepInstances(expiry);
+
+    Path instanceDirectory = workingDirectory.resolve(INSTANCE_DIRECTORY_NAME);
+    List<ProblemDirectory> problemDirectories = new ArrayList<>();
+    try (Stream<Path> problemTypeDirectories = Files.list(workingDirectory)) {
+      for (Path problemTypeDirectory : problemTypeDirectories.toList()) {
+        if (!Files.isDirectory(problemTypeDirectory)
+            || problemTypeDirectory.equals(instanceDirectory)) {
+          continue;
+        }
+
+        try (Stream<Path> directories = Files.list(problemTypeDirectory)) {
+          for (Path directory : directories.toList()) {
+            if (activeDirectories.contains(directory)) {
+              continue;
+            }
+
+            problemDirectories.add(new ProblemDirectory(
+                directory,
+                Files.getLastModifiedTime(directory).toInstant(),
+                sizeOf(directory)));
+          }
+        }
+      }
+    } catch (IOException | UncheckedIOException e) {
+      // nothing to sweep yet, or the directories changed while they were listed
+      return;
+    }
+
+    problemDirectories.sort(Comparator.comparing(ProblemDirectory::lastModified));
+
+    long totalSize = problemDirectories.stream().mapToLong(ProblemDirectory::size).sum();
+    for (ProblemDirectory problemDirectory : problemDirectories) {
+      if (problemDirectory.lastModified().isAfter(expiry) && totalSize <= maxSizeBytes) {
+        // all remaining directories are newer
+        break;
+      }
+
+      try {
+        deleteRecursively(problemDirectory.path());
+        totalSize -= problemDirectory.size();
+      } catch (IOException | UncheckedIOException e) {
+        // the directory might still be in use, try again on the next sweep
+      }
+    }
+  }
+
+  /**
+   * Deletes uploaded instances that haven't been used since the expiry.
+   */
+  private void sweepInstances(Instant expiry) {
+    Path instanceDirectory = workingDirectory.resolve(INSTANCE_DIRECTORY_NAME);
+    try (Stream<Path> instances = Files.list(instanceDirectory)) {
+      for (Path instance : instances.toList()) {
+        if (Files.getLastModifiedTime(instance).toInstant().isBefore(expiry)) {
+          Files.deleteIfExists(instance);
+        }
+      }
+    } catch (IOException | UncheckedIOException e) {
+      // no instances have been uploaded yet, or they changed while they were listed
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    sweeper.shutdownNow();
+  }
+
+  private Path ensureDirectory(Path directory) throws IOException {
+    if (!existingDirectories.contains(directory)) {
+      Files.createDirectories(directory);
+      existingDirectories.add(directory);
+    }
+
+    return directory;
+  }
+
+  private static long sizeOf(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      return files
+          .filter(Files::isRegularFile)
+          .mapToLong(file -> file.toFile().length())
+          .sum();
+    }
+  }
+
+  private static void deleteRecursively(Path directory) throws IOException {
+    if (!Files.exists(directory)) {
+      return;
+    }
+
+    try (Stream<Path> files = Files.walk(directory)) {
+      // delete the contents of a directory before the directory itself
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private record ProblemDirectory(Path path, Instant lastModified, long size) {
+  }
+}
@@ -0,0 +1,18 @@
+package edu.kit.provideq.toolbox.api;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Spring configuration to register the codecs of the toolbox's own formats.
+ */
+@Configuration
+@EnableWebFlux
+public class CodecConfiguration implements WebFluxConfigurer {
+  @Override
+  public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+    configurer.customCodecs().register(new DimacsEncoder());
+  }
+}
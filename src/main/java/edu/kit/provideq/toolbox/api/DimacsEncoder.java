@@ -0,0 +1,129 @@
+package edu.kit.provideq.toolbox.api;
+
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsWritable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Encodes DIMACS structures, e.g., CNF formulas and their solutions, as plain text.
+ * The text is written chunk by chunk into data buffers while the client reads it, so it is never
+ * built as a whole in memory.
+ */
+public class DimacsEncoder extends AbstractEncoder<DimacsWritable> {
+  public DimacsEncoder() {
+    super(MimeTypeUtils.TEXT_PLAIN);
+  }
+
+  @Override
+  public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+    return DimacsWritable.class.isAssignableFrom(elementType.toClass())
+        && super.canEncode(elementType, mimeType);
+  }
+
+  @Override
+  public Flux<DataBuffer> encode(Publisher<? extends DimacsWritable> inputStream,
+                                 DataBufferFactory bufferFactory, ResolvableType elementType,
+                                 MimeType mimeType, Map<String, Object> hints) {
+    return Flux.from(inputStream).concatMap(dimacs -> encode(dimacs, bufferFactory,
+        chunk -> chunk.toString().getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Writes a DIMACS structure into data buffers.
+   * The structure is written on another thread, which waits while the subscriber doesn't request
+   * more buffers.
+   *
+   * @param dimacs        the structure to write.
+   * @param bufferFactory creates the data buffers.
+   * @param chunkEncoder  encodes a chunk of the text, e.g., as UTF-8 or as part of a JSON string.
+   *                      Chunks are only cut between tokens of the text.
+   */
+  static Flux<DataBuffer> encode(DimacsWritable dimacs, DataBufferFactory bufferFactory,
+                                 Function<CharSequence, byte[]> chunkEncoder) {
+    return Flux.create(sink -> {
+      var chunkSink = new ChunkSink(sink, bufferFactory, chunkEncoder);
+      sink.onRequest(chunkSink::request);
+      sink.onDispose(chunkSink::cancel);
+      Schedulers.boundedElastic().schedule(() -> chunkSink.write(dimacs));
+    });
+  }
+
+  /**
+   * Passes chunks of text on to a sink as they are appended, as long as the sink has demand.
+   */
+  private static class ChunkSink implements Appendable {
+    private final FluxSink<DataBuffer> sink;
+    private final DataBufferFactory bufferFactory;
+    private final Function<CharSequence, byte[]> chunkEncoder;
+    private final Semaphore demand = new Semaphore(0);
+    private volatile boolean cancelled;
+
+    private ChunkSink(FluxSink<DataBuffer> sink, DataBufferFactory bufferFactory,
+                      Function<CharSequence, byte[]> chunkEncoder) {
+      this.sink = sink;
+      this.bufferFactory = bufferFactory;
+      this.chunkEncoder = chunkEncoder;
+    }
+
+    private void write(DimacsWritable dimacs) {
+      try {
+        dimacs.writeTo(this);
+        sink.complete();
+      } catch (CancellationException e) {
+        // the subscriber isn't interested anymore
+      } catch (IOException | RuntimeException e) {
+        sink.error(e);
+      }
+    }
+
+    private void request(long count) {
+      // more permits than this are never waited for at once
+      demand.release((int) Math.min(count, Integer.MAX_VALUE / 2));
+    }
+
+    private void cancel() {
+      cancelled = true;
+      demand.release(Integer.MAX_VALUE / 2);
+    }
+
+    @Override
+    public Appendable append(CharSequence chunk) {
+      try {
+        demand.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Writing was interrupted");
+      }
+      if (cancelled) {
+        throw new CancellationException("The subscriber has cancelled");
+      }
+
+      sink.next(bufferFactory.wrap(chunkEncoder.apply(chunk)));
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence chunk, int start, int end) {
+      return append(chunk.subSequence(start, end));
+    }
+
+    @Override
+    public Appendable append(char c) {
+      return append(String.valueOf(c));
+    }
+  }
+}
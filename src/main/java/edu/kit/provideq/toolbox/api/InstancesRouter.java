@@ -0,0 +1,152 @@
+package edu.kit.provideq.toolbox.api;
+
+import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
+import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
+import static org.springdoc.core.fn.builders.requestbody.Builder.requestBodyBuilder;
+import static org.springdoc.webflux.core.fn.SpringdocRouteBuilder.route;
+import static org.springframework.http.MediaType.TEXT_PLAIN;
+
+import edu.kit.provideq.toolbox.InstanceLibrary;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * This router handles requests to the POST {@code /instances/sat} and DELETE
+ * {@code /instances/sat/{name}} endpoints.
+ * SAT formulas that are too large to be sent in a solve request are uploaded as plain DIMACS CNF.
+ * The request body is streamed to a file of the {@link InstanceLibrary} and the response contains
+ * the reference that is sent as problem data of solve requests instead of the formula.
+ * The writing stops as soon as the body exceeds the space the library grants the upload.
+ */
+@Configuration
+@EnableWebFlux
+public class InstancesRouter {
+  private static final String CNF_FILE_EXTENSION = ".cnf";
+
+  private final InstanceLibrary instanceLibrary;
+
+  @Autowired
+  public InstancesRouter(InstanceLibrary instanceLibrary) {
+    this.instanceLibrary = instanceLibrary;
+  }
+
+  @Bean
+  RouterFunction<ServerResponse> getInstanceRoutes() {
+    var problemType = ProblemType.SAT;
+    return route().POST(
+        getInstancesRouteForProblemType(problemType),
+        this::handleUpload,
+        ops -> ops
+            .operationId(getInstancesRouteForProblemType(problemType))
+            .tag(problemType.getId())
+            .description("Uploads a " + problemType.getId() + " problem in the DIMACS CNF format. "
+                + "Returns a reference to the problem, which can be sent as problem data of "
+                + "solve requests. Uploaded problems are deleted once they haven't been used for "
+                + "a while. Problems that are too large are rejected with status 413, and while "
+                + "uploaded problems take up all space reserved for them, uploads are rejected "
+                + "with status 507.")
+            .requestBody(requestBodyBuilder().required(true))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.OK.value()))
+                .implementation(String.class))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.PAYLOAD_TOO_LARGE.value())))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.INSUFFICIENT_STORAGE.value())))
+    ).DELETE(
+        getInstancesRouteForProblemType(problemType) + "/{name}",
+        this::handleDelete,
+        ops -> ops
+            .operationId(getInstancesRouteForProblemType(problemType) + "/delete")
+            .tag(problemType.getId())
+            .description("Deletes an uploaded " + problemType.getId() + " problem.")
+            .parameter(parameterBuilder().in(ParameterIn.PATH).name("name"))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.NO_CONTENT.value())))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.NOT_FOUND.value())))
+    ).build();
+  }
+
+  private Mono<ServerResponse> handleUpload(ServerRequest req) {
+    Optional<InstanceLibrary.Upload> startedUpload;
+    try {
+      startedUpload = instanceLibrary.startUpload(CNF_FILE_EXTENSION);
+    } catch (IOException e) {
+      return Mono.error(e);
+    }
+    if (startedUpload.isEmpty()) {
+      return Mono.error(new ResponseStatusException(HttpStatus.INSUFFICIENT_STORAGE,
+          "There is no space left for uploaded problems, delete problems that aren't needed "
+              + "anymore or try again once unused problems have been deleted."));
+    }
+
+    var upload = startedUpload.get();
+    if (req.headers().contentLength().orElse(0) > upload.maxBytes()) {
+      instanceLibrary.finishUpload(upload);
+      return Mono.error(tooLarge(upload));
+    }
+
+    // the body is written as it arrives, it is never held in memory as a whole,
+    // one byte more than allowed is written to tell whether the body is too large
+    var body = DataBufferUtils.takeUntilByteCount(
+        req.body(BodyExtractors.toDataBuffers()), upload.maxBytes() + 1);
+    return DataBufferUtils.write(body, upload.file())
+        .then(Mono.fromCallable(() -> Files.size(upload.file()) > upload.maxBytes()))
+        .flatMap(tooLarge -> tooLarge
+            ? Mono.<ServerResponse>error(tooLarge(upload))
+            : ServerResponse.ok()
+                .contentType(TEXT_PLAIN)
+                .bodyValue(InstanceLibrary.REFERENCE_PREFIX + upload.file().getFileName()))
+        .doOnError(e -> deleteQuietly(upload.file()))
+        .doFinally(signal -> instanceLibrary.finishUpload(upload));
+  }
+
+  private static ResponseStatusException tooLarge(InstanceLibrary.Upload upload) {
+    return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+        "Uploaded problems can't be larger than %d bytes right now".formatted(upload.maxBytes()));
+  }
+
+  private Mono<ServerResponse> handleDelete(ServerRequest req) {
+    boolean deleted;
+    try {
+      deleted = instanceLibrary.deleteUpload(req.pathVariable("name"));
+    } catch (IOException e) {
+      return Mono.error(e);
+    }
+
+    if (!deleted) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+          "Could not find an uploaded problem with this name!");
+    }
+    return ServerResponse.noContent().build();
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // the sweep deletes the file once it has expired
+    }
+  }
+
+  private String getInstancesRouteForProblemType(ProblemType type) {
+    return "/instances/" + type.getId();
+  }
+}
@@ -0,0 +1,186 @@
+package edu.kit.provideq.toolbox.api;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.kit.provideq.toolbox.Solution;
+import edu.kit.provideq.toolbox.StoredText;
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsWritable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Creates responses that contain a solution.
+ * Solution data and debug data that have been compacted are decompressed and streamed in chunks
+ * instead of reading them into memory at once, and solution data in a DIMACS format is written in
+ * chunks instead of converting it to a string first. All other solutions are serialized as usual.
+ */
+final class SolutionResponses {
+  private static final int CHUNK_CHARS = 8192;
+
+  /**
+   * Serializes solutions without their solution data and debug data, which are appended
+   * separately.
+   */
+  private static final ObjectMapper HEAD_MAPPER = new ObjectMapper()
+      .addMixIn(Solution.class, WithoutData.class);
+
+  private SolutionResponses() {
+  }
+
+  /**
+   * Creates a 200 response with a solution as JSON body.
+   */
+  static <S> Mono<ServerResponse> ok(Solution<S> typedSolution) {
+    // take a consistent copy, but keep DIMACS solution data to write it in chunks later on
+    var dimacsData = new AtomicReference<DimacsWritable>();
+    Solution<String> solution = typedSolution.toStringSolution(data -> {
+      if (data instanceof DimacsWritable dimacs) {
+        dimacsData.set(dimacs);
+        return null;
+      }
+      return data.toString();
+    });
+
+    StoredText storedSolutionData = solution.getStoredSolutionData();
+    StoredText storedDebugData = solution.getStoredDebugData();
+    if (storedSolutionData == null && storedDebugData == null && dimacsData.get() == null) {
+      return ServerResponse.ok().body(Mono.just(solution), new ParameterizedTypeReference<>() {
+      });
+    }
+
+    String head;
+    try {
+      head = HEAD_MAPPER.writeValueAsString(solution);
+    } catch (JsonProcessingException e) {
+      return Mono.error(e);
+    }
+
+    // the data fields are appended to the head object before it is closed
+    Flux<DataBuffer> body = Flux.concat(
+        Flux.just(wrap(head.substring(0, head.lastIndexOf('}')))),
+        dimacsData.get() != null
+            ? dimacsField("solutionData", dimacsData.get())
+            : field("solutionData", solution, Solution::getSolutionData, storedSolutionData),
+        field("debugData", solution, Solution::getDebugData, storedDebugData),
+        Flux.just(wrap("}")));
+
+    return ServerResponse.ok()
+        .contentType(APPLICATION_JSON)
+        .body(BodyInserters.fromDataBuffers(body));
+  }
+
+  private static Flux<DataBuffer> field(String name, Solution<String> solution,
+                                        Function<Solution<String>, String> getter,
+                                        StoredText storedText) {
+    if (storedText == null) {
+      // the getter would read a compacted value into memory, so it is only used for strings
+      String value = getter.apply(solution);
+      try {
+        return Flux.just(wrap(",\"" + name + "\":" + HEAD_MAPPER.writeValueAsString(value)));
+      } catch (JsonProcessingException e) {
+        return Flux.error(e);
+      }
+    }
+
+    return Flux.concat(
+        Flux.just(wrap(",\"" + name + "\":\"")),
+        Flux.using(storedText::openReader, reader -> {
+          var escaper = new EscapingReader(reader);
+          return Flux.generate(escaper::emitNextChunk);
+        }, SolutionResponses::close).subscribeOn(Schedulers.boundedElastic()),
+        Flux.just(wrap("\"")));
+  }
+
+  private static Flux<DataBuffer> dimacsField(String name, DimacsWritable dimacs) {
+    return Flux.concat(
+        Flux.just(wrap(",\"" + name + "\":\"")),
+        DimacsEncoder.encode(dimacs, DefaultDataBufferFactory.sharedInstance,
+            chunk -> JsonStringEncoder.getInstance().quoteAsUTF8(chunk.toString())),
+        Flux.just(wrap("\"")));
+  }
+
+  private static DataBuffer wrap(String text) {
+    return wrap(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static DataBuffer wrap(byte[] bytes) {
+    return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+  }
+
+  private static void close(Reader reader) {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @JsonIgnoreProperties({"solutionData", "debugData"})
+  private abstract static class WithoutData {
+  }
+
+  /**
+   * Reads a string in chunks and escapes each chunk as content of a JSON string.
+   */
+  private static class EscapingReader {
+    private final Reader reader;
+    private final char[] chunk = new char[CHUNK_CHARS];
+
+    /**
+     * Whether the first char of the chunk has been carried over from the previous chunk.
+     */
+    private boolean carried;
+
+    private EscapingReader(Reader reader) {
+      this.reader = reader;
+    }
+
+    private void emitNextChunk(SynchronousSink<DataBuffer> sink) {
+      int offset = carried ? 1 : 0;
+      int read;
+      try {
+        read = reader.read(chunk, offset, chunk.length - offset);
+      } catch (IOException e) {
+        sink.error(e);
+        return;
+      }
+
+      if (read < 0 && !carried) {
+        sink.complete();
+        return;
+      }
+
+      int length = offset + Math.max(read, 0);
+      carried = false;
+      if (read > 0 && Character.isHighSurrogate(chunk[length - 1])) {
+        // don't split surrogate pairs, they can only be escaped together
+        length--;
+        carried = true;
+      }
+
+      byte[] escaped = JsonStringEncoder.getInstance()
+          .quoteAsUTF8(new String(chunk, 0, length));
+      if (carried) {
+        chunk[0] = chunk[length];
+      }
+      sink.next(wrap(escaped));
+    }
+  }
+}
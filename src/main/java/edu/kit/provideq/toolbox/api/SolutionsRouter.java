@@ -0,0 +1,302 @@
+package edu.kit.provideq.toolbox.api;
+
+import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
+import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
+import static org.springdoc.webflux.core.fn.SpringdocRouteBuilder.route;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+import static org.springframework.web.reactive.function.server.ServerResponse.ok;
+
+import edu.kit.provideq.toolbox.MetaSolverProvider;
+import edu.kit.provideq.toolbox.Solution;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
+import edu.kit.provideq.toolbox.SolutionManager;
+import edu.kit.provideq.toolbox.SolutionPage;
+import edu.kit.provideq.toolbox.SolutionQuery;
+import edu.kit.provideq.toolbox.SolutionStatus;
+import edu.kit.provideq.toolbox.SolutionStatusChange;
+import edu.kit.provideq.toolbox.SolutionSummary;
+import edu.kit.provideq.toolbox.meta.MetaSolver;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+/**
+ * This router handles requests to the GET {@code /solutions/{id}} endpoint, which looks up a
+ * solution of any problem type, and to the GET {@code /solutions/{id}/events} endpoint, which
+ * streams the changes of a solution as server-sent events.
+ * The GET {@code /solutions} endpoint lists the solutions in memory page by page.
+ * Solution ids encode the problem type of their solution (see {@link SolutionIdGenerator}), so the
+ * solution is looked up directly in the solutions of that problem type.
+ */
+@Configuration
+@EnableWebFlux
+public class SolutionsRouter {
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final int MAX_PAGE_SIZE = 1000;
+
+  private final MetaSolverProvider metaSolverProvider;
+
+  @Autowired
+  public SolutionsRouter(MetaSolverProvider metaSolverProvider) {
+    this.metaSolverProvider = metaSolverProvider;
+  }
+
+  @Bean
+  RouterFunction<ServerResponse> getSolutionsRoute() {
+    return route().GET(
+        "/solutions",
+        accept(APPLICATION_JSON),
+        this::handleSolutionsRoute,
+        ops -> ops
+            .operationId("/solutions/list")
+            .tag("solutions")
+            .description("Lists the solutions in memory, newest first. "
+                + "All filters are optional. Creation times are ISO-8601 instants and are "
+                + "compared with a precision of one second. "
+                + "To get the next page, pass the nextCursor of a page as cursor.")
+            .parameter(parameterBuilder().in(ParameterIn.QUERY).name("status"))
+            .parameter(parameterBuilder().in(ParameterIn.QUERY).name("type"))
+            .parameter(parameterBuilder().in(ParameterIn.QUERY).name("solver"))
+            .parameter(parameterBuilder().in(ParameterIn.QUERY).name("createdAfter"))
+            .parameter(parameterBuilder().in(ParameterIn.QUERY).name("createdBefore"))
+            .parameter(parameterBuilder().in(ParameterIn.QUERY).name("cursor"))
+            .parameter(parameterBuilder().in(ParameterIn.QUERY).name("limit"))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.OK.value()))
+                .implementation(SolutionPage.class))
+    ).build();
+  }
+
+  private Mono<ServerResponse> handleSolutionsRoute(ServerRequest req) {
+    int limit = req.queryParam("limit")
+        .map(value -> parse(value, Integer::parseInt, "limit"))
+        .orElse(DEFAULT_PAGE_SIZE);
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new ServerWebInputException("The limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    var query = new SolutionQuery(
+        req.queryParam("status")
+            .map(value -> parse(value, SolutionStatus::valueOf, "status"))
+            .orElse(null),
+        req.queryParam("solver").orElse(null),
+        req.queryParam("createdAfter")
+            .map(value -> parse(value, Instant::parse, "createdAfter"))
+            .orElse(null),
+        req.queryParam("createdBefore")
+            .map(value -> parse(value, Instant::parse, "createdBefore"))
+            .orElse(null),
+        req.queryParam("cursor")
+            .map(value -> parse(value, Long::parseLong, "cursor"))
+            .orElse(null),
+        limit);
+
+    Optional<ProblemType> type = req.queryParam("type")
+        .map(typeId -> Arrays.stream(ProblemType.values())
+            .filter(problemType -> problemType.getId().equals(typeId))
+            .findFirst()
+            .orElseThrow(() -> new ServerWebInputException("Unknown problem type " + typeId)));
+
+    // every problem type contributes its newest matches, the page is the newest of them
+    List<SolutionSummary> summaries = metaSolverProvider.getMetaSolvers().stream()
+        .filter(metaSolver -> type.isEmpty() || metaSolver.getProblemType() == type.get())
+        .flatMap(metaSolver -> metaSolver.getSolutionManager()
+            .findSolutions(query)
+            .stream()
+            .map(solution -> SolutionSummary.of(metaSolver.getProblemType(), solution)))
+        .sorted(Comparator.comparingLong(SolutionSummary::id).reversed())
+        .limit(limit)
+        .toList();
+    Long nextCursor = summaries.size() < limit ? null : summaries.get(limit - 1).id();
+
+    return ok().body(Mono.just(new SolutionPage(summaries, nextCursor)),
+        new ParameterizedTypeReference<>() {
+        });
+  }
+
+  private static <T> T parse(String value, Function<String, T> parser, String parameter) {
+    try {
+      return parser.apply(value);
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new ServerWebInputException("Invalid " + parameter + ": " + value);
+    }
+  }
+
+  @Bean
+  RouterFunction<ServerResponse> getSolutionByIdRoute() {
+    return route().GET(
+        "/solutions/{id}",
+        accept(APPLICATION_JSON),
+        this::handleSolutionByIdRoute,
+        ops -> ops
+            .operationId("/solutions")
+            .tag("solutions")
+            .description("Returns the solution with the given id, regardless of its problem type.")
+            .parameter(parameterBuilder().in(ParameterIn.PATH).name("id"))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.OK.value()))
+                .implementation(Solution.class))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.NOT_FOUND.value())))
+    ).build();
+  }
+
+  private Mono<ServerResponse> handleSolutionByIdRoute(ServerRequest req) {
+    long solutionId = getSolutionId(req);
+    var solution = findSolutionManager(solutionId)
+        .flatMap(solutionManager -> solutionManager.findSolution(solutionId))
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+            "Could not find a solution with this solution id!"));
+
+    return SolutionResponses.ok(solution);
+  }
+
+  @Bean
+  RouterFunction<ServerResponse> getSolutionEventsRoute() {
+    return route().GET(
+        "/solutions/{id}/events",
+        accept(TEXT_EVENT_STREAM),
+        this::handleSolutionEventsRoute,
+        ops -> ops
+            .operationId("/solutions/events")
+            .tag("solutions")
+            .description("Streams the changes of the solution with the given id as server-sent "
+                + "events instead of polling it. "
+                + "A \"status\" event with the id, status, queue position and version of the "
+                + "solution is sent right away and whenever its status or queue position changes. "
+                + "Once the solution has finished, a single \"result\" event with the complete "
+                + "solution is sent and the stream ends.")
+            .parameter(parameterBuilder().in(ParameterIn.PATH).name("id"))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.OK.value())))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.NOT_FOUND.value())))
+    ).build();
+  }
+
+  private Mono<ServerResponse> handleSolutionEventsRoute(ServerRequest req) {
+    long solutionId = getSolutionId(req);
+    var events = findSolutionManager(solutionId)
+        .flatMap(solutionManager -> streamEvents(solutionManager, solutionId))
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+            "Could not find a solution with this solution id!"));
+
+    return ok()
+        .contentType(TEXT_EVENT_STREAM)
+        .body(BodyInserters.fromServerSentEvents(events));
+  }
+
+  private static <S> Optional<Flux<ServerSentEvent<Object>>> streamEvents(
+      SolutionManager<S> solutionManager, long solutionId) {
+    Solution<S> solution = solutionManager.getSolution(solutionId);
+    if (solution == null) {
+      // solutions that aren't in memory anymore have finished long ago
+      return solutionManager.getStringSolution(solutionId)
+          .map(storedSolution -> Flux.just(createResultEvent(storedSolution)));
+    }
+
+    return Optional.of(Flux.create(sink -> {
+      var emitter = new SolutionEventEmitter<S>(sink);
+      solution.addChangeListener(emitter);
+      sink.onDispose(() -> solution.removeChangeListener(emitter));
+      // the solution might not change anymore, so report its current state right away
+      emitter.accept(solution);
+    }));
+  }
+
+  private static ServerSentEvent<Object> createResultEvent(Solution<String> solution) {
+    return ServerSentEvent.builder()
+        .event("result")
+        .id(String.valueOf(solution.getVersion()))
+        .data((Object) solution)
+        .build();
+  }
+
+  private static long getSolutionId(ServerRequest req) {
+    try {
+      return Long.parseLong(req.pathVariable("id"));
+    } catch (NumberFormatException e) {
+      throw new ServerWebInputException("Solution ids must be numbers");
+    }
+  }
+
+  private Optional<SolutionManager<?>> findSolutionManager(long solutionId) {
+    return SolutionIdGenerator.getProblemType(solutionId)
+        .map(metaSolverProvider::getMetaSolver)
+        .<SolutionManager<?>>map(MetaSolver::getSolutionManager);
+  }
+
+  /**
+   * Sends an event for each change of the status or the queue position of a solution, and the
+   * complete solution once it has finished.
+   * Queue positions are computed when they are read, so jobs leaving the queue ahead of the
+   * solution don't cause an event. The position is reported when the solution changes otherwise,
+   * e.g. once it is queued and once its job has started.
+   */
+  private static class SolutionEventEmitter<S> implements Consumer<Solution<S>> {
+    private final FluxSink<ServerSentEvent<Object>> sink;
+    private SolutionStatus lastStatus;
+    private int lastQueuePosition = -1;
+    private boolean done;
+
+    private SolutionEventEmitter(FluxSink<ServerSentEvent<Object>> sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public synchronized void accept(Solution<S> solution) {
+      if (done) {
+        return;
+      }
+
+      if (solution.isFinished()) {
+        done = true;
+        sink.next(createResultEvent(solution.toStringSolution()));
+        sink.complete();
+        return;
+      }
+
+      SolutionStatus status = solution.getStatus();
+      int queuePosition = solution.getQueuePosition();
+      if (status == lastStatus && queuePosition == lastQueuePosition) {
+        // only the solution data changed, which is sent with the result
+        return;
+      }
+      lastStatus = status;
+      lastQueuePosition = queuePosition;
+
+      var change = new SolutionStatusChange(
+          solution.getId(), status, queuePosition, solution.getVersion());
+      sink.next(ServerSentEvent.builder()
+          .event("status")
+          .id(String.valueOf(change.version()))
+          .data((Object) change)
+          .build());
+    }
+  }
+}
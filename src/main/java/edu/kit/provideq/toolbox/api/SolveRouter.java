@@ -14,6 +14,8 @@ import static org.springframework.web.reactive.function.server.ServerResponse.ok
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.kit.provideq.toolbox.AdmissionController;
+import edu.kit.provideq.toolbox.AdmissionController.Rejection;
 import edu.kit.provideq.toolbox.MetaSolverProvider;
 import edu.kit.provideq.toolbox.Solution;
 import edu.kit.provideq.toolbox.SolveRequest;
@@ -22,12 +24,14 @@ import edu.kit.provideq.toolbox.meta.ProblemSolver;
 import edu.kit.provideq.toolbox.meta.ProblemType;
 import edu.kit.provideq.toolbox.meta.SubRoutineDefinition;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.springdoc.core.fn.builders.operation.Builder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
@@ -41,19 +45,24 @@ import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Mono;
 
 /**
- * This router handles problem-solving requests to the GET and POST {@code /solve/{problemType}}
- * endpoints.
+ * This router handles problem-solving requests to the GET, POST and DELETE
+ * {@code /solve/{problemType}} endpoints.
  * Requests are validated and relayed to the corresponding {@link MetaSolver}.
+ * Problems are solved asynchronously, a POST request returns a computing solution right away whose
+ * progress can be polled with a GET request and which can be cancelled with a DELETE request.
  */
 @Configuration
 @EnableWebFlux
 public class SolveRouter {
   private final MetaSolverProvider metaSolverProvider;
   private final Validator validator;
+  private final AdmissionController admissionController;
 
-  public SolveRouter(MetaSolverProvider metaSolverProvider, Validator validator) {
+  public SolveRouter(MetaSolverProvider metaSolverProvider, Validator validator,
+                     AdmissionController admissionController) {
     this.metaSolverProvider = metaSolverProvider;
     this.validator = validator;
+    this.admissionController = admissionController;
   }
 
   @Bean
@@ -75,14 +84,37 @@ public class SolveRouter {
 
   private <ProblemT, SolutionT> Mono<ServerResponse> handleRouteForMetaSolver(
       MetaSolver<ProblemT, SolutionT, ?> metaSolver, ServerRequest req) {
-    var solutionMono = req
+    return req
         .bodyToMono(new ParameterizedTypeReference<SolveRequest<ProblemT>>() {
         })
         .doOnNext(this::validate)
-        .map(metaSolver::solve)
-        .map(Solution::toStringSolution);
-    return ok().body(solutionMono, new ParameterizedTypeReference<>() {
-    });
+        // cached results don't need a solver thread, so they are never rejected
+        .flatMap(request -> metaSolver.solveFromCache(request)
+            .map(solution -> ok().bodyValue(solution.toStringSolution()))
+            .orElseGet(() -> solve(metaSolver, request)));
+  }
+
+  private <ProblemT, SolutionT> Mono<ServerResponse> solve(
+      MetaSolver<ProblemT, SolutionT, ?> metaSolver, SolveRequest<ProblemT> request) {
+    var rejection = admissionController.checkAdmission(metaSolver.getProblemType());
+    if (rejection.isPresent()) {
+      return tooManyRequests(rejection.get());
+    }
+
+    try {
+      return ok().bodyValue(metaSolver.solveAsync(request).toStringSolution());
+    } catch (RejectedExecutionException e) {
+      // jobs of other problem types may have filled the queue since the admission check
+      return tooManyRequests(admissionController.rejectFullQueue(metaSolver.getProblemType()));
+    }
+  }
+
+  private static Mono<ServerResponse> tooManyRequests(Rejection rejection) {
+    // round up so clients don't retry before the estimated time
+    long retryAfterSeconds = (rejection.retryAfter().toMillis() + 999) / 1000;
+    return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+        .bodyValue(rejection.reason());
   }
 
   private <ProblemT> void validate(SolveRequest<ProblemT> request) {
@@ -125,13 +157,53 @@ public class SolveRouter {
                                                                 ServerRequest req) {
     var solution = req.queryParam("id")
         .map(Long::parseLong)
-        .map(solutionId -> metaSolver.getSolutionManager().getSolution(solutionId))
-        .map(Solution::toStringSolution)
+        .flatMap(solutionId -> metaSolver.getSolutionManager().findSolution(solutionId))
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+            "Could not find a solution for this problem with this solution id!"));
+
+    return SolutionResponses.ok(solution);
+  }
+
+  @Bean
+  RouterFunction<ServerResponse> getCancelRoutes() {
+    return metaSolverProvider.getMetaSolvers().stream()
+        .map(this::defineCancelRouteForMetaSolver)
+        .reduce(RouterFunction::and)
+        .orElseThrow(); // we should always have at least one route or the toolbox is useless
+  }
+
+  private RouterFunction<ServerResponse> defineCancelRouteForMetaSolver(
+      MetaSolver<?, ?, ?> metaSolver) {
+    var problemType = metaSolver.getProblemType();
+    return route().DELETE(
+        getSolveRouteForProblemType(problemType),
+        accept(APPLICATION_JSON),
+        req -> handleCancelRouteForMetaSolver(metaSolver, req),
+        ops -> ops
+            .operationId(getCancelRouteForProblemType(problemType))
+            .tag(problemType.getId())
+            .description("Cancels solving a " + problemType.getId() + " problem. "
+                + "Running solver processes are killed and no further sub-routines are called. "
+                + "Solutions that are already completed are not changed.")
+            .parameter(parameterBuilder().in(ParameterIn.QUERY).name("id"))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.OK.value()))
+                .implementation(Solution.class)
+            )
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.NOT_FOUND.value())))
+    ).build();
+  }
+
+  private Mono<ServerResponse> handleCancelRouteForMetaSolver(MetaSolver<?, ?, ?> metaSolver,
+                                                              ServerRequest req) {
+    var solution = req.queryParam("id")
+        .map(Long::parseLong)
+        .flatMap(metaSolver::cancel)
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
             "Could not find a solution for this problem with this solution id!"));
 
-    return ok().body(Mono.just(solution), new ParameterizedTypeReference<>() {
-    });
+    return SolutionResponses.ok(solution);
   }
 
   private void handleRouteDocumentation(MetaSolver<?, ?, ?> metaSolver, Builder ops) {
@@ -141,11 +213,17 @@ public class SolveRouter {
         .tag(problemType.getId())
         .description("Solves a " + problemType.getId() + " problem. To solve the problem, "
             + "either the meta-solver will choose the best available solver,"
-            + "or a specific solver selected in the request will be used.")
+            + "or a specific solver selected in the request will be used. "
+            + "The solution is returned immediately while it is still being computed, "
+            + "use the GET endpoint with the solution id to poll its status. "
+            + "If the toolbox is overloaded, the request is rejected with status 429 and a "
+            + "Retry-After header that estimates when to send it again.")
         .requestBody(requestBodyBuilder()
                 .content(getRequestContent(metaSolver))
                 .required(true))
-        .response(getResponseOk(metaSolver));
+        .response(getResponseOk(metaSolver))
+        .response(responseBuilder()
+            .responseCode(String.valueOf(HttpStatus.TOO_MANY_REQUESTS.value())));
   }
 
   private static org.springdoc.core.fn.builders.apiresponse.Builder getResponseOk(
@@ -267,4 +345,8 @@ public class SolveRouter {
   private String getSolutionRouteForProblemType(ProblemType type) {
     return "/solution/" + type.getId();
   }
+
+  private String getCancelRouteForProblemType(ProblemType type) {
+    return "/cancel/" + type.getId();
+  }
 }
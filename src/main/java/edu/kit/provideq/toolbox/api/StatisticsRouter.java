@@ -0,0 +1,108 @@
+package edu.kit.provideq.toolbox.api;
+
+import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
+import static org.springdoc.webflux.core.fn.SpringdocRouteBuilder.route;
+import static org.springframework.web.reactive.function.server.ServerResponse.ok;
+
+import edu.kit.provideq.toolbox.MetaSolverProvider;
+import edu.kit.provideq.toolbox.ResultCache;
+import edu.kit.provideq.toolbox.SolutionManager;
+import edu.kit.provideq.toolbox.meta.MetaSolver;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * This router handles requests to the GET {@code /statistics/{problemType}} endpoints.
+ * Responses report how many solutions the meta-solver of the given problem type keeps in memory
+ * and how many it has evicted.
+ * The GET {@code /statistics/{problemType}/cache} endpoints report the hits and misses of the
+ * {@link ResultCache} for results of the given problem type.
+ */
+@Configuration
+@EnableWebFlux
+public class StatisticsRouter {
+  private final MetaSolverProvider metaSolverProvider;
+  private final Optional<ResultCache> resultCache;
+
+  @Autowired
+  public StatisticsRouter(MetaSolverProvider metaSolverProvider,
+                          Optional<ResultCache> resultCache) {
+    this.metaSolverProvider = metaSolverProvider;
+    this.resultCache = resultCache;
+  }
+
+  @Bean
+  RouterFunction<ServerResponse> getStatisticsRoutes() {
+    return metaSolverProvider.getMetaSolvers().stream()
+        .map(this::defineStatisticsRouteForMetaSolver)
+        .reduce(RouterFunction::and)
+        .orElseThrow();
+  }
+
+  private RouterFunction<ServerResponse> defineStatisticsRouteForMetaSolver(
+      MetaSolver<?, ?, ?> metaSolver) {
+    var problemType = metaSolver.getProblemType();
+    return route().GET(
+        getStatisticsRouteForProblemType(problemType),
+        req -> ok().body(Mono.just(metaSolver.getSolutionManager().getStatistics()),
+            new ParameterizedTypeReference<>() {
+            }),
+        ops -> ops
+            .operationId(getStatisticsRouteForProblemType(problemType))
+            .tag(problemType.getId())
+            .description("Returns how many " + problemType.getId() + " solutions are kept in "
+                + "memory and how many have been evicted.")
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.OK.value()))
+                .implementation(SolutionManager.Statistics.class))
+    ).build();
+  }
+
+  @Bean
+  RouterFunction<ServerResponse> getCacheStatisticsRoutes() {
+    return metaSolverProvider.getMetaSolvers().stream()
+        .map(this::defineCacheStatisticsRouteForMetaSolver)
+        .reduce(RouterFunction::and)
+        .orElseThrow();
+  }
+
+  private RouterFunction<ServerResponse> defineCacheStatisticsRouteForMetaSolver(
+      MetaSolver<?, ?, ?> metaSolver) {
+    var problemType = metaSolver.getProblemType();
+    return route().GET(
+        getStatisticsRouteForProblemType(problemType) + "/cache",
+        req -> {
+          var statistics = resultCache
+              .map(cache -> cache.getStatistics(problemType))
+              .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                  "The result cache is disabled"));
+          return ok().body(Mono.just(statistics), new ParameterizedTypeReference<>() {
+          });
+        },
+        ops -> ops
+            .operationId(getStatisticsRouteForProblemType(problemType) + "/cache")
+            .tag(problemType.getId())
+            .description("Returns how many " + problemType.getId() + " results are cached and "
+                + "how many solve requests have been answered from the cache.")
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.OK.value()))
+                .implementation(ResultCache.Statistics.class))
+            .response(responseBuilder()
+                .responseCode(String.valueOf(HttpStatus.NOT_FOUND.value())))
+    ).build();
+  }
+
+  private String getStatisticsRouteForProblemType(ProblemType type) {
+    return "/statistics/" + type.getId();
+  }
+}
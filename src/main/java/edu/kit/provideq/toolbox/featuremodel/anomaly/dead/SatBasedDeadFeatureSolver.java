@@ -1,5 +1,6 @@
 package edu.kit.provideq.toolbox.featuremodel.anomaly.dead;
 
+import edu.kit.provideq.toolbox.InstanceLibrary;
 import edu.kit.provideq.toolbox.Solution;
 import edu.kit.provideq.toolbox.SolutionStatus;
 import edu.kit.provideq.toolbox.SubRoutinePool;
@@ -15,14 +16,24 @@ import edu.kit.provideq.toolbox.meta.SubRoutineDefinition;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * This problem solver solves the {@link ProblemType#FEATURE_MODEL_ANOMALY_DEAD} problem by building
  * {@link ProblemType#SAT} formulae that are solved by a corresponding solver.
+ * The formulae are shared through the {@link InstanceLibrary}, so their texts aren't built for
+ * every feature.
  */
 @Component
 public class SatBasedDeadFeatureSolver implements ProblemSolver<String, String> {
+  private final InstanceLibrary instanceLibrary;
+
+  @Autowired
+  public SatBasedDeadFeatureSolver(InstanceLibrary instanceLibrary) {
+    this.instanceLibrary = instanceLibrary;
+  }
+
   @Override
   public String getName() {
     return "SAT-based Dead Feature Solver";
@@ -35,6 +46,11 @@ public class SatBasedDeadFeatureSolver implements ProblemSolver<String, String>
             "Called per feature to determine if it is dead"));
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return true;
+  }
+
   @Override
   public boolean canSolve(Problem<String> problem) {
     return problem.type() == ProblemType.FEATURE_MODEL_ANOMALY_DEAD;
@@ -57,7 +73,7 @@ public class SatBasedDeadFeatureSolver implements ProblemSolver<String, String>
     checkDeadFeatures(solution, cnf, satSolve);
   }
 
-  private static void checkDeadFeatures(Solution<String> solution, String cnf,
+  private void checkDeadFeatures(Solution<String> solution, String cnf,
                                         Function<String, Solution<DimacsCnfSolution>> satSolve) {
     // Check if there are any Dead Features
     DimacsCnf dimacsCnf;
@@ -80,7 +96,22 @@ public class SatBasedDeadFeatureSolver implements ProblemSolver<String, String>
       orClause.add(variable);
       var variableCnf = dimacsCnf.addOrClause(orClause);
 
-      var variableSolution = satSolve.apply(variableCnf.toString());
+      Solution<DimacsCnfSolution> variableSolution;
+      try (var sharedCnf = instanceLibrary.share(variableCnf)) {
+        variableSolution = satSolve.apply(sharedCnf.reference());
+      }
+
+      // Stop checking the remaining features once the solving process is cancelled
+      // or its time budget is spent
+      if (variableSolution.getStatus() == SolutionStatus.CANCELLED) {
+        solution.cancel();
+        return;
+      }
+      if (variableSolution.getStatus() == SolutionStatus.TIMED_OUT) {
+        solution.setDebugData(variableSolution.getDebugData());
+        solution.timeOut();
+        return;
+      }
 
       if (variableSolution.getStatus() == SolutionStatus.SOLVED) {
         var dimacsCnfSolution =
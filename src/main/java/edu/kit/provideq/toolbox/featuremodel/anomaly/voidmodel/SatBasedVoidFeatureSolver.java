@@ -33,6 +33,11 @@ public class SatBasedVoidFeatureSolver
             "Used to determine if there is any valid configurations of the Feature Model"));
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return true;
+  }
+
   @Override
   public boolean canSolve(Problem<String> problem) {
     return problem.type() == ProblemType.FEATURE_MODEL_ANOMALY_VOID;
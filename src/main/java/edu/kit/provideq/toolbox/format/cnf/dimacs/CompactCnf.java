@@ -0,0 +1,247 @@
+package edu.kit.provideq.toolbox.format.cnf.dimacs;
+
+import java.util.Arrays;
+
+/**
+ * An immutable CNF formula that stores its literals as primitive ints.
+ *
+ * <p>All literals are kept in a single arena in DIMACS notation, i.e., the number of a variable,
+ * negative if the variable is negated. Clause {@code i} spans the literals from
+ * {@code clauseStarts[i]} to {@code clauseStarts[i + 1]}. The names of the variables are kept in a
+ * separate table indexed by variable number, so a literal takes four bytes instead of a boxed
+ * {@link Variable} in nested lists.
+ *
+ * <p>Clauses that are added to a formula are kept in a small overlay arena, the arenas of the base
+ * formula are shared by all formulas derived from it. Positions of literals and clauses continue
+ * from the base formula into the overlay, so the overlay is transparent to readers.
+ */
+public final class CompactCnf {
+  private static final int[] EMPTY = new int[0];
+
+  private final int[] literals;
+  private final int[] clauseStarts;
+
+  /**
+   * The literals of the clauses that have been added to the base formula.
+   */
+  private final int[] extraLiterals;
+
+  /**
+   * The positions after the last literals of the added clauses, counted from the first literal of
+   * the base formula.
+   */
+  private final int[] extraClauseEnds;
+
+  /**
+   * The numbers of the variables of the formula, in the order they are listed in.
+   */
+  private final int[] variables;
+
+  /**
+   * The names of the variables by their number, null for unnamed variables.
+   */
+  private final String[] names;
+
+  private CompactCnf(int[] literals, int[] clauseStarts, int[] extraLiterals,
+                     int[] extraClauseEnds, int[] variables, String[] names) {
+    this.literals = literals;
+    this.clauseStarts = clauseStarts;
+    this.extraLiterals = extraLiterals;
+    this.extraClauseEnds = extraClauseEnds;
+    this.variables = variables;
+    this.names = names;
+  }
+
+  public int getClauseCount() {
+    return clauseStarts.length - 1 + extraClauseEnds.length;
+  }
+
+  public int getLiteralCount() {
+    return literals.length + extraLiterals.length;
+  }
+
+  public int getVariableCount() {
+    return variables.length;
+  }
+
+  /**
+   * Returns the number of the variable at a position of the variable list.
+   */
+  public int getVariable(int index) {
+    return variables[index];
+  }
+
+  /**
+   * Returns the name of a variable, or null if it doesn't have a name.
+   */
+  public String getName(int variable) {
+    return variable < names.length ? names[variable] : null;
+  }
+
+  /**
+   * Returns the largest variable number of the formula, 0 if it has no variables.
+   */
+  public int getMaxVariable() {
+    return names.length - 1;
+  }
+
+  public int getClauseStart(int clause) {
+    int baseClauseCount = clauseStarts.length - 1;
+    if (clause <= baseClauseCount) {
+      return clause < baseClauseCount ? clauseStarts[clause] : literals.length;
+    }
+    return extraClauseEnds[clause - baseClauseCount - 1];
+  }
+
+  public int getClauseEnd(int clause) {
+    int baseClauseCount = clauseStarts.length - 1;
+    return clause < baseClauseCount
+        ? clauseStarts[clause + 1]
+        : extraClauseEnds[clause - baseClauseCount];
+  }
+
+  /**
+   * Returns the literal at a position of the arena, negative if its variable is negated.
+   */
+  public int getLiteral(int index) {
+    return index < literals.length ? literals[index] : extraLiterals[index - literals.length];
+  }
+
+  /**
+   * Returns a formula with an additional clause, the variable list is not changed.
+   * The formula shares the literals of this formula, only the clauses that have been added to the
+   * base formula are copied.
+   *
+   * @param clause the literals of the clause, in DIMACS notation.
+   */
+  public CompactCnf withClause(int... clause) {
+    int[] newExtraLiterals = Arrays.copyOf(extraLiterals, extraLiterals.length + clause.length);
+    System.arraycopy(clause, 0, newExtraLiterals, extraLiterals.length, clause.length);
+    int[] newExtraClauseEnds = Arrays.copyOf(extraClauseEnds, extraClauseEnds.length + 1);
+    newExtraClauseEnds[extraClauseEnds.length] = literals.length + newExtraLiterals.length;
+
+    String[] newNames = names;
+    for (int literal : clause) {
+      if (Math.abs(literal) >= newNames.length) {
+        newNames = Arrays.copyOf(newNames, Math.abs(literal) + 1);
+      }
+    }
+
+    return new CompactCnf(literals, clauseStarts, newExtraLiterals, newExtraClauseEnds, variables,
+        newNames);
+  }
+
+  /**
+   * Builds a formula clause by clause.
+   * Variables are listed in the order they are declared, or if no variables are declared, in the
+   * order they first appear in the clauses.
+   */
+  public static class Builder {
+    private int[] literals = new int[64];
+    private int literalCount;
+    private int[] clauseStarts = new int[16];
+    private int clauseCount;
+    private int[] variables = EMPTY;
+    private int variableCount;
+    private String[] names = new String[1];
+
+    /**
+     * Appends a literal to the current clause.
+     *
+     * @param literal the number of a variable, negative if the variable is negated.
+     */
+    public Builder addLiteral(int literal) {
+      if (literal == 0) {
+        throw new IllegalArgumentException("0 is not a valid literal");
+      }
+
+      if (literalCount == literals.length) {
+        literals = Arrays.copyOf(literals, literalCount * 2);
+      }
+      literals[literalCount++] = literal;
+      ensureVariable(Math.abs(literal));
+      return this;
+    }
+
+    /**
+     * Ends the current clause, the following literals belong to the next clause.
+     */
+    public Builder endClause() {
+      if (clauseCount + 1 == clauseStarts.length) {
+        clauseStarts = Arrays.copyOf(clauseStarts, clauseStarts.length * 2);
+      }
+      clauseStarts[++clauseCount] = literalCount;
+      return this;
+    }
+
+    /**
+     * Lists a variable of the formula.
+     *
+     * @param variable the number of the variable.
+     * @param name     the name of the variable, null if it doesn't have a name.
+     */
+    public Builder declareVariable(int variable, String name) {
+      if (variableCount == variables.length) {
+        variables = Arrays.copyOf(variables, Math.max(variableCount * 2, 16));
+      }
+      variables[variableCount++] = variable;
+      ensureVariable(variable);
+      names[variable] = name;
+      return this;
+    }
+
+    /**
+     * Names a variable without listing it.
+     */
+    public Builder nameVariable(int variable, String name) {
+      ensureVariable(variable);
+      names[variable] = name;
+      return this;
+    }
+
+    private void ensureVariable(int variable) {
+      if (variable >= names.length) {
+        names = Arrays.copyOf(names, Math.max(variable + 1, names.length * 2));
+      }
+    }
+
+    /**
+     * Builds the formula, clauses that haven't been ended are left out.
+     */
+    public CompactCnf build() {
+      int maxVariable = 0;
+      for (int i = 0; i < clauseStarts[clauseCount]; i++) {
+        maxVariable = Math.max(maxVariable, Math.abs(literals[i]));
+      }
+      for (int i = 0; i < variableCount; i++) {
+        maxVariable = Math.max(maxVariable, variables[i]);
+      }
+
+      int[] listedVariables = variableCount > 0
+          ? Arrays.copyOf(variables, variableCount)
+          : variablesInOrderOfAppearance(maxVariable);
+
+      return new CompactCnf(
+          Arrays.copyOf(literals, clauseStarts[clauseCount]),
+          Arrays.copyOf(clauseStarts, clauseCount + 1),
+          EMPTY,
+          EMPTY,
+          listedVariables,
+          Arrays.copyOf(names, maxVariable + 1));
+    }
+
+    private int[] variablesInOrderOfAppearance(int maxVariable) {
+      var seen = new boolean[maxVariable + 1];
+      int[] result = new int[maxVariable];
+      int count = 0;
+      for (int i = 0; i < clauseStarts[clauseCount]; i++) {
+        int variable = Math.abs(literals[i]);
+        if (!seen[variable]) {
+          seen[variable] = true;
+          result[count++] = variable;
+        }
+      }
+      return Arrays.copyOf(result, count);
+    }
+  }
+}
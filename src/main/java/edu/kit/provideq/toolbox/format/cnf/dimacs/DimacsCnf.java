@@ -4,13 +4,18 @@ import com.bpodgursky.jbool_expressions.Expression;
 import com.bpodgursky.jbool_expressions.parsers.ExprParser;
 import com.bpodgursky.jbool_expressions.rules.RuleSet;
 import edu.kit.provideq.toolbox.exception.ConversionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
-public class DimacsCnf {
+public class DimacsCnf implements DimacsWritable {
   static final String LINE_SEPARATOR = System.lineSeparator();
   static final char SEPARATOR = ' ';
   static final char NEGATION_PREFIX = '-';
@@ -19,15 +24,21 @@ public class DimacsCnf {
   static final char CLAUSE_END = '0';
   static final String CNF_IDENTIFIER = "cnf";
 
-  private final List<Variable> variables;
-  private final ArrayList<ArrayList<Variable>> orClauses;
+  private final CompactCnf cnf;
 
   public DimacsCnf(Expression<String> expression) throws ConversionException {
     this(new ExpressionToDimacsCnf().parse(expression));
   }
 
+  /**
+   * Creates a dimacs cnf structure that shares the immutable formula of another one.
+   */
   public DimacsCnf(DimacsCnf cnf) {
-    this(cnf.orClauses, cnf.variables);
+    this(cnf.cnf);
+  }
+
+  public DimacsCnf(CompactCnf cnf) {
+    this.cnf = cnf;
   }
 
   public DimacsCnf(ArrayList<ArrayList<Variable>> orClauses) {
@@ -38,17 +49,21 @@ public class DimacsCnf {
   }
 
   public DimacsCnf(ArrayList<ArrayList<Variable>> orClauses, List<Variable> variables) {
-    this.variables = deepCopyVariablesList(variables);
-
-    this.orClauses = orClauses.stream()
-            .map(DimacsCnf::deepCopyVariablesList)
-            .collect(Collectors.toCollection(ArrayList::new));
+    var builder = new CompactCnf.Builder();
+    for (Variable variable : variables) {
+      builder.declareVariable(variable.number(), variable.name());
+    }
+    for (List<Variable> orClause : orClauses) {
+      for (Variable variable : orClause) {
+        builder.addLiteral(toLiteral(variable));
+      }
+      builder.endClause();
+    }
+    this.cnf = builder.build();
   }
 
-  private static ArrayList<Variable> deepCopyVariablesList(List<Variable> list) {
-    return list.stream()
-            .map(Variable::new)
-            .collect(Collectors.toCollection(ArrayList::new));
+  static int toLiteral(Variable variable) {
+    return variable.isNegated() ? -variable.number() : variable.number();
   }
 
   /**
@@ -73,7 +88,48 @@ public class DimacsCnf {
    * @return dimacs cnf structure
    */
   public static DimacsCnf fromDimacsCnfString(String dimacsCnf) throws ConversionException {
-    return StringToDimacsCnf.parse(dimacsCnf);
+    try {
+      return DimacsCnfParser.parse(new StringReader(dimacsCnf));
+    } catch (IOException e) {
+      // string readers don't fail
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Create a dimacs cnf structure by streaming dimacs cnf from a reader.
+   * The reader is not closed.
+   *
+   * @param dimacsCnf reader of dimacs cnf
+   * @return dimacs cnf structure
+   */
+  public static DimacsCnf fromDimacsCnf(Reader dimacsCnf)
+      throws IOException, ConversionException {
+    return DimacsCnfParser.parse(dimacsCnf);
+  }
+
+  /**
+   * Create a dimacs cnf structure by streaming dimacs cnf from a UTF-8 input stream.
+   * The stream is not closed.
+   *
+   * @param dimacsCnf input stream of dimacs cnf
+   * @return dimacs cnf structure
+   */
+  public static DimacsCnf fromDimacsCnf(InputStream dimacsCnf)
+      throws IOException, ConversionException {
+    return DimacsCnfParser.parse(dimacsCnf);
+  }
+
+  /**
+   * Create a dimacs cnf structure from the remaining UTF-8 bytes of a buffer.
+   * The position of the buffer is not changed.
+   *
+   * @param dimacsCnf buffer of dimacs cnf
+   * @return dimacs cnf structure
+   */
+  public static DimacsCnf fromDimacsCnf(ByteBuffer dimacsCnf)
+      throws IOException, ConversionException {
+    return DimacsCnfParser.parse(dimacsCnf);
   }
 
   /**
@@ -98,73 +154,137 @@ public class DimacsCnf {
 
   /**
    * Returns a list of variables.
-   * The negation state of the variables doesn't have any meaning.
+   * The variables are not negated, the negation state doesn't have any meaning.
    *
    * @return list of variables
    */
   public Collection<Variable> getVariables() {
+    var variables = new ArrayList<Variable>(cnf.getVariableCount());
+    for (int i = 0; i < cnf.getVariableCount(); i++) {
+      int variable = cnf.getVariable(i);
+      variables.add(new Variable(variable, cnf.getName(variable), false));
+    }
     return Collections.unmodifiableCollection(variables);
   }
 
+  /**
+   * Returns the formula in its compact form.
+   */
+  public CompactCnf getCompactCnf() {
+    return cnf;
+  }
+
   /**
    * Returns a list of or clauses.
+   * The clauses are created from the compact formula on every call, prefer
+   * {@link #getCompactCnf()} for large formulas.
    *
    * @return list of or clauses where the inner lists is an or clauses of variables
    */
   public ArrayList<ArrayList<Variable>> getOrClauses() {
+    var orClauses = new ArrayList<ArrayList<Variable>>(cnf.getClauseCount());
+    for (int clause = 0; clause < cnf.getClauseCount(); clause++) {
+      var orClause = new ArrayList<Variable>(cnf.getClauseEnd(clause) - cnf.getClauseStart(clause));
+      for (int i = cnf.getClauseStart(clause); i < cnf.getClauseEnd(clause); i++) {
+        int literal = cnf.getLiteral(i);
+        orClause.add(new Variable(Math.abs(literal), cnf.getName(Math.abs(literal)), literal < 0));
+      }
+      orClauses.add(orClause);
+    }
     return orClauses;
   }
 
-  public DimacsCnf addOrClause(ArrayList<Variable> orClause) {
-    var newOrClauses = new ArrayList<>(orClauses);
-    newOrClauses.add(orClause);
+  public int getOrClauseCount() {
+    return cnf.getClauseCount();
+  }
 
-    return new DimacsCnf(newOrClauses, Collections.unmodifiableList(variables));
+  /**
+   * Returns a formula with an additional or-clause.
+   * The clauses of this formula are shared, not copied, so adding a clause takes time in the size
+   * of the clauses added so far, not in the size of the formula.
+   */
+  public DimacsCnf addOrClause(ArrayList<Variable> orClause) {
+    return new DimacsCnf(cnf.withClause(orClause.stream()
+        .mapToInt(DimacsCnf::toLiteral)
+        .toArray()));
   }
 
   @Override
   public String toString() {
-    var builder = new StringBuilder();
+    var builder = new StringBuilder(cnf.getLiteralCount() * 4);
+    try {
+      writeTo(builder);
+    } catch (IOException e) {
+      // string builders don't fail
+      throw new UncheckedIOException(e);
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public void writeTo(Appendable out) throws IOException {
+    var writer = new DimacsWriter(out);
 
     // Add variable names as comment
-    addVariableComments(builder, variables);
+    addVariableComments(writer, cnf);
 
     // Add preamble problem line
     // Example for 3 clauses with 4 variables
     // p cnf 4 3
-    builder.append(PREAMBLE_START)
+    writer.append(PREAMBLE_START)
         .append(SEPARATOR)
         .append(CNF_IDENTIFIER)
         .append(SEPARATOR)
-        .append(variables.size())
+        .append(getHeaderVariableCount(cnf))
         .append(SEPARATOR)
-        .append(orClauses.size())
+        .append(cnf.getClauseCount())
         .append(LINE_SEPARATOR);
 
     // Add clauses
     // Example: 1 2 0
-    for (List<Variable> clause : orClauses) {
-      for (Variable variable : clause) {
-        builder.append(variable.toString());
-        builder.append(SEPARATOR);
+    for (int clause = 0; clause < cnf.getClauseCount(); clause++) {
+      for (int i = cnf.getClauseStart(clause); i < cnf.getClauseEnd(clause); i++) {
+        writer.append(cnf.getLiteral(i))
+            .append(SEPARATOR);
       }
 
-      builder.append(CLAUSE_END)
+      writer.append(CLAUSE_END)
           .append(LINE_SEPARATOR);
     }
 
-    return builder.toString();
+    writer.flush();
   }
 
-  static void addVariableComments(StringBuilder builder, Collection<Variable> variables) {
+  /**
+   * Returns the variable count of the header of a formula.
+   * Formulas whose variables are all named declare them by comments, so the header counts them,
+   * otherwise the header has to cover the largest variable number.
+   */
+  static int getHeaderVariableCount(CompactCnf cnf) {
+    if (cnf.getVariableCount() == 0) {
+      return cnf.getMaxVariable();
+    }
+    for (int i = 0; i < cnf.getVariableCount(); i++) {
+      if (cnf.getName(cnf.getVariable(i)) == null) {
+        return cnf.getMaxVariable();
+      }
+    }
+    return cnf.getVariableCount();
+  }
+
+  static void addVariableComments(DimacsWriter writer, CompactCnf cnf) throws IOException {
     // Add variable names comments like this
     // c 42 apple
-    for (Variable variable : variables) {
-      builder.append(COMMENT_START)
+    for (int i = 0; i < cnf.getVariableCount(); i++) {
+      int variable = cnf.getVariable(i);
+      if (cnf.getName(variable) == null) {
+        continue;
+      }
+      writer.append(COMMENT_START)
           .append(SEPARATOR)
-          .append(variable.number())
+          .append(variable)
           .append(SEPARATOR)
-          .append(variable.name())
+          .append(cnf.getName(variable))
           .append(LINE_SEPARATOR);
     }
   }
@@ -0,0 +1,324 @@
+package edu.kit.provideq.toolbox.format.cnf.dimacs;
+
+import edu.kit.provideq.toolbox.exception.ConversionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Parses DIMACS CNF in a single pass from a {@link Reader} into a {@link CompactCnf}.
+ *
+ * <p>The input is read in chunks and tokenized by hand, so only the names of variables are
+ * allocated. Tokens may be separated by any whitespace, and clauses may span several lines, they
+ * end with a {@code 0}. Comments of the form {@code c <number> <name>} name variables, other
+ * comments are ignored. A line starting with {@code %} ends the formula, as in the SATLIB
+ * benchmarks.
+ *
+ * <p>Variables are stored by their number, so numbers are checked against the variable count of
+ * the header before anything is allocated for them. Clauses must follow the header, and names
+ * that come before it are kept until it has been read.
+ */
+class DimacsCnfParser {
+  private static final int BUFFER_SIZE = 8192;
+  private static final int END = -1;
+
+  private final Reader reader;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  private int line = 1;
+
+  private final CompactCnf.Builder builder = new CompactCnf.Builder();
+  private final BitSet namedVariables = new BitSet();
+  private final BitSet usedVariables = new BitSet();
+  private final StringBuilder name = new StringBuilder();
+  private final List<VariableName> namesBeforeHeader = new ArrayList<>();
+  private int variableCount = -1;
+  private int clauseCount = -1;
+  private int parsedClauseCount;
+  private boolean clauseOpen;
+
+  private DimacsCnfParser(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Parses a formula from a reader, the reader is not closed.
+   */
+  public static DimacsCnf parse(Reader reader) throws IOException, ConversionException {
+    return new DimacsCnfParser(reader).parse();
+  }
+
+  public static DimacsCnf parse(InputStream in) throws IOException, ConversionException {
+    return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parses a formula from the remaining UTF-8 bytes of a buffer, the position of the buffer is
+   * not changed.
+   */
+  public static DimacsCnf parse(ByteBuffer bytes) throws IOException, ConversionException {
+    return parse(new ByteBufferInputStream(bytes.duplicate()));
+  }
+
+  private DimacsCnf parse() throws IOException, ConversionException {
+    int c;
+    while ((c = skipWhitespace()) != END) {
+      switch (c) {
+        case DimacsCnf.COMMENT_START -> {
+          position++;
+          parseComment();
+        }
+        case DimacsCnf.PREAMBLE_START -> {
+          position++;
+          parsePreamble();
+        }
+        case '%' -> {
+          // the rest of the input isn't part of the formula
+          finishClause();
+          return build();
+        }
+        default -> parseLiteral();
+      }
+    }
+
+    finishClause();
+    return build();
+  }
+
+  private void parseComment() throws IOException, ConversionException {
+    skipBlanks();
+    int number = peek() >= '0' && peek() <= '9' ? readNumber() : -1;
+    if (number < 0 || !isBlank(peek())) {
+      // a comment that doesn't name a variable
+      skipLine();
+      return;
+    }
+
+    skipBlanks();
+    name.setLength(0);
+    int c;
+    while ((c = peek()) != END && c != '\n' && c != '\r') {
+      name.append((char) c);
+      position++;
+    }
+    // names may contain spaces, but not at their end
+    int length = name.length();
+    while (length > 0 && isBlank(name.charAt(length - 1))) {
+      length--;
+    }
+    if (length == 0) {
+      return;
+    }
+
+    if (variableCount < 0) {
+      namesBeforeHeader.add(new VariableName(number, name.substring(0, length)));
+    } else {
+      nameVariable(number, name.substring(0, length));
+    }
+  }
+
+  private void nameVariable(int variable, String variableName) {
+    if (variable == 0 || variable > variableCount) {
+      // e.g. "c 2024 benchmark", not the name of a variable of this formula
+      return;
+    }
+
+    builder.nameVariable(variable, variableName);
+    namedVariables.set(variable);
+  }
+
+  private void parsePreamble() throws IOException, ConversionException {
+    skipBlanks();
+    for (int i = 0; i < DimacsCnf.CNF_IDENTIFIER.length(); i++) {
+      if (peek() != DimacsCnf.CNF_IDENTIFIER.charAt(i)) {
+        throw error("Expected Dimacs CNF identifier %s in header".formatted(
+            DimacsCnf.CNF_IDENTIFIER));
+      }
+      position++;
+    }
+
+    skipBlanks();
+    variableCount = readRequiredNumber("variable count");
+    skipBlanks();
+    clauseCount = readRequiredNumber("clause count");
+
+    for (VariableName variableName : namesBeforeHeader) {
+      nameVariable(variableName.variable(), variableName.name());
+    }
+    namesBeforeHeader.clear();
+  }
+
+  private void parseLiteral() throws IOException, ConversionException {
+    boolean negated = peek() == DimacsCnf.NEGATION_PREFIX;
+    if (negated) {
+      position++;
+    }
+    int variable = readRequiredNumber("literal");
+    int c = peek();
+    if (c != END && !isWhitespace(c)) {
+      throw error("Unexpected character '%c' in literal".formatted((char) c));
+    }
+
+    if (variable == 0) {
+      builder.endClause();
+      parsedClauseCount++;
+      clauseOpen = false;
+      return;
+    }
+
+    if (variableCount < 0) {
+      throw new ConversionException("Missing Dimacs CNF header");
+    }
+    if (variable > variableCount) {
+      throw new ConversionException(
+          "Count of variables in the header is %d, but variable %d is used".formatted(
+              variableCount, variable));
+    }
+
+    builder.addLiteral(negated ? -variable : variable);
+    usedVariables.set(variable);
+    clauseOpen = true;
+  }
+
+  private void finishClause() {
+    // tolerate a missing 0 after the last clause
+    if (clauseOpen) {
+      builder.endClause();
+      parsedClauseCount++;
+      clauseOpen = false;
+    }
+  }
+
+  private DimacsCnf build() throws ConversionException {
+    if (variableCount < 0) {
+      throw new ConversionException("Missing Dimacs CNF header");
+    }
+
+    // the header of formulas whose variables are all named counts them,
+    // otherwise it only needs to cover the largest variable, like the toolbox writes them
+    usedVariables.andNot(namedVariables);
+    boolean allVariablesNamed = !namedVariables.isEmpty() && usedVariables.isEmpty();
+    if (allVariablesNamed && variableCount != namedVariables.cardinality()) {
+      throw new ConversionException(
+          "Count of variables in the header is %d, but the actual count is %d".formatted(
+              variableCount, namedVariables.cardinality()));
+    }
+
+    if (clauseCount != parsedClauseCount) {
+      throw new ConversionException(
+          "Count of clauses in the header is %d, but the actual count is %d".formatted(
+              clauseCount, parsedClauseCount));
+    }
+
+    return new DimacsCnf(builder.build());
+  }
+
+  private int readRequiredNumber(String description) throws IOException, ConversionException {
+    int c = peek();
+    if (c < '0' || c > '9') {
+      throw error("Expected a number as %s, but found %s".formatted(description,
+          c == END ? "the end of the input" : "'" + (char) c + "'"));
+    }
+    return readNumber();
+  }
+
+  private int readNumber() throws IOException, ConversionException {
+    int number = 0;
+    int c;
+    while ((c = peek()) >= '0' && c <= '9') {
+      if (number > (Integer.MAX_VALUE - (c - '0')) / 10) {
+        throw error("Number is too large");
+      }
+      number = number * 10 + c - '0';
+      position++;
+    }
+    return number;
+  }
+
+  /**
+   * Skips whitespace including line breaks and returns the next character without consuming it.
+   */
+  private int skipWhitespace() throws IOException {
+    int c;
+    while ((c = peek()) != END && isWhitespace(c)) {
+      position++;
+      if (c == '\n') {
+        line++;
+      }
+    }
+    return c;
+  }
+
+  private void skipBlanks() throws IOException {
+    while (isBlank(peek())) {
+      position++;
+    }
+  }
+
+  private void skipLine() throws IOException {
+    int c;
+    while ((c = peek()) != END && c != '\n') {
+      position++;
+    }
+  }
+
+  private int peek() throws IOException {
+    if (position == limit) {
+      limit = reader.read(buffer, 0, buffer.length);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return END;
+      }
+    }
+    return buffer[position];
+  }
+
+  private static boolean isBlank(int c) {
+    return c == ' ' || c == '\t';
+  }
+
+  private static boolean isWhitespace(int c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+  }
+
+  private ConversionException error(String message) {
+    return new ConversionException("Line %d: %s".formatted(line, message));
+  }
+
+  private record VariableName(int variable, String name) {
+  }
+
+  /**
+   * Reads the remaining bytes of a buffer without copying them.
+   */
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer bytes;
+
+    private ByteBufferInputStream(ByteBuffer bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public int read() {
+      return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+      if (!bytes.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, bytes.remaining());
+      bytes.get(target, offset, count);
+      return count;
+    }
+  }
+}
@@ -1,104 +1,170 @@
 package edu.kit.provideq.toolbox.format.cnf.dimacs;
 
 import static edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf.CNF_IDENTIFIER;
+import static edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf.COMMENT_START;
 import static edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf.LINE_SEPARATOR;
-import static edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf.NEGATION_PREFIX;
 import static edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf.SEPARATOR;
-import static edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf.addVariableComments;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.IntConsumer;
 
-public class DimacsCnfSolution {
+/**
+ * An assignment of the variables of a {@link DimacsCnf}.
+ * Instances are immutable, so a solution can be shared by the solutions of identical requests.
+ */
+public final class DimacsCnfSolution implements DimacsWritable {
   public static final char SOLUTION_START = 's';
   public static final char VARIABLE_DECLARATION = 'v';
 
   private final DimacsCnf dimacsCnf;
 
   /**
-   * Unmodifiable mapping from a variable to its boolean state.
+   * The numbers of the variables that have a value.
    */
-  private final Map<Variable, Boolean> variableMap;
+  private final BitSet assigned;
+
+  /**
+   * The numbers of the variables that are true.
+   */
+  private final BitSet values;
 
   public DimacsCnfSolution(DimacsCnf dimacsCnf, Map<Variable, Boolean> variableMap) {
     this.dimacsCnf = dimacsCnf;
-    this.variableMap = Map.copyOf(variableMap);
+    this.assigned = new BitSet();
+    this.values = new BitSet();
+    variableMap.forEach((variable, value) -> {
+      assigned.set(variable.number());
+      values.set(variable.number(), value);
+    });
+  }
+
+  private DimacsCnfSolution(DimacsCnf dimacsCnf, BitSet assigned, BitSet values) {
+    this.dimacsCnf = dimacsCnf;
+    this.assigned = assigned;
+    this.values = values;
   }
 
   public static DimacsCnfSolution fromString(DimacsCnf dimacsCnf, String solutionString) {
-    Map<Integer, Boolean> variableMap = StringToDimacsCnfSolution.parse(solutionString);
-
-    Map<Variable, Boolean> namedVariableMap = dimacsCnf
-        .getVariables()
-        .stream()
-        .filter(v -> variableMap.containsKey(v.number()))
-        .collect(Collectors.toMap(
-            Function.identity(),
-            variable -> variableMap.get(variable.number())
-        ));
-
-    return new DimacsCnfSolution(dimacsCnf, namedVariableMap);
+    var assigned = new BitSet();
+    var values = new BitSet();
+    StringToDimacsCnfSolution.parse(solutionString, assigned, values);
+
+    // only keep the values of variables of the formula
+    var cnf = dimacsCnf.getCompactCnf();
+    var variables = new BitSet(cnf.getMaxVariable() + 1);
+    for (int i = 0; i < cnf.getVariableCount(); i++) {
+      variables.set(cnf.getVariable(i));
+    }
+    assigned.and(variables);
+    values.and(assigned);
+
+    return new DimacsCnfSolution(dimacsCnf, assigned, values);
   }
 
   /**
    * Return an unmodifiable mapping from a variable to its boolean state.
+   * The mapping is created on every call.
    *
    * @return unmodifiable map from a variable to the boolean state of the variable
    */
   public Map<Variable, Boolean> getVariableMapping() {
-    return variableMap;
+    var variableMap = new LinkedHashMap<Variable, Boolean>();
+    forEachAssignedVariable(variable -> variableMap.put(
+        new Variable(variable, dimacsCnf.getCompactCnf().getName(variable), false),
+        values.get(variable)));
+    return Collections.unmodifiableMap(variableMap);
   }
 
   public boolean isVoid() {
-    return variableMap.isEmpty();
+    return assigned.isEmpty();
+  }
+
+  /**
+   * Calls an action with the number of each variable that has a value, in the order of the
+   * variables of the formula.
+   */
+  private void forEachAssignedVariable(IntConsumer action) {
+    var cnf = dimacsCnf.getCompactCnf();
+    for (int i = 0; i < cnf.getVariableCount(); i++) {
+      int variable = cnf.getVariable(i);
+      if (assigned.get(variable)) {
+        action.accept(variable);
+      }
+    }
   }
 
   @Override
   public String toString() {
     var builder = new StringBuilder();
+    try {
+      writeTo(builder);
+    } catch (IOException e) {
+      // string builders don't fail
+      throw new UncheckedIOException(e);
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public void writeTo(Appendable out) throws IOException {
+    var writer = new DimacsWriter(out);
+    var cnf = dimacsCnf.getCompactCnf();
 
     // Add variable names as comment
-    addVariableComments(builder, variableMap.keySet());
+    // c 42 apple
+    for (int i = 0; i < cnf.getVariableCount(); i++) {
+      int variable = cnf.getVariable(i);
+      if (assigned.get(variable) && cnf.getName(variable) != null) {
+        writer.append(COMMENT_START)
+            .append(SEPARATOR)
+            .append(variable)
+            .append(SEPARATOR)
+            .append(cnf.getName(variable))
+            .append(LINE_SEPARATOR);
+      }
+    }
 
     // Add preamble
-    builder.append(SOLUTION_START)
+    writer.append(SOLUTION_START)
         .append(SEPARATOR)
         .append(CNF_IDENTIFIER)
         .append(SEPARATOR)
-        .append("1")
+        .append(1)
         .append(SEPARATOR)
-        .append(variableMap.size())
+        .append(assigned.cardinality())
         .append(SEPARATOR)
-        .append(dimacsCnf.getOrClauses().size())
+        .append(dimacsCnf.getOrClauseCount())
         .append(LINE_SEPARATOR);
 
     // Add variable declarations
-    for (Map.Entry<Variable, Boolean> variableBooleanEntry : variableMap.entrySet()) {
-
-      var number = variableBooleanEntry.getKey().number();
-      var variable = variableBooleanEntry.getValue()
-          ? number
-          : String.valueOf(NEGATION_PREFIX) + number;
-
-      builder.append(VARIABLE_DECLARATION)
-          .append(SEPARATOR)
-          .append(variable)
-          .append(LINE_SEPARATOR);
+    for (int i = 0; i < cnf.getVariableCount(); i++) {
+      int variable = cnf.getVariable(i);
+      if (assigned.get(variable)) {
+        writer.append(VARIABLE_DECLARATION)
+            .append(SEPARATOR)
+            .append(values.get(variable) ? variable : -variable)
+            .append(LINE_SEPARATOR);
+      }
     }
 
-    return builder.toString();
+    writer.flush();
   }
 
   public String toHumanReadableString() {
     var builder = new StringBuilder();
-
-    for (Map.Entry<Variable, Boolean> variableBooleanEntry : variableMap.entrySet()) {
-      builder.append(variableBooleanEntry.getKey().name())
-          .append(": ")
-          .append(variableBooleanEntry.getValue())
-          .append(LINE_SEPARATOR);
-    }
+    var cnf = dimacsCnf.getCompactCnf();
+
+    // unnamed variables are shown by their number
+    forEachAssignedVariable(variable -> builder
+        .append(cnf.getName(variable) != null ? cnf.getName(variable) : String.valueOf(variable))
+        .append(": ")
+        .append(values.get(variable))
+        .append(LINE_SEPARATOR));
 
     return builder.toString();
   }
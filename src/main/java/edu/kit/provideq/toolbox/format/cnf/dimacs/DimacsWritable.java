@@ -0,0 +1,33 @@
+package edu.kit.provideq.toolbox.format.cnf.dimacs;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A structure that can be written in a DIMACS format chunk by chunk, without building the whole
+ * text in memory first.
+ */
+public interface DimacsWritable {
+  /**
+   * Writes the DIMACS text to an appendable.
+   * The text is passed on in chunks of a few kilobytes.
+   *
+   * @throws IOException when the appendable couldn't be written to.
+   */
+  void writeTo(Appendable out) throws IOException;
+
+  /**
+   * Writes the DIMACS text UTF-8 encoded to a channel, the channel is not closed.
+   *
+   * @throws IOException when the channel couldn't be written to.
+   */
+  default void writeTo(WritableByteChannel channel) throws IOException {
+    Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+    writeTo(writer);
+    // the writer only buffers, closing it would close the channel
+    writer.flush();
+  }
+}
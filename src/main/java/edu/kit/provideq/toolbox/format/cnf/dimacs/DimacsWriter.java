@@ -0,0 +1,90 @@
+package edu.kit.provideq.toolbox.format.cnf.dimacs;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Collects DIMACS text in a fixed buffer and passes it on to an appendable chunk by chunk.
+ * Numbers are written digit by digit, so writing a literal doesn't allocate.
+ * Chunks are only cut between tokens, so surrogate pairs of names are never split.
+ */
+class DimacsWriter {
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * The maximum number of chars of an int, including its sign.
+   */
+  private static final int MAX_NUMBER_LENGTH = 11;
+
+  private final Appendable out;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int length;
+
+  DimacsWriter(Appendable out) {
+    this.out = out;
+  }
+
+  DimacsWriter append(char c) throws IOException {
+    ensureCapacity(1);
+    buffer[length++] = c;
+    return this;
+  }
+
+  DimacsWriter append(int number) throws IOException {
+    ensureCapacity(MAX_NUMBER_LENGTH);
+    if (number < 0) {
+      buffer[length++] = DimacsCnf.NEGATION_PREFIX;
+    }
+
+    // write the digits backwards and reverse them, negative remainders also cover MIN_VALUE
+    int start = length;
+    do {
+      buffer[length++] = (char) ('0' + Math.abs(number % 10));
+      number /= 10;
+    } while (number != 0);
+    for (int i = start, j = length - 1; i < j; i++, j--) {
+      char digit = buffer[i];
+      buffer[i] = buffer[j];
+      buffer[j] = digit;
+    }
+    return this;
+  }
+
+  DimacsWriter append(String text) throws IOException {
+    if (text.length() > buffer.length) {
+      flush();
+      out.append(text);
+      return this;
+    }
+
+    ensureCapacity(text.length());
+    text.getChars(0, text.length(), buffer, length);
+    length += text.length();
+    return this;
+  }
+
+  /**
+   * Passes the buffered text on to the appendable.
+   */
+  void flush() throws IOException {
+    if (length == 0) {
+      return;
+    }
+
+    if (out instanceof Writer writer) {
+      writer.write(buffer, 0, length);
+    } else if (out instanceof StringBuilder builder) {
+      builder.append(buffer, 0, length);
+    } else {
+      out.append(CharBuffer.wrap(buffer, 0, length));
+    }
+    length = 0;
+  }
+
+  private void ensureCapacity(int count) throws IOException {
+    if (length + count > buffer.length) {
+      flush();
+    }
+  }
+}
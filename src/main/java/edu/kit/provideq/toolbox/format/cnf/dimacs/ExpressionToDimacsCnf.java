@@ -5,83 +5,66 @@ import com.bpodgursky.jbool_expressions.Expression;
 import com.bpodgursky.jbool_expressions.Not;
 import com.bpodgursky.jbool_expressions.Or;
 import edu.kit.provideq.toolbox.exception.ConversionException;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 
 class ExpressionToDimacsCnf {
   private int nextVariable = 1;
-  private final HashMap<String, Variable> parsedVariables = new HashMap<>();
+  private final HashMap<String, Integer> parsedVariables = new HashMap<>();
 
   public DimacsCnf parse(Expression<String> cnfExpression) throws ConversionException {
     parsedVariables.clear();
     nextVariable = 1;
 
-    var clauses = new ArrayList<ArrayList<Variable>>();
+    var builder = new CompactCnf.Builder();
 
     if (cnfExpression.getExprType().equals(And.EXPR_TYPE)) {
       // Parse AND of multiple expressions
       for (Expression<String> child : cnfExpression.getChildren()) {
         // Parse single expression
-        clauses.add(parseClause(child));
+        parseClause(builder, child);
       }
     } else {
       // Parse single expression
-      clauses.add(parseClause(cnfExpression));
+      parseClause(builder, cnfExpression);
     }
 
-    var variables = parsedVariables.values().stream().toList();
+    parsedVariables.forEach((name, number) -> builder.declareVariable(number, name));
 
-    return new DimacsCnf(clauses, variables);
+    return new DimacsCnf(builder.build());
   }
 
-  ArrayList<Variable> parseClause(Expression<String> expression) throws ConversionException {
-    var variables = new ArrayList<Variable>();
-    addVariables(variables, expression);
-
-    return variables;
+  void parseClause(CompactCnf.Builder builder, Expression<String> expression)
+      throws ConversionException {
+    addLiterals(builder, expression);
+    builder.endClause();
   }
 
-  void addVariables(List<Variable> variables, Expression<String> e) throws ConversionException {
+  void addLiterals(CompactCnf.Builder builder, Expression<String> e) throws ConversionException {
     // Expression can be a (negated) variable or an OR of multiple variables
-    // Add parsed variables to list
+    // Add parsed literals to the current clause
 
     switch (e.getExprType()) {
       case Or.EXPR_TYPE -> {
         for (Expression<String> child : e.getChildren()) {
-          addVariables(variables, child);
+          addLiterals(builder, child);
         }
       }
       case Not.EXPR_TYPE -> {
         var name =
             ((com.bpodgursky.jbool_expressions.Variable<String>) e.getChildren().get(0)).getValue();
-        variables.add(getVariable(name, true));
+        builder.addLiteral(-getVariable(name));
       }
       case com.bpodgursky.jbool_expressions.Variable.EXPR_TYPE -> {
         var name = ((com.bpodgursky.jbool_expressions.Variable<String>) e).getValue();
-        variables.add(getVariable(name, false));
+        builder.addLiteral(getVariable(name));
       }
       default -> throw new ConversionException("Unexpected expression of type " + e.getExprType()
           + " when adding variables " + e);
     }
   }
 
-  Variable getVariable(String name, boolean isNegated) {
-    // Try to get variable from parsed variables
-    Variable var = parsedVariables.get(name);
-    if (var == null) {
-      // If variable is not parsed yet, create new variable
-      var = new Variable(nextVariable, name, isNegated);
-      nextVariable++;
-
-      // Add variable to parsed variables - the negation state doesn't matter here
-      parsedVariables.put(name, var);
-
-      // Return the new variable
-      return var;
-    }
-
-    // Otherwise, return variable with correct negation state
-    return new Variable(var.number(), name, isNegated);
+  int getVariable(String name) {
+    // Try to get variable from parsed variables, otherwise create a new variable
+    return parsedVariables.computeIfAbsent(name, newName -> nextVariable++);
   }
 }
@@ -1,12 +1,16 @@
 package edu.kit.provideq.toolbox.format.cnf.dimacs;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.BitSet;
 
 class StringToDimacsCnfSolution {
-  public static Map<Integer, Boolean> parse(String solutionString) {
-    var variableMap = new HashMap<Integer, Boolean>();
-
+  /**
+   * Parses the variable declarations of a solution.
+   *
+   * @param solutionString the solution in DIMACS format.
+   * @param assigned       the numbers of the declared variables are set in this set.
+   * @param values         the numbers of the variables that are declared true are set in this set.
+   */
+  public static void parse(String solutionString, BitSet assigned, BitSet values) {
     solutionString
         .lines()
         .map(line -> line.split(String.valueOf(DimacsCnf.SEPARATOR)))
@@ -15,10 +19,9 @@ class StringToDimacsCnfSolution {
             // Parse variable declaration
             var number = Integer.parseInt(lineSegment[1]);
 
-            variableMap.put(Math.abs(number), number >= 0);
+            assigned.set(Math.abs(number));
+            values.set(Math.abs(number), number >= 0);
           }
         });
-
-    return variableMap;
   }
 }
@@ -48,6 +48,8 @@ public class CirqMaxCutSolver extends MaxCutSolver {
         "max_cut_cirq.py")
         .addProblemFilePathToProcessCommand()
         .addSolutionFilePathToProcessCommand()
+        .pipeTransport()
+        .cancellationToken(subRoutinePool.getCancellationToken())
         .run(problem.type(), solution.getId(), problem.problemData());
 
     if (!processResult.success()) {
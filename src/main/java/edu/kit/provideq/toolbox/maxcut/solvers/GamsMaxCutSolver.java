@@ -33,6 +33,11 @@ public class GamsMaxCutSolver extends MaxCutSolver {
     return "GAMS MaxCut";
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return true;
+  }
+
   @Override
   public boolean canSolve(Problem<String> problem) {
     //TODO: assess problemData
@@ -48,6 +53,7 @@ public class GamsMaxCutSolver extends MaxCutSolver {
             GamsProcessRunner.class,
             maxCutPath,
             "maxcut.gms")
+        .cancellationToken(subRoutinePool.getCancellationToken())
         .run(problem.type(), solution.getId(), problem.problemData());
 
     // Return if process failed
@@ -63,6 +63,8 @@ public class QiskitMaxCutSolver extends MaxCutSolver {
             "maxCut_qiskit.py")
         .addProblemFilePathToProcessCommand()
         .addSolutionFilePathToProcessCommand()
+        .pipeTransport()
+        .cancellationToken(subRoutinePool.getCancellationToken())
         .run(problem.type(), solution.getId(), problem.problemData());
 
     // Return if process failed
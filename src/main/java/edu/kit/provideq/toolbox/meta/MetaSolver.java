@@ -1,21 +1,40 @@
 package edu.kit.provideq.toolbox.meta;
 
+import edu.kit.provideq.toolbox.BlobStore;
+import edu.kit.provideq.toolbox.CancellationToken;
+import edu.kit.provideq.toolbox.ResultCache;
 import edu.kit.provideq.toolbox.Solution;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
 import edu.kit.provideq.toolbox.SolutionManager;
+import edu.kit.provideq.toolbox.SolutionStatus;
+import edu.kit.provideq.toolbox.SolutionStore;
 import edu.kit.provideq.toolbox.SolveRequest;
+import edu.kit.provideq.toolbox.SolveScheduler;
 import edu.kit.provideq.toolbox.SubRoutinePool;
 import edu.kit.provideq.toolbox.meta.setting.MetaSolverSetting;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 
 /**
  * Decides which known {@link ProblemSolver} is suited best for a given problem,
  * manages known solvers.
  *
+ * <p>The solution data of deterministic solvers is shared between the solutions of identical
+ * requests and the {@link ResultCache}, so solvers must not modify it once it is set.
+ *
  * @param <ProblemT> the type of the problem input of {@link ProblemSolver}
  * @param <SolutionT> the type of the solution output of {@link ProblemSolver}
  * @param <SolverT> the type of {@link ProblemSolver} this metasolver is to manage
@@ -25,8 +44,23 @@ public abstract class MetaSolver<
         SolutionT,
         SolverT extends ProblemSolver<ProblemT, SolutionT>> {
 
-  private final SolutionManager<SolutionT> solutionManager = new SolutionManager<>();
+  private SolutionManager<SolutionT> solutionManager;
+  /**
+   * Cancellation tokens of all solving processes started by {@link #solveAsync(SolveRequest)}
+   * that haven't finished yet, by the id of their solution.
+   */
+  private final Map<Long, CancellationToken> cancellationTokens = new ConcurrentHashMap<>();
+
+  /**
+   * Solving processes of deterministic solvers that are running right now, by the
+   * {@link ResultCache#computeKey(ProblemType, String, SolveRequest) key} of their requests.
+   * They complete with their solution once the solver is done.
+   */
+  private final Map<String, CompletableFuture<Solution<SolutionT>>> inFlight =
+      new ConcurrentHashMap<>();
   private ApplicationContext context;
+  private SolveScheduler solveScheduler;
+  private ResultCache resultCache;
 
   protected Set<SolverT> solvers = new HashSet<>();
   private final ProblemType problemType;
@@ -39,6 +73,7 @@ public abstract class MetaSolver<
   public MetaSolver(ProblemType problemType, SolverT... problemSolvers) {
     solvers.addAll(List.of(problemSolvers));
     this.problemType = problemType;
+    this.solutionManager = new SolutionManager<>(problemType);
   }
 
   @Autowired
@@ -46,6 +81,40 @@ public abstract class MetaSolver<
     this.context = context;
   }
 
+  @Autowired
+  public void setSolveScheduler(SolveScheduler solveScheduler) {
+    this.solveScheduler = solveScheduler;
+  }
+
+  /**
+   * Sets the cache for results of deterministic solvers, results aren't cached without it.
+   */
+  @Autowired(required = false)
+  public void setResultCache(ResultCache resultCache) {
+    this.resultCache = resultCache;
+  }
+
+  /**
+   * Configures when the solutions of this meta solver are evicted from memory and where they are
+   * persisted.
+   *
+   * @param idGenerator       generates the ids of new solutions.
+   * @param timeToLiveMinutes how long completed solutions are kept in memory.
+   * @param maxCount          how many completed solutions are kept in memory at most.
+   * @param solutionStore     the store to persist solutions in, if there is one.
+   */
+  @Autowired
+  public void configureSolutionManager(
+      SolutionIdGenerator idGenerator,
+      @Value("${solutions.ttl-minutes}") long timeToLiveMinutes,
+      @Value("${solutions.max-count}") int maxCount,
+      Optional<SolutionStore> solutionStore,
+      Optional<BlobStore> blobStore) {
+    this.solutionManager = new SolutionManager<>(problemType, idGenerator,
+        Duration.ofMinutes(timeToLiveMinutes), maxCount, solutionStore.orElse(null),
+        blobStore.orElse(null));
+  }
+
   /**
    * Provides the best suited known solver this meta solver is aware of for a given problem.
    *
@@ -97,33 +166,325 @@ public abstract class MetaSolver<
     return solutionManager;
   }
 
+  /**
+   * Schedules solving a given {@link SolveRequest} on the {@link SolveScheduler} according to its
+   * priority and returns the solution immediately.
+   * The returned solution has the status {@link edu.kit.provideq.toolbox.SolutionStatus#COMPUTING}
+   * until the solving process is done and can be polled through the {@link SolutionManager}.
+   * Requests with a cached result are answered right away, see {@link #solveFromCache}.
+   *
+   * @throws RejectedExecutionException when the solve job queue is full.
+   */
+  public Solution<SolutionT> solveAsync(SolveRequest<ProblemT> request) {
+    Optional<Solution<SolutionT>> cachedSolution = solveFromCache(request);
+    if (cachedSolution.isPresent()) {
+      return cachedSolution.get();
+    }
+
+    Solution<SolutionT> solution = this.getSolutionManager().createSolution();
+    var cancellationToken = new CancellationToken();
+    cancellationTokens.put(solution.getId(), cancellationToken);
+
+    int priority = request.priority == null ? 0 : request.priority;
+    // solver work that is left after waiting for an identical request is scheduled again
+    Executor solverExecutor = task ->
+        solveScheduler.submit(getProblemType(), priority, solution, task);
+    try {
+      solverExecutor.execute(() -> solve(request, solution, cancellationToken, solverExecutor)
+          .whenComplete((result, exception) -> {
+            cancellationTokens.remove(solution.getId());
+            getSolutionManager().compactData(solution);
+            getSolutionManager().persistSolution(solution);
+          }));
+    } catch (RejectedExecutionException e) {
+      // the request is rejected as a whole, so nobody will ask for this solution
+      cancellationTokens.remove(solution.getId());
+      getSolutionManager().removeSolution(solution.getId());
+      throw e;
+    }
+
+    return solution;
+  }
+
+  /**
+   * Answers a {@link SolveRequest} with the cached result of an identical request, without
+   * scheduling a solving process. Only results of deterministic solvers are cached, see
+   * {@link ResultCache}.
+   *
+   * @return the finished solution, or an empty optional if the request has to be solved.
+   */
+  public Optional<Solution<SolutionT>> solveFromCache(SolveRequest<ProblemT> request) {
+    if (resultCache == null || Boolean.FALSE.equals(request.useCachedResult)) {
+      return Optional.empty();
+    }
+
+    SolverT solver;
+    try {
+      solver = this
+          .getSolver(request.requestedSolverId)
+          .orElseGet(() -> this.findSolver(
+              new Problem<>(request.requestContent, this.getProblemType()),
+              request.requestedMetaSolverSettings));
+    } catch (RuntimeException e) {
+      // the solving process reports this error
+      return Optional.empty();
+    }
+    if (solver == null || !solver.isDeterministic()) {
+      return Optional.empty();
+    }
+
+    Optional<Solution<SolutionT>> cachedSolution = ResultCache
+        .computeKey(getProblemType(), solver.getId(), request)
+        .flatMap(key -> resultCache.restore(getProblemType(), key, () -> {
+          Solution<SolutionT> solution = getSolutionManager().createSolution();
+          solution.setSolverName(solver.getName());
+          return solution;
+        }));
+    cachedSolution.ifPresent(solution -> {
+      solution.finish();
+      // persisting blocks on I/O, which the caller might not be allowed to do
+      solveScheduler.getCompletionExecutor().execute(() -> {
+        getSolutionManager().compactData(solution);
+        getSolutionManager().persistSolution(solution);
+      });
+    });
+    return cachedSolution;
+  }
+
+  /**
+   * Cancels a solving process that was started by {@link #solveAsync(SolveRequest)}.
+   * A waiting solving process is removed from the queue, a running solving process has its solver
+   * processes killed and won't make any further sub-routine calls.
+   *
+   * @param solutionId the id of the solution that is computed by the solving process.
+   * @return the cancelled solution, or an empty optional if there is no solution with this id.
+   */
+  public Optional<Solution<SolutionT>> cancel(long solutionId) {
+    Solution<SolutionT> solution = getSolutionManager().getSolution(solutionId);
+    if (solution == null) {
+      return Optional.empty();
+    }
+
+    // cancel the solution first, so the solver doesn't report the killed processes as errors
+    solution.cancel();
+    if (solveScheduler.cancel(getProblemType(), solution)) {
+      // the solving process never started, so it won't finish and persist the solution itself
+      solution.finish();
+      getSolutionManager().persistSolution(solution);
+    }
+
+    var cancellationToken = cancellationTokens.remove(solutionId);
+    if (cancellationToken != null) {
+      cancellationToken.cancel();
+    }
+
+    return Optional.of(solution);
+  }
+
   /**
    * Solves a given {@link SolveRequest} by using either the requested {@link ProblemSolver}
    * (if specified) or the solver recommended by {@link #findSolver(Problem, List)}, and returns
    * the solution.
+   * The solving process runs on the calling thread, use {@link #solveAsync(SolveRequest)} to avoid
+   * blocking it.
    */
   public Solution<SolutionT> solve(SolveRequest<ProblemT> request) {
+    return solve(request, new CancellationToken());
+  }
+
+  /**
+   * Solves a given {@link SolveRequest} like {@link #solve(SolveRequest)} as a part of a solving
+   * process that can be cancelled through the given {@code cancellationToken}.
+   */
+  public Solution<SolutionT> solve(SolveRequest<ProblemT> request,
+                                   CancellationToken cancellationToken) {
     Solution<SolutionT> solution = this.getSolutionManager().createSolution();
+
+    // solver work that is left after waiting for an identical request runs on this thread, too
+    var solverWork = new LinkedBlockingQueue<Runnable>();
+    CompletableFuture<Void> solved = solve(request, solution, cancellationToken, solverWork::add);
+    solved.whenComplete((result, exception) -> solverWork.add(() -> {}));
+    while (!solved.isDone()) {
+      try {
+        solverWork.take().run();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        solution.cancel();
+        solution.finish();
+        break;
+      }
+    }
+
+    return solution;
+  }
+
+  /**
+   * Solves a given {@link SolveRequest}.
+   * The returned future completes once the solution is finished, which happens asynchronously if
+   * the request waits for an identical request.
+   *
+   * @param solverExecutor runs the solver if an identical request it waited for failed.
+   */
+  private CompletableFuture<Void> solve(SolveRequest<ProblemT> request,
+                                        Solution<SolutionT> solution,
+                                        CancellationToken parentCancellationToken,
+                                        Executor solverExecutor) {
+    // sub-routine calls can't exceed the time budget of the request that calls them
+    CancellationToken cancellationToken = request.timeoutMilliseconds == null
+        ? parentCancellationToken
+        : parentCancellationToken.createChild(Duration.ofMillis(request.timeoutMilliseconds));
+
+    if (cancellationToken.isCancelled()) {
+      solution.cancel();
+      solution.finish();
+      return CompletableFuture.completedFuture(null);
+    }
+    if (cancellationToken.isTimedOut()) {
+      solution.timeOut();
+      solution.finish();
+      return CompletableFuture.completedFuture(null);
+    }
+
     Problem<ProblemT> problem = new Problem<>(request.requestContent, this.getProblemType());
 
-    SolverT solver = this
-            .getSolver(request.requestedSolverId)
-            .orElseGet(() -> this.findSolver(problem, request.requestedMetaSolverSettings));
+    long start = System.currentTimeMillis();
+    CompletableFuture<Void> solved;
+    try {
+      SolverT solver = this
+              .getSolver(request.requestedSolverId)
+              .orElseGet(() -> this.findSolver(problem, request.requestedMetaSolverSettings));
+
+      solution.setSolverName(solver.getName());
+
+      Optional<String> key = solver.isDeterministic()
+          ? ResultCache.computeKey(getProblemType(), solver.getId(), request)
+          : Optional.empty();
+      if (key.isPresent()) {
+        solved = solveDeterministic(solver, problem, request, solution, cancellationToken,
+            key.get(), solverExecutor);
+      } else {
+        solveWithSolver(solver, problem, request, solution, cancellationToken);
+        solved = CompletableFuture.completedFuture(null);
+      }
+    } catch (RuntimeException e) {
+      solved = CompletableFuture.failedFuture(e);
+    }
+
+    return solved.handle((result, exception) -> {
+      long finish = System.currentTimeMillis();
+
+      if (exception != null) {
+        // solving might happen asynchronously, so nobody else would report this error
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+            ? exception.getCause()
+            : exception;
+        solution.setDebugData("Solving the %s problem resulted in an exception:%n%s".formatted(
+            getProblemType(), cause));
+        solution.fail();
+      }
+
+      // solvers report processes that were killed by the watchdog or a cancellation as errors
+      if (solution.getStatus() == SolutionStatus.ERROR && cancellationToken.isCancelled()) {
+        solution.setStatus(SolutionStatus.CANCELLED);
+      } else if (solution.getStatus() == SolutionStatus.ERROR && cancellationToken.isTimedOut()) {
+        solution.setStatus(SolutionStatus.TIMED_OUT);
+      }
+
+      solution.setExecutionMilliseconds(finish - start);
+      solution.finish();
+      return null;
+    });
+  }
+
+  /**
+   * Solves a request with a deterministic solver, unless its result is already known.
+   * The result is taken from the result cache or, if an identical request is being solved right
+   * now, from that request once it is done. Otherwise, the solver is started and identical
+   * requests wait for its result instead of starting solvers of their own.
+   * Waiting requests don't occupy a thread, they are completed by the request they wait for or
+   * by their cancellation token, whichever comes first.
+   */
+  private CompletableFuture<Void> solveDeterministic(SolverT solver, Problem<ProblemT> problem,
+                                                     SolveRequest<ProblemT> request,
+                                                     Solution<SolutionT> solution,
+                                                     CancellationToken cancellationToken,
+                                                     String key, Executor solverExecutor) {
+    boolean useCachedResult = !Boolean.FALSE.equals(request.useCachedResult);
+    if (useCachedResult && resultCache != null
+        && resultCache.restore(getProblemType(), key, solution)) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    var flight = new CompletableFuture<Solution<SolutionT>>();
+    var runningFlight = inFlight.putIfAbsent(key, flight);
+    if (runningFlight == null || !useCachedResult) {
+      try {
+        solveWithSolver(solver, problem, request, solution, cancellationToken);
+        if (resultCache != null) {
+          resultCache.store(getProblemType(), key, solution);
+        }
+      } finally {
+        if (runningFlight == null) {
+          inFlight.remove(key, flight);
+          flight.complete(solution);
+        }
+      }
+      return CompletableFuture.completedFuture(null);
+    }
 
-    solution.setSolverName(solver.getName());
+    // the completing thread is the solver thread of the other request or the thread that stops
+    // this one, so persisting this solution is left to the completion threads
+    return follow(runningFlight, cancellationToken).thenComposeAsync(runningSolution -> {
+      if (runningSolution == null) {
+        if (cancellationToken.isTimedOut()) {
+          solution.timeOut();
+        } else {
+          solution.cancel();
+        }
+        return CompletableFuture.completedFuture(null);
+      }
+      if (runningSolution.getStatus() == SolutionStatus.SOLVED) {
+        // solution data is immutable, so both solutions can share it
+        solution.setSolutionData(runningSolution.getSolutionData());
+        solution.setDebugData(runningSolution.getDebugData());
+        solution.setMetaData(runningSolution.getMetaData());
+        solution.complete();
+        return CompletableFuture.completedFuture(null);
+      }
 
+      // the other request failed or has been stopped by its own client, so try again
+      return CompletableFuture
+          .supplyAsync(() -> solveDeterministic(solver, problem, request, solution,
+              cancellationToken, key, solverExecutor), solverExecutor)
+          .thenCompose(retried -> retried);
+    }, solveScheduler.getCompletionExecutor());
+  }
+
+  private void solveWithSolver(SolverT solver, Problem<ProblemT> problem,
+                               SolveRequest<ProblemT> request, Solution<SolutionT> solution,
+                               CancellationToken cancellationToken) {
     SubRoutinePool subRoutinePool =
             request.requestedSubSolveRequests == null
                     ? context.getBean(SubRoutinePool.class)
                     : context.getBean(SubRoutinePool.class, request.requestedSubSolveRequests);
+    subRoutinePool.setCancellationToken(cancellationToken);
 
-    long start = System.currentTimeMillis();
     solver.solve(problem, solution, subRoutinePool);
-    long finish = System.currentTimeMillis();
-
-    solution.setExecutionMilliseconds(finish - start);
+  }
 
-    return solution;
+  /**
+   * Follows the solving process of another request without blocking.
+   *
+   * @return a future that completes with the solution of the other solving process once it is
+   *     done, or with null once this solving process has been stopped, whichever comes first.
+   */
+  private static <S> CompletableFuture<Solution<S>> follow(CompletableFuture<Solution<S>> flight,
+                                                         CancellationToken cancellationToken) {
+    var followed = new CompletableFuture<Solution<S>>();
+    Runnable removeStopListener = cancellationToken.addStopListener(() -> followed.complete(null));
+    flight.thenAccept(followed::complete);
+    followed.thenRun(removeStopListener);
+    return followed;
   }
 
   public abstract List<ProblemT> getExampleProblems();
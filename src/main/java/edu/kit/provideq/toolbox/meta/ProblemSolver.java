@@ -35,6 +35,17 @@ public interface ProblemSolver<ProblemT, SolutionT> {
     return Collections.emptyList();
   }
 
+  /**
+   * Returns whether the solver always computes the same result for the same problem and
+   * sub-routine requests. Results of deterministic solvers are cached, so solving the same problem
+   * again returns right away.
+   *
+   * @return true if the solver is deterministic, false otherwise
+   */
+  default boolean isDeterministic() {
+    return false;
+  }
+
   /**
    * Simple true-false-check,
    * {@code true}: given {@link Problem} can be solved with this solver,
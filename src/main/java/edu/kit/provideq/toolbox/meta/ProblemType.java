@@ -15,14 +15,14 @@ public enum ProblemType {
    * A satisfiability problem:
    * For a given boolean formula, check if there is an interpretation that satisfies the formula.
    */
-  SAT("sat", SolveSatRequest.class),
+  SAT("sat", 0, SolveSatRequest.class),
 
   /**
    * An optimization problem:
    * For a given graph, find the optimal separation of vertices that maximises the cut crossing edge
    * weight sum.
    */
-  MAX_CUT("max-cut", SolveMaxCutRequest.class),
+  MAX_CUT("max-cut", 1, SolveMaxCutRequest.class),
 
   /**
    * A searching problem:
@@ -31,7 +31,8 @@ public enum ProblemType {
    * @see <a href="https://sdq.kastel.kit.edu/publications/pdfs/kowal2016b.pdf">
    *      "Explaining Anomalies in Feature Models", Kowal et al., 2026</a>
    */
-  FEATURE_MODEL_ANOMALY_DEAD("feature-model-anomaly-dead", SolveFeatureModelRequest.class),
+  FEATURE_MODEL_ANOMALY_DEAD("feature-model-anomaly-dead", 2,
+      SolveFeatureModelRequest.class),
   /**
    * A searching problem:
    * For a given feature model, check if the model is void.
@@ -39,20 +40,23 @@ public enum ProblemType {
    * @see <a href="https://sdq.kastel.kit.edu/publications/pdfs/kowal2016b.pdf">
    *      "Explaining Anomalies in Feature Models", Kowal et al., 2026</a>
    */
-  FEATURE_MODEL_ANOMALY_VOID("feature-model-anomaly-void", SolveFeatureModelRequest.class),
+  FEATURE_MODEL_ANOMALY_VOID("feature-model-anomaly-void", 3,
+      SolveFeatureModelRequest.class),
   /**
    * QUBO (Quadratic Unconstrained Binary Optimization)
    * A combinatorial optimization problem.
    * For a given quadratic term with binary decision variables,
    * find the minimal variable assignment of the term.
    */
-  QUBO("qubo", SolveQuboRequest.class);
+  QUBO("qubo", 4, SolveQuboRequest.class);
 
   private final String id;
+  private final int code;
   private final Class<? extends SolveRequest<?>> requestType;
 
-  ProblemType(String id, Class<? extends SolveRequest<?>> requestType) {
+  ProblemType(String id, int code, Class<? extends SolveRequest<?>> requestType) {
     this.id = id;
+    this.code = code;
     this.requestType = requestType;
   }
 
@@ -64,6 +68,15 @@ public enum ProblemType {
     return id;
   }
 
+  /**
+   * Returns a unique number for this problem type, which is encoded in solution ids.
+   * Solution ids outlive the server process, so the code of a problem type must never change and
+   * the codes of removed problem types must not be reused.
+   */
+  public int getCode() {
+    return code;
+  }
+
   /**
    * Returns the java class representing the body of a REST request to solve a problem of this type.
    */
@@ -47,7 +47,9 @@ public class QiskitQuboSolver extends QuboSolver {
             "qubo_qiskit.py")
         .addProblemFilePathToProcessCommand()
         .addSolutionFilePathToProcessCommand()
+        .pipeTransport()
         .problemFileName("problem.lp")
+        .cancellationToken(subRoutinePool.getCancellationToken())
         .run(problem.type(), solution.getId(), problem.problemData());
 
     // Return if process failed
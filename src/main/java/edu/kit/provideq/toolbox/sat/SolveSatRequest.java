@@ -5,6 +5,8 @@ import edu.kit.provideq.toolbox.SolveRequest;
 /**
  * POST Requests to /solve/sat should have a request body of this form.
  * The needed formula is the SAT formula to solve in the DIMACS SAT format.
+ * Large formulas can be uploaded to {@code /instances/sat} or be kept in the local instance
+ * library instead, the formula is then {@code instance:<name>}.
  */
 public class SolveSatRequest extends SolveRequest<String> {
   public SolveSatRequest() {
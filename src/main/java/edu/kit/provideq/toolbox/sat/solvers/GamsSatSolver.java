@@ -1,6 +1,8 @@
 package edu.kit.provideq.toolbox.sat.solvers;
 
 import edu.kit.provideq.toolbox.GamsProcessRunner;
+import edu.kit.provideq.toolbox.InstanceLibrary;
+import edu.kit.provideq.toolbox.ProcessResult;
 import edu.kit.provideq.toolbox.Solution;
 import edu.kit.provideq.toolbox.SubRoutinePool;
 import edu.kit.provideq.toolbox.exception.ConversionException;
@@ -8,6 +10,8 @@ import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf;
 import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnfSolution;
 import edu.kit.provideq.toolbox.meta.Problem;
 import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.io.IOException;
+import java.nio.file.Path;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
@@ -15,18 +19,23 @@ import org.springframework.stereotype.Component;
 
 /**
  * {@link ProblemType#SAT} solver using a GAMS implementation.
+ * Instances of the {@link InstanceLibrary} are parsed from their memory-mapped files and GAMS
+ * reads their files directly. Shared formulas are written to GAMS without building their text.
  */
 @Component
 public class GamsSatSolver extends SatSolver {
   private final String satPath;
   private final ApplicationContext context;
+  private final InstanceLibrary instanceLibrary;
 
   @Autowired
   public GamsSatSolver(
       @Value("${gams.directory.sat}") String satPath,
-      ApplicationContext context) {
+      ApplicationContext context,
+      InstanceLibrary instanceLibrary) {
     this.satPath = satPath;
     this.context = context;
+    this.instanceLibrary = instanceLibrary;
   }
 
   @Override
@@ -34,6 +43,11 @@ public class GamsSatSolver extends SatSolver {
     return "GAMS SAT";
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return true;
+  }
+
   @Override
   public boolean canSolve(Problem<String> problem) {
     //TODO: assess problemData
@@ -44,22 +58,52 @@ public class GamsSatSolver extends SatSolver {
   public void solve(Problem<String> problem, Solution<DimacsCnfSolution> solution,
                     SubRoutinePool subRoutinePool) {
     DimacsCnf dimacsCnf;
+    Path instanceFile = null;
     try {
-      dimacsCnf = DimacsCnf.fromString(problem.problemData());
-      solution.setDebugData("Using cnf input: " + dimacsCnf);
-    } catch (ConversionException | RuntimeException e) {
+      if (InstanceLibrary.isReference(problem.problemData())) {
+        instanceFile = instanceLibrary.resolve(problem.problemData()).orElse(null);
+        if (instanceFile == null) {
+          solution.setDebugData("Unknown instance: " + problem.problemData());
+          solution.abort();
+          return;
+        }
+
+        // the literals are only kept in the compact formula, the file is left to GAMS
+        dimacsCnf = DimacsCnf.fromDimacsCnf(InstanceLibrary.map(instanceFile));
+        solution.setDebugData("Using cnf instance %s with %d variables and %d clauses".formatted(
+            instanceFile.getFileName(),
+            dimacsCnf.getCompactCnf().getVariableCount(),
+            dimacsCnf.getOrClauseCount()));
+      } else if (InstanceLibrary.isSharedReference(problem.problemData())) {
+        dimacsCnf = instanceLibrary.resolveShared(problem.problemData()).orElse(null);
+        if (dimacsCnf == null) {
+          solution.setDebugData("Unknown shared formula: " + problem.problemData());
+          solution.abort();
+          return;
+        }
+
+        solution.setDebugData("Using shared cnf formula with %d variables and %d clauses"
+            .formatted(dimacsCnf.getVariables().size(), dimacsCnf.getOrClauseCount()));
+      } else {
+        dimacsCnf = DimacsCnf.fromString(problem.problemData());
+        solution.setDebugData("Using cnf input: " + dimacsCnf);
+      }
+    } catch (ConversionException | IOException | RuntimeException e) {
       solution.setDebugData("Parsing error: " + e.getMessage());
       solution.abort();
       return;
     }
 
     // Run SAT with GAMS via console
-    var processResult = context
+    var processRunner = context
         .getBean(
             GamsProcessRunner.class,
             satPath,
             "sat.gms")
-        .run(problem.type(), solution.getId(), dimacsCnf.toString());
+        .cancellationToken(subRoutinePool.getCancellationToken());
+    ProcessResult processResult = instanceFile != null
+        ? processRunner.run(problem.type(), solution.getId(), instanceFile)
+        : processRunner.run(problem.type(), solution.getId(), dimacsCnf::writeTo);
 
     if (processResult.success()) {
       var dimacsCnfSolution = DimacsCnfSolution.fromString(dimacsCnf, processResult.output());
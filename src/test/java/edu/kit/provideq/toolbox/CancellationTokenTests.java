@@ -0,0 +1,61 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class CancellationTokenTests {
+  @Test
+  public void testStopListenerIsCalledOnceOnCancel() {
+    var token = new CancellationToken();
+    var calls = new AtomicInteger();
+    token.addStopListener(calls::incrementAndGet);
+
+    token.cancel();
+    token.cancel();
+    assertEquals(1, calls.get());
+
+    // listeners added after the cancellation are called right away
+    token.addStopListener(calls::incrementAndGet);
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void testStopListenerOfChildIsCalledWhenParentIsCancelled() {
+    var parent = new CancellationToken();
+    var child = parent.createChild(Duration.ofHours(1));
+    var calls = new AtomicInteger();
+    child.addStopListener(calls::incrementAndGet);
+
+    parent.cancel();
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testStopListenerIsCalledAtDeadline() throws InterruptedException {
+    var token = new CancellationToken().createChild(Duration.ofMillis(50));
+    var stopped = new CountDownLatch(1);
+    token.addStopListener(stopped::countDown);
+
+    assertTrue(stopped.await(5, TimeUnit.SECONDS));
+    assertTrue(token.isTimedOut());
+  }
+
+  @Test
+  public void testRemovedStopListenerIsNotCalled() throws InterruptedException {
+    var parent = new CancellationToken();
+    var child = parent.createChild(Duration.ofMillis(50));
+    var calls = new AtomicInteger();
+    Runnable removeStopListener = child.addStopListener(calls::incrementAndGet);
+
+    removeStopListener.run();
+    Thread.sleep(100);
+    parent.cancel();
+    assertEquals(0, calls.get());
+  }
+}
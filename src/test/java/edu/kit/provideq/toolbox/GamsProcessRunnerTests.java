@@ -0,0 +1,71 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.kit.provideq.toolbox.exception.ConversionException;
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf;
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnfSolution;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+@SpringBootTest
+public class GamsProcessRunnerTests {
+  @Autowired
+  private ApplicationContext context;
+
+  @Autowired
+  private SolutionIdGenerator idGenerator;
+
+  @Value("${gams.directory.sat}")
+  private String satPath;
+
+  @Test
+  public void testSplitBatchOutput() {
+    var output = """
+        c Instance i1
+        s cnf 1 2 1
+        v 1
+        v -2
+
+        c Instance i2
+        s cnf 0 2 2
+        """;
+
+    assertEquals(List.of("s cnf 1 2 1\nv 1\nv -2\n", "s cnf 0 2 2\n"),
+        GamsProcessRunner.splitBatchOutput(output));
+  }
+
+  @Test
+  public void testRunBatch() throws ConversionException {
+    var baseCnf = DimacsCnf.fromDimacsCnfString("""
+        p cnf 2 1
+        1 2 0
+        """);
+    var instances = List.of(
+        "-1 0",
+        "-1 0\n-2 0",
+        "2 0");
+
+    var processRunner = context.getBean(GamsProcessRunner.class, satPath, "sat-batch.gms");
+    ProcessResult result = processRunner.runBatch(ProblemType.SAT,
+        idGenerator.nextId(ProblemType.SAT), baseCnf.toString(), instances);
+    assertTrue(result.success(), result.output());
+
+    // one solution per instance, in the order of the instances
+    List<DimacsCnfSolution> solutions = GamsProcessRunner.splitBatchOutput(result.output())
+        .stream()
+        .map(solution -> DimacsCnfSolution.fromString(baseCnf, solution))
+        .toList();
+    assertEquals(3, solutions.size());
+    assertFalse(solutions.get(0).isVoid());
+    assertTrue(solutions.get(1).isVoid());
+    assertFalse(solutions.get(2).isVoid());
+  }
+}
@@ -0,0 +1,122 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.kit.provideq.toolbox.exception.ConversionException;
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class InstanceLibraryTests {
+  private static final long MEGABYTE = 1024 * 1024;
+
+  @TempDir
+  Path directory;
+
+  private WorkingDirectoryManager workingDirectoryManager;
+  private InstanceLibrary instanceLibrary;
+
+  @BeforeEach
+  public void createLibrary() {
+    workingDirectoryManager = new WorkingDirectoryManager(
+        directory.resolve("jobs").toString(), false, true, 60, 1024, 60);
+    instanceLibrary = new InstanceLibrary(
+        workingDirectoryManager, directory.resolve("library").toString(), 1, 2);
+  }
+
+  @AfterEach
+  public void shutdown() {
+    workingDirectoryManager.shutdown();
+  }
+
+  @Test
+  public void testUploadsShareTheTotalSize() throws IOException {
+    var first = instanceLibrary.startUpload(".cnf").orElseThrow();
+    var second = instanceLibrary.startUpload(".cnf").orElseThrow();
+    assertEquals(MEGABYTE, first.maxBytes());
+    assertEquals(MEGABYTE, second.maxBytes());
+
+    // uploads in progress count with their maximum size
+    assertEquals(Optional.empty(), instanceLibrary.startUpload(".cnf"));
+
+    // finished uploads count with the size of their file
+    Files.write(first.file(), new byte[(int) MEGABYTE / 4]);
+    instanceLibrary.finishUpload(first);
+    instanceLibrary.finishUpload(second);
+    assertEquals(MEGABYTE, instanceLibrary.startUpload(".cnf").orElseThrow().maxBytes());
+    assertEquals(3 * MEGABYTE / 4, instanceLibrary.startUpload(".cnf").orElseThrow().maxBytes());
+  }
+
+  @Test
+  public void testUploadedInstancesAreMapped() throws IOException {
+    String formula = "p cnf 1 1\n1 0\n";
+    var upload = instanceLibrary.startUpload(".cnf").orElseThrow();
+    Files.writeString(upload.file(), formula);
+    instanceLibrary.finishUpload(upload);
+
+    String name = upload.file().getFileName().toString();
+    Path file = instanceLibrary.resolve(InstanceLibrary.REFERENCE_PREFIX + name).orElseThrow();
+    assertEquals(formula, StandardCharsets.UTF_8.decode(InstanceLibrary.map(file)).toString());
+
+    // names can't escape the instance directory
+    assertEquals(Optional.empty(),
+        instanceLibrary.resolve(InstanceLibrary.REFERENCE_PREFIX + "../instances/" + name + "/.."));
+    assertEquals(Optional.empty(), instanceLibrary.resolve("p cnf 1 1\n1 0\n"));
+
+    assertTrue(instanceLibrary.deleteUpload(name));
+    assertFalse(instanceLibrary.deleteUpload(name));
+    assertEquals(Optional.empty(),
+        instanceLibrary.resolve(InstanceLibrary.REFERENCE_PREFIX + name));
+  }
+
+  @Test
+  public void testLibraryInstancesAreResolved() throws IOException {
+    Path library = Files.createDirectories(directory.resolve("library").resolve("uf20"));
+    Files.writeString(library.resolve("uf20-01.cnf"), "p cnf 1 1\n1 0\n");
+
+    assertTrue(instanceLibrary.resolve(InstanceLibrary.REFERENCE_PREFIX + "uf20/uf20-01.cnf")
+        .isPresent());
+    assertEquals(Optional.empty(),
+        instanceLibrary.resolve(InstanceLibrary.REFERENCE_PREFIX + "../jobs/instances"));
+
+    // instances of the library can't be deleted
+    assertFalse(instanceLibrary.deleteUpload("uf20/uf20-01.cnf"));
+  }
+
+  @Test
+  public void testSharedFormulasAreResolvedWhileShared() throws ConversionException {
+    var formula = DimacsCnf.fromDimacsCnfString("p cnf 2 1\n1 -2 0\n");
+    var sameFormula = DimacsCnf.fromDimacsCnfString("p cnf 2 1\n1 -2 0\n");
+    var otherFormula = DimacsCnf.fromDimacsCnfString("p cnf 2 1\n-1 2 0\n");
+
+    var shared = instanceLibrary.share(formula);
+    var sharedAgain = instanceLibrary.share(sameFormula);
+    var other = instanceLibrary.share(otherFormula);
+    assertTrue(InstanceLibrary.isSharedReference(shared.reference()));
+    assertFalse(InstanceLibrary.isReference(shared.reference()));
+
+    // identical formulas share one reference, so sub-routine results are cached by the formula
+    assertEquals(shared.reference(), sharedAgain.reference());
+    assertFalse(shared.reference().equals(other.reference()));
+    assertSame(formula, instanceLibrary.resolveShared(shared.reference()).orElseThrow());
+    assertSame(otherFormula, instanceLibrary.resolveShared(other.reference()).orElseThrow());
+
+    // formulas stay shared until everyone who shared them is done
+    shared.close();
+    assertTrue(instanceLibrary.resolveShared(shared.reference()).isPresent());
+    sharedAgain.close();
+    assertEquals(Optional.empty(), instanceLibrary.resolveShared(shared.reference()));
+    other.close();
+    assertEquals(Optional.empty(), instanceLibrary.resolveShared(other.reference()));
+  }
+}
@@ -0,0 +1,103 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JournalSolutionStoreTests {
+  @TempDir
+  Path directory;
+
+  @Test
+  public void testSolutionsSurviveRestart() throws IOException {
+    var store = openStore();
+    store.store(ProblemType.SAT, createSolution(1, "first"));
+    store.store(ProblemType.SAT, createSolution(2, "second"));
+    store.store(ProblemType.SAT, createSolution(1, "first, updated"));
+    store.remove(ProblemType.SAT, 2);
+    store.shutdown();
+
+    store = openStore();
+    assertEquals(Optional.of("first, updated"), loadSolutionData(store, 1));
+    assertEquals(Optional.empty(), loadSolutionData(store, 2));
+    // removed ids must not be handed out again
+    assertEquals(2, store.getLatestId(ProblemType.SAT));
+    assertEquals(0, store.getLatestId(ProblemType.MAX_CUT));
+    store.shutdown();
+  }
+
+  @Test
+  public void testTruncatedRecordIsCutOff() throws IOException {
+    var store = openStore();
+    store.store(ProblemType.SAT, createSolution(1, "complete"));
+    store.store(ProblemType.SAT, createSolution(2, "incomplete"));
+    store.shutdown();
+
+    // a crash while the second record was written
+    Path journal = directory.resolve("solutions.journal");
+    try (var channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    store = openStore();
+    assertEquals(Optional.of("complete"), loadSolutionData(store, 1));
+    assertEquals(Optional.empty(), loadSolutionData(store, 2));
+    assertEquals(1, store.getLatestId(ProblemType.SAT));
+
+    // records written after the recovery start at a record boundary
+    store.store(ProblemType.SAT, createSolution(3, "after recovery"));
+    store.shutdown();
+
+    store = openStore();
+    assertEquals(Optional.of("complete"), loadSolutionData(store, 1));
+    assertEquals(Optional.of("after recovery"), loadSolutionData(store, 3));
+    store.shutdown();
+  }
+
+  @Test
+  public void testCompactionKeepsLatestRecords() throws IOException {
+    var store = openStore();
+    String largeData = "x".repeat(1024 * 1024);
+    store.store(ProblemType.SAT, createSolution(1, largeData));
+    store.store(ProblemType.SAT, createSolution(1, largeData + "y"));
+    store.store(ProblemType.SAT, createSolution(2, "removed"));
+    store.remove(ProblemType.SAT, 2);
+
+    Path journal = directory.resolve("solutions.journal");
+    long sizeBefore = Files.size(journal);
+    store.compactIfNeeded();
+    assertTrue(Files.size(journal) < sizeBefore * 2 / 3);
+    assertEquals(Optional.of(largeData + "y"), loadSolutionData(store, 1));
+    store.shutdown();
+
+    store = openStore();
+    assertEquals(Optional.of(largeData + "y"), loadSolutionData(store, 1));
+    assertEquals(Optional.empty(), loadSolutionData(store, 2));
+    assertEquals(2, store.getLatestId(ProblemType.SAT));
+    store.shutdown();
+  }
+
+  private JournalSolutionStore openStore() throws IOException {
+    return new JournalSolutionStore(directory.toString(), 60, 60);
+  }
+
+  private static Solution<String> createSolution(long id, String solutionData) {
+    var solution = new Solution<String>(id);
+    solution.setSolutionData(solutionData);
+    solution.complete();
+    return solution;
+  }
+
+  private static Optional<String> loadSolutionData(JournalSolutionStore store, long id) {
+    return store.load(ProblemType.SAT, id).map(Solution::getSolutionData);
+  }
+}
@@ -0,0 +1,35 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class ProcessOutputTests {
+  @Test
+  public void testShortOutputIsKept() {
+    var output = new ProcessOutput(20);
+    output.appendLine("aaaa");
+    output.appendLine("");
+    output.appendLine("bbbb");
+
+    assertEquals("aaaa\n\nbbbb", output.toString());
+  }
+
+  @Test
+  public void testLongOutputKeepsHeadAndTail() {
+    var output = new ProcessOutput(20);
+    for (String line : new String[] {"aaaa", "bbbb", "cccc", "dddd", "eeee"}) {
+      output.appendLine(line);
+    }
+
+    assertEquals("aaaa\nbbbb\n[... 5 characters omitted ...]\ndddd\neeee", output.toString());
+  }
+
+  @Test
+  public void testLongLineKeepsItsEnd() {
+    var output = new ProcessOutput(10);
+    output.appendLine("0123456789abc");
+
+    assertEquals("[... 8 characters omitted ...]\n89abc", output.toString());
+  }
+}
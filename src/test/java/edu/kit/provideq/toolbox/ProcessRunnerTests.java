@@ -0,0 +1,110 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+public class ProcessRunnerTests {
+  /**
+   * Copies the problem to the solution in upper case, the paths of both are passed as arguments.
+   */
+  private static final String UPPER_CASE_SCRIPT = """
+      import sys
+
+      problem_path, solution_path = sys.argv[1], sys.argv[2]
+      print("paths", problem_path, solution_path, file=sys.stderr)
+      problem = sys.stdin if problem_path == "-" else open(problem_path)
+      solution = sys.stdout if solution_path == "-" else open(solution_path, "w")
+      for line in problem:
+          solution.write(line.upper())
+      solution.flush()
+      """;
+
+  @TempDir
+  Path directory;
+
+  private WorkingDirectoryManager workingDirectoryManager;
+  private ResourceProvider resourceProvider;
+  private final SolutionIdGenerator idGenerator = new SolutionIdGenerator(0);
+
+  @BeforeEach
+  public void createResourceProvider() throws IOException {
+    Files.writeString(directory.resolve("upper.py"), UPPER_CASE_SCRIPT);
+    workingDirectoryManager = new WorkingDirectoryManager(
+        directory.resolve("jobs").toString(), false, false, 60, 1024, 60);
+    resourceProvider = new ResourceProvider(workingDirectoryManager, new DefaultResourceLoader());
+  }
+
+  @AfterEach
+  public void shutdown() {
+    workingDirectoryManager.shutdown();
+  }
+
+  @Test
+  public void testPipeTransportDoesNotWriteFiles() {
+    // larger than the pipe buffers, so the process writes its solution while the problem is sent
+    String problem = "p cnf 3 1\n1 -2 3 0\n".repeat(100_000);
+    var processRunner = createProcessRunner("upper.py").pipeTransport();
+
+    long solutionId = idGenerator.nextId(ProblemType.SAT);
+    ProcessResult result = processRunner.run(ProblemType.SAT, solutionId, problem);
+    assertTrue(result.success(), result.output());
+    assertEquals(problem.toUpperCase(), result.output());
+
+    // nothing is written to the working directory, not even the problem directory
+    assertFalse(Files.exists(directory.resolve("jobs")));
+  }
+
+  @Test
+  public void testFileTransportWritesProblemDirectory() throws IOException {
+    var processRunner = createProcessRunner("upper.py");
+
+    long solutionId = idGenerator.nextId(ProblemType.SAT);
+    ProcessResult result = processRunner.run(ProblemType.SAT, solutionId, "p cnf 1 1\n1 0\n");
+    assertTrue(result.success(), result.output());
+    assertEquals("P CNF 1 1\n1 0\n", result.output());
+
+    // directories of successful runs are only removed if configured
+    Path problemDirectory = workingDirectoryManager
+        .getProblemDirectory(ProblemType.SAT, solutionId).toPath();
+    assertEquals("p cnf 1 1\n1 0\n", Files.readString(problemDirectory.resolve("problem")));
+    assertEquals("P CNF 1 1\n1 0\n", Files.readString(problemDirectory.resolve("solution")));
+  }
+
+  @Test
+  public void testTooLongSolutionOnStdoutKillsTheProcess() throws IOException {
+    Files.writeString(directory.resolve("endless.py"), """
+        import sys
+
+        while True:
+            sys.stdout.write("x" * 1000)
+        """);
+    var processRunner = createProcessRunner("endless.py").pipeTransport();
+    processRunner.setMaxSolutionLength(10_000);
+
+    ProcessResult result = processRunner.run(ProblemType.SAT,
+        idGenerator.nextId(ProblemType.SAT), "");
+    assertFalse(result.success());
+    assertTrue(result.output().startsWith("Error: The solution of the SAT problem exceeds 10000"),
+        result.output());
+  }
+
+  private ProcessRunner createProcessRunner(String script) {
+    var processRunner = new ProcessRunner(new ProcessBuilder("python", script)
+        .directory(directory.toFile()))
+        .addProblemFilePathToProcessCommand()
+        .addSolutionFilePathToProcessCommand();
+    processRunner.setResourceProvider(resourceProvider);
+    return processRunner;
+  }
+}
@@ -0,0 +1,189 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+public class PythonWorkerPoolTests {
+  @TempDir
+  Path directory;
+
+  private PythonWorkerPool pool;
+
+  @BeforeEach
+  public void createPool() throws IOException {
+    Files.writeString(directory.resolve("script.py"), """
+        import os
+        import sys
+        import time
+
+        if sys.argv[1] == "sleep":
+            time.sleep(60)
+        print("run", sys.argv[1])
+        print("worker", os.getppid())
+        sys.exit(int(sys.argv[1]))
+        """);
+
+    pool = new PythonWorkerPool(true, "python/worker.py", 1, 100, 2048, 5000,
+        new MockEnvironment());
+  }
+
+  @AfterEach
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testRunsBackToBackOnOneWorker() throws Exception {
+    List<String> firstOutput = new ArrayList<>();
+    assertEquals(3, run("3", firstOutput));
+    List<String> secondOutput = new ArrayList<>();
+    assertEquals(0, run("0", secondOutput));
+
+    // each run gets exactly its own output
+    assertEquals(List.of("run 3", firstOutput.get(1)), firstOutput);
+    assertEquals(List.of("run 0", firstOutput.get(1)), secondOutput);
+    assertTrue(firstOutput.get(1).startsWith("worker "));
+  }
+
+  @Test
+  public void testInterruptedWaitStopsTheRun() throws Exception {
+    var waiting = Thread.currentThread();
+    var interrupter = new Thread(() -> {
+      try {
+        Thread.sleep(500);
+        waiting.interrupt();
+      } catch (InterruptedException e) {
+        // the run has exited before
+      }
+    });
+    interrupter.start();
+
+    assertThrows(InterruptedException.class, () -> run("sleep", new ArrayList<>()));
+    interrupter.join();
+
+    // the stopped worker is replaced for the next run
+    List<String> output = new ArrayList<>();
+    assertEquals(0, run("0", output));
+    assertEquals("run 0", output.get(0));
+  }
+
+  @Test
+  public void testWorkersAreReplacedAfterMaxJobs() throws Exception {
+    var recyclingPool = new PythonWorkerPool(true, "python/worker.py", 1, 2, 2048, 5000,
+        new MockEnvironment());
+    try {
+      List<String> workers = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        List<String> output = new ArrayList<>();
+        assertEquals(0, run(recyclingPool, "0", output));
+        workers.add(output.get(1));
+      }
+
+      assertEquals(workers.get(0), workers.get(1));
+      assertNotEquals(workers.get(1), workers.get(2));
+    } finally {
+      recyclingPool.shutdown();
+    }
+  }
+
+  @Test
+  public void testWorkersUsingTooMuchMemoryAreReplaced() throws Exception {
+    var recyclingPool = new PythonWorkerPool(true, "python/worker.py", 1, 100, 0, 5000,
+        new MockEnvironment());
+    try {
+      List<String> firstOutput = new ArrayList<>();
+      assertEquals(0, run(recyclingPool, "0", firstOutput));
+      List<String> secondOutput = new ArrayList<>();
+      assertEquals(0, run(recyclingPool, "0", secondOutput));
+
+      // the health check before the second run finds the worker above the memory limit
+      assertNotEquals(firstOutput.get(1), secondOutput.get(1));
+    } finally {
+      recyclingPool.shutdown();
+    }
+  }
+
+  @Test
+  public void testBusyPoolFallsBackToNewProcesses() throws Exception {
+    var environment = new MockEnvironment().withProperty("python.worker.script.pool-size", "1");
+    var limitedPool = new PythonWorkerPool(true, "python/worker.py", 2, 100, 2048, 5000,
+        environment);
+    try {
+      Process sleeping = limitedPool.run(createProcessBuilder("sleep")).orElseThrow();
+      assertEquals(Optional.empty(), limitedPool.run(createProcessBuilder("0")));
+
+      // the worker is free again once its run has been stopped and its output has been read
+      sleeping.destroy();
+      sleeping.getInputStream().readAllBytes();
+      sleeping.waitFor();
+      assertEquals(0, run(limitedPool, "0", new ArrayList<>()));
+    } finally {
+      limitedPool.shutdown();
+    }
+  }
+
+  @Test
+  public void testDisabledPoolDoesNotRunScripts() {
+    var disabledPool = new PythonWorkerPool(false, "python/worker.py", 1, 100, 2048, 5000,
+        new MockEnvironment());
+    assertEquals(Optional.empty(), disabledPool.run(createProcessBuilder("0")));
+  }
+
+  private ProcessBuilder createProcessBuilder(String argument) {
+    return new ProcessBuilder("python", "script.py", argument)
+        .directory(directory.toFile());
+  }
+
+  private int run(String argument, List<String> output) throws Exception {
+    return run(pool, argument, output);
+  }
+
+  /**
+   * Runs the script like a {@link ProcessRunner} does: the output is read on another thread while
+   * this thread waits for the run to exit.
+   */
+  private int run(PythonWorkerPool workerPool, String argument, List<String> output)
+      throws Exception {
+    Process process = workerPool.run(createProcessBuilder(argument)).orElseThrow();
+
+    List<String> lines = Collections.synchronizedList(new ArrayList<>());
+    BufferedReader reader = process.inputReader();
+    var drainer = new Thread(() -> {
+      try (reader) {
+        String line = reader.readLine();
+        while (line != null) {
+          lines.add(line);
+          line = reader.readLine();
+        }
+      } catch (IOException e) {
+        lines.add("Error: " + e.getMessage());
+      }
+    });
+    drainer.start();
+
+    int exitCode;
+    try {
+      exitCode = process.waitFor();
+    } finally {
+      drainer.join(10_000);
+    }
+    output.addAll(lines);
+    return exitCode;
+  }
+}
@@ -0,0 +1,146 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ResultCacheTests {
+  @Test
+  public void testKeyIgnoresLineEndingsAndSchedulingOptions() {
+    var request = createRequest("a or b\n");
+    var sameProblem = createRequest("  a or b\r\n");
+    sameProblem.priority = 5;
+    sameProblem.timeoutMilliseconds = 1000L;
+    sameProblem.useCachedResult = false;
+
+    assertEquals(computeKey(request), computeKey(sameProblem));
+  }
+
+  @Test
+  public void testKeyDistinguishesSolversAndSubRoutines() {
+    var request = createRequest("a or b");
+    var otherSubRoutine = createRequest("a or b");
+    otherSubRoutine.requestedSubSolveRequests = Map.of(ProblemType.SAT, createRequest(null));
+
+    assertNotEquals(computeKey(request), computeKey(createRequest("a and b")));
+    assertNotEquals(computeKey(request), computeKey(otherSubRoutine));
+    assertNotEquals(computeKey(request),
+        ResultCache.computeKey(ProblemType.SAT, "other", request).orElseThrow());
+  }
+
+  @Test
+  public void testOnlySolvedSolutionsAreRestored() {
+    var cache = new ResultCache(60, 10, 1);
+    var failed = new Solution<String>(1);
+    failed.fail();
+    cache.store(ProblemType.SAT, "failed", failed);
+    cache.store(ProblemType.SAT, "solved", createSolvedSolution(2, "result"));
+
+    var solution = new Solution<String>(3);
+    assertFalse(cache.restore(ProblemType.SAT, "failed", solution));
+    assertTrue(cache.restore(ProblemType.SAT, "solved", solution));
+    assertEquals(SolutionStatus.SOLVED, solution.getStatus());
+    assertEquals("result", solution.getSolutionData());
+    assertEquals(new ResultCache.Statistics(1, 1, 1, 0, 0),
+        cache.getStatistics(ProblemType.SAT));
+  }
+
+  @Test
+  public void testSolutionIsOnlyCreatedForCachedResult() {
+    var cache = new ResultCache(60, 10, 1);
+    cache.store(ProblemType.SAT, "solved", createSolvedSolution(1, "result"));
+
+    assertEquals(Optional.empty(), cache.restore(ProblemType.SAT, "missing",
+        () -> fail("no solution must be created for a missing result")));
+    var solution = cache.restore(ProblemType.SAT, "solved", () -> new Solution<String>(2))
+        .orElseThrow();
+    assertEquals(SolutionStatus.SOLVED, solution.getStatus());
+    assertEquals("result", solution.getSolutionData());
+
+    // the solving process of the request counts the miss once it looks up the result again
+    assertEquals(new ResultCache.Statistics(1, 1, 0, 0, 0),
+        cache.getStatistics(ProblemType.SAT));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntriesAreEvicted() {
+    var cache = new ResultCache(60, 2, 1);
+    cache.store(ProblemType.SAT, "first", createSolvedSolution(1, "first"));
+    cache.store(ProblemType.SAT, "second", createSolvedSolution(2, "second"));
+    cache.restore(ProblemType.SAT, "first", new Solution<String>(3));
+    cache.store(ProblemType.SAT, "third", createSolvedSolution(4, "third"));
+
+    assertTrue(cache.restore(ProblemType.SAT, "first", new Solution<String>(5)));
+    assertFalse(cache.restore(ProblemType.SAT, "second", new Solution<String>(6)));
+    assertTrue(cache.restore(ProblemType.SAT, "third", new Solution<String>(7)));
+    assertEquals(1, cache.getStatistics(ProblemType.SAT).evictedCount());
+  }
+
+  @Test
+  public void testEntriesAreEvictedBySize() {
+    var cache = new ResultCache(60, 10, 1);
+    var random = new Random(0);
+    cache.store(ProblemType.SAT, "first", createSolvedSolution(1, randomText(random, 500_000)));
+    cache.store(ProblemType.SAT, "second", createSolvedSolution(2, randomText(random, 500_000)));
+    cache.store(ProblemType.SAT, "third", createSolvedSolution(3, randomText(random, 500_000)));
+
+    assertFalse(cache.restore(ProblemType.SAT, "first", new Solution<String>(4)));
+    assertTrue(cache.restore(ProblemType.SAT, "second", new Solution<String>(5)));
+    assertTrue(cache.restore(ProblemType.SAT, "third", new Solution<String>(6)));
+
+    // results are counted compressed, results that don't fit at all aren't cached
+    String compressible = "1 -2 3 0\n".repeat(200_000);
+    cache.store(ProblemType.SAT, "compressible", createSolvedSolution(7, compressible));
+    cache.store(ProblemType.SAT, "large", createSolvedSolution(8, randomText(random, 1_500_000)));
+
+    var solution = new Solution<String>(9);
+    assertTrue(cache.restore(ProblemType.SAT, "compressible", solution));
+    assertEquals(compressible, solution.getSolutionData());
+    assertTrue(cache.restore(ProblemType.SAT, "third", new Solution<String>(10)));
+    assertFalse(cache.restore(ProblemType.SAT, "large", new Solution<String>(11)));
+  }
+
+  @Test
+  public void testUnusedEntriesExpire() throws InterruptedException {
+    var cache = new ResultCache(0, 10, 1);
+    cache.store(ProblemType.SAT, "key", createSolvedSolution(1, "result"));
+    Thread.sleep(5);
+
+    assertFalse(cache.restore(ProblemType.SAT, "key", new Solution<String>(2)));
+    assertEquals(new ResultCache.Statistics(0, 0, 1, 1, 0),
+        cache.getStatistics(ProblemType.SAT));
+  }
+
+  private static SolveRequest<String> createRequest(String content) {
+    var request = new SolveRequest<String>();
+    request.requestContent = content;
+    return request;
+  }
+
+  private static String computeKey(SolveRequest<String> request) {
+    return ResultCache.computeKey(ProblemType.SAT, "solver", request).orElseThrow();
+  }
+
+  private static String randomText(Random random, int length) {
+    var text = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      text.append((char) (' ' + random.nextInt(95)));
+    }
+    return text.toString();
+  }
+
+  private static Solution<String> createSolvedSolution(long id, String solutionData) {
+    var solution = new Solution<String>(id);
+    solution.setSolutionData(solutionData);
+    solution.complete();
+    return solution;
+  }
+}
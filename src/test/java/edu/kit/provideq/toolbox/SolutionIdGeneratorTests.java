@@ -0,0 +1,36 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class SolutionIdGeneratorTests {
+  @Test
+  public void testProblemTypeCodesAreStable() {
+    // persisted solution ids encode these codes, changing them breaks existing ids
+    assertEquals(0, ProblemType.SAT.getCode());
+    assertEquals(1, ProblemType.MAX_CUT.getCode());
+    assertEquals(2, ProblemType.FEATURE_MODEL_ANOMALY_DEAD.getCode());
+    assertEquals(3, ProblemType.FEATURE_MODEL_ANOMALY_VOID.getCode());
+    assertEquals(4, ProblemType.QUBO.getCode());
+  }
+
+  @Test
+  public void testIdsEncodeTheirProblemType() {
+    var generator = new SolutionIdGenerator(5);
+    for (ProblemType problemType : ProblemType.values()) {
+      long id = generator.nextId(problemType);
+      assertEquals(Optional.of(problemType), SolutionIdGenerator.getProblemType(id));
+    }
+  }
+
+  @Test
+  public void testUnknownProblemTypeCodeIsRejected() {
+    // the problem type code is stored above the node id and the sequence number
+    long id = 15L << 17;
+    assertEquals(Optional.empty(), SolutionIdGenerator.getProblemType(id));
+    assertEquals(Optional.empty(), SolutionIdGenerator.getProblemType(-1));
+  }
+}
@@ -0,0 +1,81 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SolutionManagerTests {
+  private final SolutionManager<String> solutionManager = new SolutionManager<>(ProblemType.SAT,
+      new SolutionIdGenerator(0), Duration.ofDays(1), 2, null, null);
+
+  @Test
+  public void testRunningSolutionsAreNeverEvicted() {
+    List<Solution<String>> running = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      running.add(solutionManager.createSolution());
+    }
+
+    for (var solution : running) {
+      assertNotNull(solutionManager.getSolution(solution.getId()));
+    }
+    assertEquals(new SolutionManager.Statistics(5, 0, 0), solutionManager.getStatistics());
+  }
+
+  @Test
+  public void testOldestFinishedSolutionsAreEvictedFirst() {
+    var oldest = solutionManager.createSolution();
+    var running = solutionManager.createSolution();
+    var failed = solutionManager.createSolution();
+    oldest.complete();
+    oldest.finish();
+    failed.fail();
+    failed.finish();
+
+    // exceeding the maximum count evicts finished solutions only
+    var newest = solutionManager.createSolution();
+
+    assertNull(solutionManager.getSolution(oldest.getId()));
+    assertNull(solutionManager.getSolution(failed.getId()));
+    assertNotNull(solutionManager.getSolution(running.getId()));
+    assertNotNull(solutionManager.getSolution(newest.getId()));
+    assertEquals(new SolutionManager.Statistics(2, 0, 2), solutionManager.getStatistics());
+  }
+
+  @Test
+  public void testCompletedSolutionsAreKeptUntilFinished() {
+    var completed = solutionManager.createSolution();
+    completed.complete();
+    solutionManager.createSolution();
+
+    // the completed solution is still being compacted and persisted
+    solutionManager.createSolution();
+    assertNotNull(solutionManager.getSolution(completed.getId()));
+
+    completed.finish();
+    solutionManager.createSolution();
+    assertNull(solutionManager.getSolution(completed.getId()));
+  }
+
+  @Test
+  public void testDiscardedSolutionsAreNotCompacted() {
+    var kept = solutionManager.createSolution();
+    var discarded = solutionManager.createSolution();
+    for (var solution : List.of(kept, discarded)) {
+      solution.setDebugData("x".repeat(100_000));
+      solution.complete();
+      solution.finish();
+    }
+    solutionManager.removeSolution(discarded.getId());
+
+    solutionManager.compactData(kept);
+    solutionManager.compactData(discarded);
+    assertNotNull(kept.getStoredDebugData());
+    assertNull(discarded.getStoredDebugData());
+  }
+}
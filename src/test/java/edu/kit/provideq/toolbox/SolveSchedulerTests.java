@@ -0,0 +1,153 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+public class SolveSchedulerTests {
+  private final MockEnvironment environment = new MockEnvironment();
+  private final List<String> startedJobs = Collections.synchronizedList(new ArrayList<>());
+  private final CountDownLatch blocker = new CountDownLatch(1);
+  private SolveScheduler scheduler;
+  private long nextSolutionId;
+
+  @AfterEach
+  public void shutdown() {
+    blocker.countDown();
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testProblemTypesShareSolverThreadsFairly() throws InterruptedException {
+    scheduler = new SolveScheduler(1, 100, environment);
+    blockSolverThread(ProblemType.SAT);
+
+    // a burst of jobs of one problem type doesn't delay the jobs of another type until it is done
+    CountDownLatch done = new CountDownLatch(6);
+    for (int i = 0; i < 4; i++) {
+      submit(ProblemType.SAT, 0, "sat-" + i, done);
+    }
+    for (int i = 0; i < 2; i++) {
+      submit(ProblemType.MAX_CUT, 0, "max-cut-" + i, done);
+    }
+    blocker.countDown();
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    long maxCutJobsFirst = startedJobs.subList(0, 4).stream()
+        .filter(job -> job.startsWith("max-cut"))
+        .count();
+    assertEquals(2, maxCutJobsFirst);
+  }
+
+  @Test
+  public void testWeightsDivideSolverThreads() throws InterruptedException {
+    environment.setProperty("solver.scheduler.sat.weight", "3");
+    scheduler = new SolveScheduler(1, 100, environment);
+    blockSolverThread(ProblemType.QUBO);
+
+    CountDownLatch done = new CountDownLatch(8);
+    for (int i = 0; i < 4; i++) {
+      submit(ProblemType.SAT, 0, "sat-" + i, done);
+      submit(ProblemType.MAX_CUT, 0, "max-cut-" + i, done);
+    }
+    blocker.countDown();
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    long satJobsFirst = startedJobs.subList(0, 4).stream()
+        .filter(job -> job.startsWith("sat"))
+        .count();
+    assertEquals(3, satJobsFirst);
+  }
+
+  @Test
+  public void testHigherPriorityJobsStartFirst() throws InterruptedException {
+    scheduler = new SolveScheduler(1, 100, environment);
+    blockSolverThread(ProblemType.SAT);
+
+    CountDownLatch done = new CountDownLatch(3);
+    submit(ProblemType.SAT, 0, "low", done);
+    submit(ProblemType.SAT, 5, "high", done);
+    submit(ProblemType.SAT, 0, "low-later", done);
+    blocker.countDown();
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(List.of("high", "low", "low-later"), startedJobs);
+  }
+
+  @Test
+  public void testFullQueueRejectsJobs() {
+    scheduler = new SolveScheduler(1, 2, environment);
+    blockSolverThread(ProblemType.SAT);
+
+    submit(ProblemType.SAT, 0, "first");
+    Solution<String> second = submit(ProblemType.MAX_CUT, 0, "second");
+    assertThrows(RejectedExecutionException.class,
+        () -> submit(ProblemType.SAT, 0, "rejected"));
+    assertEquals(1, scheduler.getQueuedJobCount(ProblemType.SAT));
+    assertEquals(1, second.getQueuePosition());
+
+    // cancelled jobs free their place in the queue
+    assertTrue(scheduler.cancel(ProblemType.MAX_CUT, second));
+    assertFalse(scheduler.cancel(ProblemType.MAX_CUT, second));
+    submit(ProblemType.SAT, 0, "accepted");
+    assertEquals(2, scheduler.getQueuedJobCount(ProblemType.SAT));
+  }
+
+  @Test
+  public void testQueuePositionsFollowTheQueue() {
+    scheduler = new SolveScheduler(1, 100, environment);
+    blockSolverThread(ProblemType.SAT);
+
+    Solution<String> first = submit(ProblemType.SAT, 0, "first");
+    Solution<String> last = submit(ProblemType.SAT, 0, "last");
+    Solution<String> urgent = submit(ProblemType.SAT, 5, "urgent");
+    assertEquals(1, urgent.getQueuePosition());
+    assertEquals(3, last.getQueuePosition());
+
+    // jobs leaving the queue don't change the solutions of the jobs behind them
+    long lastVersion = last.getVersion();
+    assertTrue(scheduler.cancel(ProblemType.SAT, first));
+    assertEquals(0, first.getQueuePosition());
+    assertEquals(2, last.getQueuePosition());
+    assertEquals(lastVersion, last.getVersion());
+  }
+
+  /**
+   * Occupies the only solver thread until the blocker is released, so jobs queue up.
+   */
+  private void blockSolverThread(ProblemType problemType) {
+    scheduler.submit(problemType, 0, new Solution<>(nextSolutionId++), () -> {
+      try {
+        blocker.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  private Solution<String> submit(ProblemType problemType, int priority, String name) {
+    return submit(problemType, priority, name, new CountDownLatch(1));
+  }
+
+  private Solution<String> submit(ProblemType problemType, int priority, String name,
+                                  CountDownLatch done) {
+    Solution<String> solution = new Solution<>(nextSolutionId++);
+    scheduler.submit(problemType, priority, solution, () -> {
+      startedJobs.add(name);
+      done.countDown();
+    });
+    return solution;
+  }
+}
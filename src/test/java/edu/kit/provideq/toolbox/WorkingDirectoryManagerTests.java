@@ -0,0 +1,110 @@
+package edu.kit.provideq.toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WorkingDirectoryManagerTests {
+  private static final int KILOBYTE = 1024;
+
+  @TempDir
+  Path directory;
+
+  private WorkingDirectoryManager workingDirectoryManager;
+
+  @AfterEach
+  public void shutdown() {
+    workingDirectoryManager.shutdown();
+  }
+
+  @Test
+  public void testOnlyDirectoriesOfSuccessfulRunsAreDeleted() throws IOException {
+    workingDirectoryManager = createManager(true, 1024);
+    Path succeeded = createProblemDirectory(1, 1, Duration.ZERO);
+    Path failed = createProblemDirectory(2, 1, Duration.ZERO);
+
+    workingDirectoryManager.releaseProblemDirectory(ProblemType.SAT, 1, true);
+    workingDirectoryManager.releaseProblemDirectory(ProblemType.SAT, 2, false);
+
+    assertFalse(Files.exists(succeeded));
+    assertTrue(Files.exists(failed));
+  }
+
+  @Test
+  public void testExpiredDirectoriesAreSwept() throws IOException {
+    workingDirectoryManager = createManager(false, 1024);
+    Path expired = createProblemDirectory(1, 1, Duration.ofHours(2));
+    Path recent = createProblemDirectory(2, 1, Duration.ZERO);
+    Path active = createProblemDirectory(3, 1, Duration.ofHours(2));
+    workingDirectoryManager.releaseProblemDirectory(ProblemType.SAT, 1, false);
+    workingDirectoryManager.releaseProblemDirectory(ProblemType.SAT, 2, false);
+
+    workingDirectoryManager.sweep();
+
+    assertFalse(Files.exists(expired));
+    assertTrue(Files.exists(recent));
+    // directories that are still used by a run are never swept
+    assertTrue(Files.exists(active));
+  }
+
+  @Test
+  public void testOldestDirectoriesAreSweptOverMaxSize() throws IOException {
+    workingDirectoryManager = createManager(false, 1);
+    Path oldest = createProblemDirectory(1, 600, Duration.ofMinutes(30));
+    Path older = createProblemDirectory(2, 600, Duration.ofMinutes(20));
+    Path newest = createProblemDirectory(3, 600, Duration.ofMinutes(10));
+    for (long solutionId = 1; solutionId <= 3; solutionId++) {
+      workingDirectoryManager.releaseProblemDirectory(ProblemType.SAT, solutionId, false);
+    }
+
+    workingDirectoryManager.sweep();
+
+    assertFalse(Files.exists(oldest));
+    assertFalse(Files.exists(older));
+    assertTrue(Files.exists(newest));
+  }
+
+  @Test
+  public void testUnusedInstancesAreSwept() throws IOException {
+    workingDirectoryManager = createManager(false, 1024);
+    Path instanceDirectory = workingDirectoryManager.getInstanceDirectory();
+    Path unused = Files.writeString(instanceDirectory.resolve("unused.cnf"), "p cnf 1 1\n1 0\n");
+    Files.setLastModifiedTime(unused, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+    Path used = Files.writeString(instanceDirectory.resolve("used.cnf"), "p cnf 1 1\n1 0\n");
+
+    workingDirectoryManager.sweep();
+
+    assertFalse(Files.exists(unused));
+    assertTrue(Files.exists(used));
+    assertTrue(Files.exists(instanceDirectory));
+  }
+
+  private WorkingDirectoryManager createManager(boolean deleteOnSuccess, long maxSizeMegabytes) {
+    // the sweep is only run by the tests
+    return new WorkingDirectoryManager(directory.resolve("jobs").toString(), false,
+        deleteOnSuccess, 60, maxSizeMegabytes, 60);
+  }
+
+  /**
+   * Creates a problem directory with a problem file of the given size that was last modified the
+   * given time ago.
+   */
+  private Path createProblemDirectory(long solutionId, int kilobytes, Duration age)
+      throws IOException {
+    Path problemDirectory = workingDirectoryManager
+        .getProblemDirectory(ProblemType.SAT, solutionId).toPath();
+    Files.write(problemDirectory.resolve("problem"), new byte[kilobytes * KILOBYTE]);
+    Files.setLastModifiedTime(problemDirectory, FileTime.from(Instant.now().minus(age)));
+    return problemDirectory;
+  }
+}
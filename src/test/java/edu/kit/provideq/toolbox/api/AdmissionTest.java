@@ -0,0 +1,121 @@
+package edu.kit.provideq.toolbox.api;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import edu.kit.provideq.toolbox.AdmissionController;
+import edu.kit.provideq.toolbox.GamsProcessRunner;
+import edu.kit.provideq.toolbox.InstanceLibrary;
+import edu.kit.provideq.toolbox.MetaSolverProvider;
+import edu.kit.provideq.toolbox.ResourceProvider;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
+import edu.kit.provideq.toolbox.SolutionPage;
+import edu.kit.provideq.toolbox.SolveScheduler;
+import edu.kit.provideq.toolbox.SubRoutinePool;
+import edu.kit.provideq.toolbox.WorkingDirectoryManager;
+import edu.kit.provideq.toolbox.featuremodel.SolveFeatureModelRequest;
+import edu.kit.provideq.toolbox.featuremodel.anomaly.dead.DeadFeatureMetaSolver;
+import edu.kit.provideq.toolbox.featuremodel.anomaly.dead.SatBasedDeadFeatureSolver;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import edu.kit.provideq.toolbox.sat.MetaSolverSat;
+import edu.kit.provideq.toolbox.sat.SolveSatRequest;
+import edu.kit.provideq.toolbox.sat.solvers.GamsSatSolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WebFluxTest
+@TestPropertySource(properties = {
+    // sat requests are shed by the admission check, all others by the full queue
+    "solver.admission.sat.max-queued=0",
+    "solver.queue-capacity=0",
+    "solver.admission.max-load-per-cpu=-1",
+    "solver.admission.retry-after-seconds=7",
+})
+@Import(value = {
+    SolveRouter.class,
+    SolutionsRouter.class,
+    MetaSolverProvider.class,
+    DeadFeatureMetaSolver.class,
+    SatBasedDeadFeatureSolver.class,
+    SubRoutinePool.class,
+    MetaSolverSat.class,
+    GamsSatSolver.class,
+    GamsProcessRunner.class,
+    ResourceProvider.class,
+    WorkingDirectoryManager.class,
+    InstanceLibrary.class,
+    SolveScheduler.class,
+    AdmissionController.class,
+    SolutionIdGenerator.class,
+})
+class AdmissionTest {
+  @Autowired
+  private WebTestClient client;
+
+  @Autowired
+  private MetaSolverSat metaSolverSat;
+
+  @Autowired
+  private DeadFeatureMetaSolver deadFeatureMetaSolver;
+
+  @Test
+  void testTooManyQueuedRequestsAreRejected() {
+    var req = new SolveSatRequest();
+    req.requestContent = metaSolverSat.getExampleProblems().get(0);
+
+    client.post()
+        .uri("/solve/" + ProblemType.SAT.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(req)
+        .exchange()
+        .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+        .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "7")
+        .expectBody(String.class)
+        .value(reason -> assertThat(reason, startsWith("Too many sat problems are waiting")));
+
+    assertThat(countSolutions(ProblemType.SAT), is(0));
+  }
+
+  @Test
+  void testRequestsAreRejectedOnceTheQueueIsFull() {
+    var req = new SolveFeatureModelRequest();
+    req.requestedSolverId = SatBasedDeadFeatureSolver.class.getName();
+    req.requestContent = deadFeatureMetaSolver.getExampleProblems().get(0);
+
+    client.post()
+        .uri("/solve/" + ProblemType.FEATURE_MODEL_ANOMALY_DEAD.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(req)
+        .exchange()
+        .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+        .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "7")
+        .expectBody(String.class)
+        .value(reason -> assertThat(reason, startsWith("The solve job queue is full")));
+
+    // the solution of the rejected request isn't kept
+    assertThat(countSolutions(ProblemType.FEATURE_MODEL_ANOMALY_DEAD), is(0));
+  }
+
+  private int countSolutions(ProblemType problemType) {
+    return client.get()
+        .uri("/solutions?type=" + problemType.getId())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(SolutionPage.class)
+        .returnResult()
+        .getResponseBody()
+        .solutions()
+        .size();
+  }
+}
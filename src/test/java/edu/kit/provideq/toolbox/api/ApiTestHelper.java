@@ -0,0 +1,63 @@
+package edu.kit.provideq.toolbox.api;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import edu.kit.provideq.toolbox.Solution;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+public class ApiTestHelper {
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+  /**
+   * Polls the solution with the given id until it is completed or the timeout is reached.
+   *
+   * @return the last polled state of the solution.
+   */
+  public static Solution<String> awaitSolution(WebTestClient client, ProblemType problemType,
+                                               long solutionId, Duration timeout)
+      throws InterruptedException {
+    Instant deadline = Instant.now().plus(timeout);
+
+    while (true) {
+      Solution<String> solution = client.get()
+          .uri("/solve/" + problemType.getId() + "?id=" + solutionId)
+          .accept(MediaType.APPLICATION_JSON)
+          .exchange()
+          .expectStatus().isOk()
+          .expectBody(new ParameterizedTypeReference<Solution<String>>() {
+          })
+          .returnResult()
+          .getResponseBody();
+      assertNotNull(solution);
+
+      if (solution.getStatus().isCompleted() || Instant.now().isAfter(deadline)) {
+        return solution;
+      }
+
+      Thread.sleep(POLL_INTERVAL.toMillis());
+    }
+  }
+
+  /**
+   * Reads the solution from the response of a solve request and waits for it to be completed.
+   */
+  public static Solution<String> awaitSolution(WebTestClient client, ProblemType problemType,
+                                               WebTestClient.ResponseSpec response,
+                                               Duration timeout)
+      throws InterruptedException {
+    Solution<String> solution = response
+        .expectStatus().isOk()
+        .expectBody(new ParameterizedTypeReference<Solution<String>>() {
+        })
+        .returnResult()
+        .getResponseBody();
+    assertNotNull(solution);
+
+    return awaitSolution(client, problemType, solution.getId(), timeout);
+  }
+}
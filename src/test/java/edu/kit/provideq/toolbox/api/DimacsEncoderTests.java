@@ -0,0 +1,75 @@
+package edu.kit.provideq.toolbox.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.kit.provideq.toolbox.exception.ConversionException;
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf;
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsWritable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+public class DimacsEncoderTests {
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @Test
+  public void testFormulaIsEncodedInChunks() throws ConversionException {
+    var formula = new StringBuilder("p cnf 10000 9999\n");
+    for (int variable = 1; variable < 10000; variable++) {
+      formula.append("-%d %d 0\n".formatted(variable, variable + 1));
+    }
+    DimacsCnf dimacsCnf = DimacsCnf.fromDimacsCnfString(formula.toString());
+
+    List<String> chunks = encode(dimacsCnf).collectList().block(TIMEOUT);
+
+    assertEquals(dimacsCnf.toString(), String.join("", chunks));
+    assertTrue(chunks.size() > 1);
+  }
+
+  @Test
+  public void testWritingStopsOnceTheSubscriberCancels() throws InterruptedException {
+    var appendCount = new AtomicInteger();
+    DimacsWritable endless = out -> {
+      while (true) {
+        out.append("1 0\n");
+        appendCount.incrementAndGet();
+      }
+    };
+
+    assertEquals(List.of("1 0\n", "1 0\n", "1 0\n"),
+        encode(endless).take(3).collectList().block(TIMEOUT));
+
+    // the writer only appends while there is demand, and gives up once it has been cancelled
+    Thread.sleep(100);
+    int count = appendCount.get();
+    Thread.sleep(100);
+    assertEquals(count, appendCount.get());
+    assertTrue(count <= 3);
+  }
+
+  @Test
+  public void testWriteErrorsArePassedOn() {
+    DimacsWritable failing = out -> {
+      out.append("p cnf 1 1\n");
+      throw new IOException("broken formula");
+    };
+
+    var exception = assertThrows(RuntimeException.class,
+        () -> encode(failing).collectList().block(TIMEOUT));
+    assertInstanceOf(IOException.class, exception.getCause());
+  }
+
+  private static Flux<String> encode(DimacsWritable dimacs) {
+    return DimacsEncoder.encode(dimacs, DefaultDataBufferFactory.sharedInstance,
+            chunk -> chunk.toString().getBytes(StandardCharsets.UTF_8))
+        .map(buffer -> buffer.toString(StandardCharsets.UTF_8));
+  }
+}
@@ -1,15 +1,20 @@
 package edu.kit.provideq.toolbox.api;
 
 import static edu.kit.provideq.toolbox.SolutionStatus.SOLVED;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 
+import edu.kit.provideq.toolbox.AdmissionController;
 import edu.kit.provideq.toolbox.GamsProcessRunner;
+import edu.kit.provideq.toolbox.InstanceLibrary;
 import edu.kit.provideq.toolbox.MetaSolverHelper;
 import edu.kit.provideq.toolbox.MetaSolverProvider;
 import edu.kit.provideq.toolbox.ResourceProvider;
-import edu.kit.provideq.toolbox.Solution;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
 import edu.kit.provideq.toolbox.SolutionStatus;
+import edu.kit.provideq.toolbox.SolveScheduler;
 import edu.kit.provideq.toolbox.SubRoutinePool;
+import edu.kit.provideq.toolbox.WorkingDirectoryManager;
 import edu.kit.provideq.toolbox.featuremodel.SolveFeatureModelRequest;
 import edu.kit.provideq.toolbox.featuremodel.anomaly.dead.DeadFeatureMetaSolver;
 import edu.kit.provideq.toolbox.featuremodel.anomaly.dead.SatBasedDeadFeatureSolver;
@@ -20,6 +25,7 @@ import edu.kit.provideq.toolbox.meta.ProblemSolver;
 import edu.kit.provideq.toolbox.meta.ProblemType;
 import edu.kit.provideq.toolbox.sat.MetaSolverSat;
 import edu.kit.provideq.toolbox.sat.solvers.GamsSatSolver;
+import java.time.Duration;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -28,7 +34,6 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Import;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -47,6 +52,11 @@ import org.springframework.test.web.reactive.server.WebTestClient;
     GamsSatSolver.class,
     GamsProcessRunner.class,
     ResourceProvider.class,
+    WorkingDirectoryManager.class,
+    InstanceLibrary.class,
+    SolveScheduler.class,
+    AdmissionController.class,
+    SolutionIdGenerator.class,
 })
 class FeatureModelAnomalySolverTest {
   @Autowired
@@ -80,7 +90,7 @@ class FeatureModelAnomalySolverTest {
       Class<? extends ProblemSolver<String, String>> solver,
       ProblemType anomalyType,
       SolutionStatus expectedStatus,
-      String content) {
+      String content) throws InterruptedException {
     var req = new SolveFeatureModelRequest();
     req.requestedSolverId = solver.getName();
     req.requestContent = content;
@@ -91,9 +101,8 @@ class FeatureModelAnomalySolverTest {
         .bodyValue(req)
         .exchange();
 
-    response.expectStatus().isOk();
-    response.expectBody(new ParameterizedTypeReference<Solution<String>>() {
-        })
-        .value(Solution::getStatus, is(expectedStatus));
+    var solution = ApiTestHelper.awaitSolution(client, anomalyType, response,
+        Duration.ofSeconds(120));
+    assertThat(solution.getStatus(), is(expectedStatus));
   }
 }
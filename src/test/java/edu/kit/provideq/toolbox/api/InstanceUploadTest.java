@@ -0,0 +1,154 @@
+package edu.kit.provideq.toolbox.api;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import edu.kit.provideq.toolbox.AdmissionController;
+import edu.kit.provideq.toolbox.GamsProcessRunner;
+import edu.kit.provideq.toolbox.InstanceLibrary;
+import edu.kit.provideq.toolbox.MetaSolverProvider;
+import edu.kit.provideq.toolbox.ResourceProvider;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
+import edu.kit.provideq.toolbox.SolutionStatus;
+import edu.kit.provideq.toolbox.SolveScheduler;
+import edu.kit.provideq.toolbox.SubRoutinePool;
+import edu.kit.provideq.toolbox.WorkingDirectoryManager;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import edu.kit.provideq.toolbox.sat.MetaSolverSat;
+import edu.kit.provideq.toolbox.sat.SolveSatRequest;
+import edu.kit.provideq.toolbox.sat.solvers.GamsSatSolver;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WebFluxTest
+@TestPropertySource(properties = {
+    "working.directory=jobs/instance-upload-test",
+    "instances.upload.max-size-mb=1",
+    "instances.upload.max-total-size-mb=2"
+})
+@Import(value = {
+    InstancesRouter.class,
+    SolveRouter.class,
+    SolutionsRouter.class,
+    MetaSolverProvider.class,
+    MetaSolverSat.class,
+    GamsSatSolver.class,
+    SubRoutinePool.class,
+    GamsProcessRunner.class,
+    ResourceProvider.class,
+    WorkingDirectoryManager.class,
+    InstanceLibrary.class,
+    SolveScheduler.class,
+    AdmissionController.class,
+    SolutionIdGenerator.class
+})
+class InstanceUploadTest {
+  private static final int MEGABYTE = 1024 * 1024;
+
+  @Autowired
+  private WebTestClient client;
+
+  @Autowired
+  private MetaSolverSat metaSolverSat;
+
+  @Autowired
+  private WorkingDirectoryManager workingDirectoryManager;
+
+  @Test
+  void testUploadedProblemIsSolvedByReference() {
+    String reference = upload(metaSolverSat.getExampleProblems().get(0).getBytes());
+    assertThat(reference, startsWith(InstanceLibrary.REFERENCE_PREFIX));
+
+    var req = new SolveSatRequest();
+    req.requestContent = reference;
+    var response = client.post()
+        .uri("/solve/sat")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(req)
+        .exchange();
+    var solution = ApiTestHelper.awaitSolution(client, ProblemType.SAT, response,
+        Duration.ofSeconds(60));
+    assertThat(solution.getStatus(), is(SolutionStatus.SOLVED));
+
+    String name = reference.substring(InstanceLibrary.REFERENCE_PREFIX.length());
+    delete(name).expectStatus().isNoContent();
+    delete(name).expectStatus().isNotFound();
+  }
+
+  @Test
+  void testTooLargeUploadsAreRejected() throws IOException {
+    client.post()
+        .uri("/instances/sat")
+        .contentType(MediaType.TEXT_PLAIN)
+        .bodyValue(new byte[MEGABYTE + 1])
+        .exchange()
+        .expectStatus().isEqualTo(413);
+
+    // nothing of the rejected upload is kept
+    assertThat(uploadedFileCount(), is(0L));
+  }
+
+  @Test
+  void testUploadsAreRejectedWhileTheSpaceIsUsedUp() {
+    String first = upload(new byte[MEGABYTE]);
+    String second = upload(new byte[MEGABYTE]);
+
+    client.post()
+        .uri("/instances/sat")
+        .contentType(MediaType.TEXT_PLAIN)
+        .bodyValue("p cnf 1 1\n1 0\n")
+        .exchange()
+        .expectStatus().isEqualTo(507);
+
+    // deleting an uploaded problem makes room for new uploads
+    delete(first.substring(InstanceLibrary.REFERENCE_PREFIX.length()))
+        .expectStatus().isNoContent();
+    String third = upload("p cnf 1 1\n1 0\n".getBytes());
+
+    delete(second.substring(InstanceLibrary.REFERENCE_PREFIX.length()))
+        .expectStatus().isNoContent();
+    delete(third.substring(InstanceLibrary.REFERENCE_PREFIX.length()))
+        .expectStatus().isNoContent();
+  }
+
+  private String upload(byte[] problem) {
+    String reference = client.post()
+        .uri("/instances/sat")
+        .contentType(MediaType.TEXT_PLAIN)
+        .bodyValue(problem)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(String.class)
+        .returnResult()
+        .getResponseBody();
+    assertNotNull(reference);
+    return reference;
+  }
+
+  private WebTestClient.ResponseSpec delete(String name) {
+    return client.delete()
+        .uri("/instances/sat/" + name)
+        .exchange();
+  }
+
+  private long uploadedFileCount() throws IOException {
+    Path instanceDirectory = workingDirectoryManager.getInstanceDirectory();
+    try (Stream<Path> files = Files.list(instanceDirectory)) {
+      return files.count();
+    }
+  }
+}
@@ -1,20 +1,26 @@
 package edu.kit.provideq.toolbox.api;
 
 import static edu.kit.provideq.toolbox.SolutionStatus.SOLVED;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 
+import edu.kit.provideq.toolbox.AdmissionController;
 import edu.kit.provideq.toolbox.GamsProcessRunner;
 import edu.kit.provideq.toolbox.MetaSolverHelper;
 import edu.kit.provideq.toolbox.MetaSolverProvider;
 import edu.kit.provideq.toolbox.PythonProcessRunner;
+import edu.kit.provideq.toolbox.PythonWorkerPool;
 import edu.kit.provideq.toolbox.ResourceProvider;
-import edu.kit.provideq.toolbox.Solution;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
+import edu.kit.provideq.toolbox.SolveScheduler;
 import edu.kit.provideq.toolbox.SubRoutinePool;
+import edu.kit.provideq.toolbox.WorkingDirectoryManager;
 import edu.kit.provideq.toolbox.maxcut.MetaSolverMaxCut;
 import edu.kit.provideq.toolbox.maxcut.SolveMaxCutRequest;
 import edu.kit.provideq.toolbox.maxcut.solvers.CirqMaxCutSolver;
 import edu.kit.provideq.toolbox.maxcut.solvers.GamsMaxCutSolver;
 import edu.kit.provideq.toolbox.maxcut.solvers.QiskitMaxCutSolver;
+import edu.kit.provideq.toolbox.meta.ProblemType;
 import java.time.Duration;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,7 +31,6 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Import;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -42,7 +47,12 @@ import org.springframework.test.web.reactive.server.WebTestClient;
     SubRoutinePool.class,
     GamsProcessRunner.class,
     PythonProcessRunner.class,
-    ResourceProvider.class
+    PythonWorkerPool.class,
+    ResourceProvider.class,
+    WorkingDirectoryManager.class,
+    SolveScheduler.class,
+    AdmissionController.class,
+    SolutionIdGenerator.class
 })
 class MaxCutSolversTest {
   @Autowired
@@ -65,7 +75,7 @@ class MaxCutSolversTest {
 
   @ParameterizedTest
   @MethodSource("provideArguments")
-  void testMaxCutSolver(String solverId, String content) {
+  void testMaxCutSolver(String solverId, String content) throws InterruptedException {
     var req = new SolveMaxCutRequest();
     req.requestedSolverId = solverId;
     req.requestContent = content;
@@ -76,9 +86,8 @@ class MaxCutSolversTest {
         .bodyValue(req)
         .exchange();
 
-    response.expectStatus().isOk();
-    response.expectBody(new ParameterizedTypeReference<Solution<String>>() {
-        })
-        .value(Solution::getStatus, is(SOLVED));
+    var solution = ApiTestHelper.awaitSolution(client, ProblemType.MAX_CUT, response,
+        Duration.ofSeconds(120));
+    assertThat(solution.getStatus(), is(SOLVED));
   }
 }
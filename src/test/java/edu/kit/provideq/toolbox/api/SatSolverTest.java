@@ -1,17 +1,24 @@
 package edu.kit.provideq.toolbox.api;
 
 import static edu.kit.provideq.toolbox.SolutionStatus.SOLVED;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 
+import edu.kit.provideq.toolbox.AdmissionController;
 import edu.kit.provideq.toolbox.GamsProcessRunner;
+import edu.kit.provideq.toolbox.InstanceLibrary;
 import edu.kit.provideq.toolbox.MetaSolverHelper;
 import edu.kit.provideq.toolbox.MetaSolverProvider;
 import edu.kit.provideq.toolbox.ResourceProvider;
-import edu.kit.provideq.toolbox.Solution;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
+import edu.kit.provideq.toolbox.SolveScheduler;
 import edu.kit.provideq.toolbox.SubRoutinePool;
+import edu.kit.provideq.toolbox.WorkingDirectoryManager;
+import edu.kit.provideq.toolbox.meta.ProblemType;
 import edu.kit.provideq.toolbox.sat.MetaSolverSat;
 import edu.kit.provideq.toolbox.sat.SolveSatRequest;
 import edu.kit.provideq.toolbox.sat.solvers.GamsSatSolver;
+import java.time.Duration;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -20,7 +27,6 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Import;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -33,7 +39,12 @@ import org.springframework.test.web.reactive.server.WebTestClient;
     GamsSatSolver.class,
     SubRoutinePool.class,
     GamsProcessRunner.class,
-    ResourceProvider.class
+    ResourceProvider.class,
+    WorkingDirectoryManager.class,
+    InstanceLibrary.class,
+    SolveScheduler.class,
+    AdmissionController.class,
+    SolutionIdGenerator.class
 })
 class SatSolverTest {
   @Autowired
@@ -49,7 +60,7 @@ class SatSolverTest {
 
   @ParameterizedTest
   @MethodSource("provideArguments")
-  void testSatSolver(String solverId, String content) {
+  void testSatSolver(String solverId, String content) throws InterruptedException {
     var req = new SolveSatRequest();
     req.requestedSolverId = solverId;
     req.requestContent = content;
@@ -60,9 +71,8 @@ class SatSolverTest {
         .bodyValue(req)
         .exchange();
 
-    response.expectStatus().isOk();
-    response.expectBody(new ParameterizedTypeReference<Solution<String>>() {
-        })
-        .value(Solution::getStatus, is(SOLVED));
+    var solution = ApiTestHelper.awaitSolution(client, ProblemType.SAT, response,
+        Duration.ofSeconds(60));
+    assertThat(solution.getStatus(), is(SOLVED));
   }
 }
@@ -0,0 +1,149 @@
+package edu.kit.provideq.toolbox.api;
+
+import static edu.kit.provideq.toolbox.SolutionStatus.SOLVED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.kit.provideq.toolbox.AdmissionController;
+import edu.kit.provideq.toolbox.GamsProcessRunner;
+import edu.kit.provideq.toolbox.InstanceLibrary;
+import edu.kit.provideq.toolbox.MetaSolverProvider;
+import edu.kit.provideq.toolbox.ResourceProvider;
+import edu.kit.provideq.toolbox.Solution;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
+import edu.kit.provideq.toolbox.SolveScheduler;
+import edu.kit.provideq.toolbox.SubRoutinePool;
+import edu.kit.provideq.toolbox.WorkingDirectoryManager;
+import edu.kit.provideq.toolbox.featuremodel.SolveFeatureModelRequest;
+import edu.kit.provideq.toolbox.featuremodel.anomaly.dead.DeadFeatureMetaSolver;
+import edu.kit.provideq.toolbox.featuremodel.anomaly.dead.SatBasedDeadFeatureSolver;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import edu.kit.provideq.toolbox.sat.MetaSolverSat;
+import edu.kit.provideq.toolbox.sat.SolveSatRequest;
+import edu.kit.provideq.toolbox.sat.solvers.GamsSatSolver;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WebFluxTest
+@TestPropertySource(properties = "solver.threads=1")
+@Import(value = {
+    SolveRouter.class,
+    SolutionsRouter.class,
+    MetaSolverProvider.class,
+    DeadFeatureMetaSolver.class,
+    SatBasedDeadFeatureSolver.class,
+    SubRoutinePool.class,
+    MetaSolverSat.class,
+    GamsSatSolver.class,
+    GamsProcessRunner.class,
+    ResourceProvider.class,
+    WorkingDirectoryManager.class,
+    InstanceLibrary.class,
+    SolveScheduler.class,
+    AdmissionController.class,
+    SolutionIdGenerator.class,
+})
+class SolutionEventsTest {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Autowired
+  private WebTestClient client;
+
+  @Autowired
+  private MetaSolverSat metaSolverSat;
+
+  @Autowired
+  private DeadFeatureMetaSolver deadFeatureMetaSolver;
+
+  @Test
+  void testStatusEventsAreFollowedByOneResult() throws JsonProcessingException {
+    // occupy the only solver thread, so the sat request has to wait in the queue
+    var blockingReq = new SolveFeatureModelRequest();
+    blockingReq.requestedSolverId = SatBasedDeadFeatureSolver.class.getName();
+    blockingReq.requestContent = deadFeatureMetaSolver.getExampleProblems().get(0);
+    post(ProblemType.FEATURE_MODEL_ANOMALY_DEAD, blockingReq);
+
+    var req = new SolveSatRequest();
+    req.requestContent = metaSolverSat.getExampleProblems().get(0);
+    Solution<String> solution = post(ProblemType.SAT, req);
+
+    List<ServerSentEvent<String>> events = client.get()
+        .uri("/solutions/" + solution.getId() + "/events")
+        .accept(MediaType.TEXT_EVENT_STREAM)
+        .exchange()
+        .expectStatus().isOk()
+        .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+        })
+        .getResponseBody()
+        .collectList()
+        .block(Duration.ofSeconds(120));
+    assertNotNull(events);
+    assertThat(events.isEmpty(), is(false));
+
+    // the stream ends with the complete solution
+    var result = events.get(events.size() - 1);
+    assertThat(result.event(), is("result"));
+    JsonNode resultData = MAPPER.readTree(result.data());
+    assertThat(resultData.get("id").asLong(), is(solution.getId()));
+    assertThat(resultData.get("status").asText(), is(SOLVED.name()));
+
+    // all events before it describe changes of the status or the queue position
+    long lastVersion = -1;
+    JsonNode lastChange = null;
+    for (var event : events.subList(0, events.size() - 1)) {
+      assertThat(event.event(), is("status"));
+      JsonNode change = MAPPER.readTree(event.data());
+      assertThat(change.get("id").asLong(), is(solution.getId()));
+      assertThat(change.get("version").asLong(), greaterThan(lastVersion));
+      if (lastChange != null) {
+        assertThat(change.get("status").asText() + "@" + change.get("queuePosition").asInt(),
+            not(lastChange.get("status").asText() + "@" + lastChange.get("queuePosition").asInt()));
+      }
+      lastVersion = change.get("version").asLong();
+      lastChange = change;
+    }
+    assertThat(Long.parseLong(result.id()), greaterThan(lastVersion));
+  }
+
+  @Test
+  void testUnknownSolutionsAreNotFound() {
+    // ids are never 0, they contain their creation time
+    client.get()
+        .uri("/solutions/0/events")
+        .accept(MediaType.TEXT_EVENT_STREAM)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  private Solution<String> post(ProblemType problemType, Object req) {
+    Solution<String> solution = client.post()
+        .uri("/solve/" + problemType.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(req)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(new ParameterizedTypeReference<Solution<String>>() {
+        })
+        .returnResult()
+        .getResponseBody();
+    assertNotNull(solution);
+    return solution;
+  }
+}
@@ -0,0 +1,141 @@
+package edu.kit.provideq.toolbox.api;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import edu.kit.provideq.toolbox.AdmissionController;
+import edu.kit.provideq.toolbox.GamsProcessRunner;
+import edu.kit.provideq.toolbox.InstanceLibrary;
+import edu.kit.provideq.toolbox.MetaSolverProvider;
+import edu.kit.provideq.toolbox.ResourceProvider;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
+import edu.kit.provideq.toolbox.SolutionPage;
+import edu.kit.provideq.toolbox.SolutionStatus;
+import edu.kit.provideq.toolbox.SolutionSummary;
+import edu.kit.provideq.toolbox.SolveScheduler;
+import edu.kit.provideq.toolbox.SubRoutinePool;
+import edu.kit.provideq.toolbox.WorkingDirectoryManager;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import edu.kit.provideq.toolbox.sat.MetaSolverSat;
+import edu.kit.provideq.toolbox.sat.SolveSatRequest;
+import edu.kit.provideq.toolbox.sat.solvers.GamsSatSolver;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WebFluxTest
+@Import(value = {
+    SolveRouter.class,
+    SolutionsRouter.class,
+    MetaSolverProvider.class,
+    MetaSolverSat.class,
+    GamsSatSolver.class,
+    SubRoutinePool.class,
+    GamsProcessRunner.class,
+    ResourceProvider.class,
+    WorkingDirectoryManager.class,
+    InstanceLibrary.class,
+    SolveScheduler.class,
+    AdmissionController.class,
+    SolutionIdGenerator.class
+})
+class SolutionsListTest {
+  @Autowired
+  private WebTestClient client;
+
+  @Autowired
+  private MetaSolverSat metaSolverSat;
+
+  private final List<Long> solutionIds = new ArrayList<>();
+
+  @BeforeAll
+  void solveProblems() throws InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      var req = new SolveSatRequest();
+      req.requestContent = metaSolverSat.getExampleProblems().get(0);
+
+      var response = client.post()
+          .uri("/solve/sat")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(req)
+          .exchange();
+      var solution = ApiTestHelper.awaitSolution(client, ProblemType.SAT, response,
+          Duration.ofSeconds(60));
+      assertThat(solution.getStatus(), is(SolutionStatus.SOLVED));
+      solutionIds.add(solution.getId());
+    }
+    solutionIds.sort(Comparator.reverseOrder());
+  }
+
+  @Test
+  void testPagesAreContinuedByCursor() {
+    var firstPage = list("limit=2");
+    assertThat(ids(firstPage), is(solutionIds.subList(0, 2)));
+    assertThat(firstPage.nextCursor(), is(solutionIds.get(1)));
+
+    var secondPage = list("limit=2&cursor=" + firstPage.nextCursor());
+    assertThat(ids(secondPage), is(solutionIds.subList(2, 3)));
+    assertThat(secondPage.nextCursor(), is(nullValue()));
+  }
+
+  @Test
+  void testSolutionsAreFiltered() {
+    assertThat(ids(list("status=SOLVED&type=sat&solver=GAMS SAT")), is(solutionIds));
+    assertThat(list("status=ERROR").solutions(), is(empty()));
+    assertThat(list("solver=other").solutions(), is(empty()));
+    assertThat(list("type=qubo").solutions(), is(empty()));
+
+    Instant inAnHour = Instant.now().plus(Duration.ofHours(1));
+    assertThat(ids(list("createdBefore=" + inAnHour)), is(solutionIds));
+    assertThat(list("createdAfter=" + inAnHour).solutions(), is(empty()));
+
+    var summary = list("limit=1").solutions().get(0);
+    assertThat(summary.problemType(), is(ProblemType.SAT));
+    assertThat(summary.solverName(), is("GAMS SAT"));
+  }
+
+  @Test
+  void testInvalidParametersAreRejected() {
+    for (String query : List.of("status=DONE", "type=unknown", "limit=0", "limit=1001",
+        "cursor=first", "createdAfter=yesterday")) {
+      client.get()
+          .uri("/solutions?" + query)
+          .accept(MediaType.APPLICATION_JSON)
+          .exchange()
+          .expectStatus().isBadRequest();
+    }
+  }
+
+  private SolutionPage list(String query) {
+    SolutionPage page = client.get()
+        .uri("/solutions?" + query)
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(SolutionPage.class)
+        .returnResult()
+        .getResponseBody();
+    assertNotNull(page);
+    return page;
+  }
+
+  private static List<Long> ids(SolutionPage page) {
+    return page.solutions().stream()
+        .map(SolutionSummary::id)
+        .toList();
+  }
+}
@@ -0,0 +1,146 @@
+package edu.kit.provideq.toolbox.api;
+
+import static edu.kit.provideq.toolbox.SolutionStatus.CANCELLED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import edu.kit.provideq.toolbox.AdmissionController;
+import edu.kit.provideq.toolbox.GamsProcessRunner;
+import edu.kit.provideq.toolbox.InstanceLibrary;
+import edu.kit.provideq.toolbox.MetaSolverProvider;
+import edu.kit.provideq.toolbox.ResourceProvider;
+import edu.kit.provideq.toolbox.Solution;
+import edu.kit.provideq.toolbox.SolutionIdGenerator;
+import edu.kit.provideq.toolbox.SolutionPage;
+import edu.kit.provideq.toolbox.SolutionStatus;
+import edu.kit.provideq.toolbox.SolutionSummary;
+import edu.kit.provideq.toolbox.SolveScheduler;
+import edu.kit.provideq.toolbox.SubRoutinePool;
+import edu.kit.provideq.toolbox.WorkingDirectoryManager;
+import edu.kit.provideq.toolbox.featuremodel.SolveFeatureModelRequest;
+import edu.kit.provideq.toolbox.featuremodel.anomaly.dead.DeadFeatureMetaSolver;
+import edu.kit.provideq.toolbox.featuremodel.anomaly.dead.SatBasedDeadFeatureSolver;
+import edu.kit.provideq.toolbox.meta.ProblemType;
+import edu.kit.provideq.toolbox.sat.MetaSolverSat;
+import edu.kit.provideq.toolbox.sat.solvers.GamsSatSolver;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WebFluxTest
+@Import(value = {
+    SolveRouter.class,
+    SolutionsRouter.class,
+    MetaSolverProvider.class,
+    DeadFeatureMetaSolver.class,
+    SatBasedDeadFeatureSolver.class,
+    SubRoutinePool.class,
+    MetaSolverSat.class,
+    GamsSatSolver.class,
+    GamsProcessRunner.class,
+    ResourceProvider.class,
+    WorkingDirectoryManager.class,
+    InstanceLibrary.class,
+    SolveScheduler.class,
+    AdmissionController.class,
+    SolutionIdGenerator.class,
+})
+class SolveCancellationTest {
+  @Autowired
+  private WebTestClient client;
+
+  @Autowired
+  private DeadFeatureMetaSolver deadFeatureMetaSolver;
+
+  @Test
+  void testCancelKillsSolverProcessesAndSkipsSubRoutines() throws InterruptedException {
+    var req = new SolveFeatureModelRequest();
+    req.requestedSolverId = SatBasedDeadFeatureSolver.class.getName();
+    req.requestContent = deadFeatureMetaSolver.getExampleProblems().get(0);
+
+    Solution<String> solution = client.post()
+        .uri("/solve/" + ProblemType.FEATURE_MODEL_ANOMALY_DEAD.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(req)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(new ParameterizedTypeReference<Solution<String>>() {
+        })
+        .returnResult()
+        .getResponseBody();
+    assertNotNull(solution);
+
+    // cancel while the SAT sub-routine of a feature is running its GAMS process
+    SolutionSummary runningSubRoutine = awaitComputingSatSolution(Duration.ofSeconds(60))
+        .orElseThrow(() -> new AssertionError("no SAT sub-routine has been started"));
+    client.delete()
+        .uri("/solve/" + ProblemType.FEATURE_MODEL_ANOMALY_DEAD.getId()
+            + "?id=" + solution.getId())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk();
+
+    var cancelledSolution = ApiTestHelper.awaitSolution(client,
+        ProblemType.FEATURE_MODEL_ANOMALY_DEAD, solution.getId(), Duration.ofSeconds(10));
+    assertThat(cancelledSolution.getStatus(), is(CANCELLED));
+    var cancelledSubRoutine = ApiTestHelper.awaitSolution(client, ProblemType.SAT,
+        runningSubRoutine.id(), Duration.ofSeconds(10));
+    assertThat(cancelledSubRoutine.getStatus(), is(CANCELLED));
+
+    // the killed process doesn't leave any child processes behind
+    Thread.sleep(500);
+    assertThat(ProcessHandle.current().descendants().filter(ProcessHandle::isAlive).toList(),
+        is(empty()));
+
+    // the remaining features aren't checked anymore
+    int satSolutionCount = listSatSolutions(null).size();
+    Thread.sleep(1000);
+    assertThat(listSatSolutions(null).size(), is(satSolutionCount));
+    assertThat(listSatSolutions(SolutionStatus.COMPUTING), is(empty()));
+  }
+
+  /**
+   * Polls the SAT solutions until one of them is being computed or the timeout is reached.
+   */
+  private Optional<SolutionSummary> awaitComputingSatSolution(Duration timeout)
+      throws InterruptedException {
+    Instant deadline = Instant.now().plus(timeout);
+    while (Instant.now().isBefore(deadline)) {
+      var computing = listSatSolutions(SolutionStatus.COMPUTING);
+      if (!computing.isEmpty()) {
+        return Optional.of(computing.get(0));
+      }
+      Thread.sleep(10);
+    }
+    return Optional.empty();
+  }
+
+  private List<SolutionSummary> listSatSolutions(SolutionStatus status) {
+    SolutionPage page = client.get()
+        .uri(builder -> builder.path("/solutions")
+            .queryParam("type", ProblemType.SAT.getId())
+            .queryParamIfPresent("status", Optional.ofNullable(status))
+            .queryParam("limit", 1000)
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(SolutionPage.class)
+        .returnResult()
+        .getResponseBody();
+    assertNotNull(page);
+    return page.solutions();
+  }
+}
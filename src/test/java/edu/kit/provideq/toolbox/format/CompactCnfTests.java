@@ -0,0 +1,90 @@
+package edu.kit.provideq.toolbox.format;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import edu.kit.provideq.toolbox.format.cnf.dimacs.CompactCnf;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class CompactCnfTests {
+  private static final CompactCnf BASE = new CompactCnf.Builder()
+      .addLiteral(3).addLiteral(-1).endClause()
+      .addLiteral(2).endClause()
+      .nameVariable(1, "A")
+      .nameVariable(3, "C")
+      // a clause that isn't ended is left out
+      .addLiteral(4)
+      .build();
+
+  @Test
+  public void testBuilder() {
+    assertEquals(2, BASE.getClauseCount());
+    assertEquals(3, BASE.getLiteralCount());
+    assertArrayEquals(new int[] {3, -1}, getClause(BASE, 0));
+    assertArrayEquals(new int[] {2}, getClause(BASE, 1));
+
+    // variables that aren't declared are listed in the order they appear in
+    assertArrayEquals(new int[] {3, 1, 2}, getVariables(BASE));
+    assertEquals(3, BASE.getMaxVariable());
+    assertEquals("A", BASE.getName(1));
+    assertNull(BASE.getName(2));
+  }
+
+  @Test
+  public void testDeclaredVariables() {
+    var cnf = new CompactCnf.Builder()
+        .declareVariable(2, "B")
+        .declareVariable(1, "A")
+        .addLiteral(1).addLiteral(2).endClause()
+        .build();
+
+    assertArrayEquals(new int[] {2, 1}, getVariables(cnf));
+    assertEquals("B", cnf.getName(2));
+  }
+
+  @Test
+  public void testAddedClausesContinueTheBaseFormula() {
+    var derived = BASE.withClause(-2).withClause(1, 5);
+
+    assertEquals(4, derived.getClauseCount());
+    assertEquals(6, derived.getLiteralCount());
+    assertArrayEquals(new int[] {3, -1}, getClause(derived, 0));
+    assertArrayEquals(new int[] {2}, getClause(derived, 1));
+    assertArrayEquals(new int[] {-2}, getClause(derived, 2));
+    assertArrayEquals(new int[] {1, 5}, getClause(derived, 3));
+
+    // new variables extend the name table, but not the variable list
+    assertEquals(5, derived.getMaxVariable());
+    assertNull(derived.getName(5));
+    assertArrayEquals(getVariables(BASE), getVariables(derived));
+  }
+
+  @Test
+  public void testFormulasDerivedFromTheSameBaseAreIndependent() {
+    var first = BASE.withClause(1);
+    var second = BASE.withClause(-1);
+    var firstExtended = first.withClause(2, 3);
+
+    assertEquals(2, BASE.getClauseCount());
+    assertArrayEquals(new int[] {1}, getClause(first, 2));
+    assertArrayEquals(new int[] {-1}, getClause(second, 2));
+    assertEquals(3, first.getClauseCount());
+    assertArrayEquals(new int[] {1}, getClause(firstExtended, 2));
+    assertArrayEquals(new int[] {2, 3}, getClause(firstExtended, 3));
+  }
+
+  private static int[] getClause(CompactCnf cnf, int clause) {
+    int start = cnf.getClauseStart(clause);
+    int[] literals = new int[cnf.getClauseEnd(clause) - start];
+    Arrays.setAll(literals, i -> cnf.getLiteral(start + i));
+    return literals;
+  }
+
+  private static int[] getVariables(CompactCnf cnf) {
+    int[] variables = new int[cnf.getVariableCount()];
+    Arrays.setAll(variables, cnf::getVariable);
+    return variables;
+  }
+}
@@ -1,10 +1,27 @@
 package edu.kit.provideq.toolbox.format;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import edu.kit.provideq.toolbox.exception.ConversionException;
 import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnf;
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsCnfSolution;
+import edu.kit.provideq.toolbox.format.cnf.dimacs.DimacsWritable;
+import edu.kit.provideq.toolbox.format.cnf.dimacs.Variable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -76,4 +93,203 @@ public class DimacsCnfTests {
             """)
     );
   }
+
+  @ParameterizedTest
+  @MethodSource("testParseParameters")
+  public void testParse(String dimacsCnf, String result)
+      throws ConversionException, IOException {
+    result = result.replace("\n", System.lineSeparator());
+
+    assertEquals(result, DimacsCnf.fromDimacsCnfString(dimacsCnf).toString());
+    assertEquals(result, DimacsCnf.fromDimacsCnf(new StringReader(dimacsCnf)).toString());
+    assertEquals(result, DimacsCnf.fromDimacsCnf(
+        ByteBuffer.wrap(dimacsCnf.getBytes(StandardCharsets.UTF_8))).toString());
+  }
+
+  static Stream<Arguments> testParseParameters() {
+    return Stream.of(
+        // written formulas are parsed back unchanged
+        Arguments.arguments("""
+            c 1 apple pie
+            c 2 pear
+            p cnf 2 2
+            1 -2 0
+            -1 0
+            """, """
+            c 1 apple pie
+            c 2 pear
+            p cnf 2 2
+            1 -2 0
+            -1 0
+            """),
+        // tokens may be separated by any whitespace, and clauses may span several lines
+        Arguments.arguments("c 1 A\r\nc 2 B\r\np  cnf\t2 2\r\n1\t-2\n 0 2\n0\n", """
+            c 1 A
+            c 2 B
+            p cnf 2 2
+            1 -2 0
+            2 0
+            """),
+        // the last clause doesn't need to end with 0
+        Arguments.arguments("""
+            p cnf 3 2
+            1 -3 0
+            2""", """
+            p cnf 3 2
+            1 -3 0
+            2 0
+            """),
+        // a line starting with % ends the formula
+        Arguments.arguments("""
+            p cnf 2 1
+            1 -2 0
+            %
+            0
+            """, """
+            p cnf 2 1
+            1 -2 0
+            """),
+        // comments that don't name variables are ignored
+        Arguments.arguments("""
+            c generated by a benchmark
+            c
+            p cnf 2 1
+            c 1 A
+            1 -2 0
+            """, """
+            c 1 A
+            p cnf 2 1
+            1 -2 0
+            """),
+        // numbers beyond the variable count don't name variables, nothing is allocated for them
+        Arguments.arguments("""
+            c 1000000000 clauses
+            c 1 A
+            p cnf 2 1
+            c 2000000000 more clauses
+            1 -2 0
+            """, """
+            c 1 A
+            p cnf 2 1
+            1 -2 0
+            """)
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("testParseInvalidParameters")
+  public void testParseInvalid(String dimacsCnf, String message) {
+    var exception = assertThrows(ConversionException.class,
+        () -> DimacsCnf.fromDimacsCnfString(dimacsCnf));
+    assertEquals(message, exception.getMessage());
+  }
+
+  static Stream<Arguments> testParseInvalidParameters() {
+    return Stream.of(
+        Arguments.arguments("1 2 0\n", "Missing Dimacs CNF header"),
+        Arguments.arguments("p cnf 2 1\n1 -3 0\n",
+            "Count of variables in the header is 2, but variable 3 is used"),
+        Arguments.arguments("p cnf 2 1\n1 2000000000 0\n",
+            "Count of variables in the header is 2, but variable 2000000000 is used"),
+        Arguments.arguments("c 1 A\nc 2 B\np cnf 3 1\n1 2 0\n",
+            "Count of variables in the header is 3, but the actual count is 2"),
+        Arguments.arguments("p cnf 2 2\n1 2 0\n",
+            "Count of clauses in the header is 2, but the actual count is 1"),
+        Arguments.arguments("p dnf 2 1\n1 2 0\n",
+            "Line 1: Expected Dimacs CNF identifier cnf in header"),
+        Arguments.arguments("p cnf 2 1\n\n1 x 0\n",
+            "Line 3: Expected a number as literal, but found 'x'"),
+        Arguments.arguments("p cnf 2 1\n1 2a 0\n",
+            "Line 2: Unexpected character 'a' in literal")
+    );
+  }
+
+  @Test
+  public void testWriteToPassesBoundedChunks() throws ConversionException, IOException {
+    DimacsCnf dimacsCnf = createLargeFormula(5000);
+    var solution = DimacsCnfSolution.fromString(dimacsCnf, createSolution(5000));
+
+    for (DimacsWritable dimacs : List.of(dimacsCnf, solution)) {
+      List<String> chunks = new ArrayList<>();
+      dimacs.writeTo(new Appendable() {
+        @Override
+        public Appendable append(CharSequence chunk) {
+          // chunks may be backed by a buffer that is reused for the next chunk
+          chunks.add(chunk.toString());
+          return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence chunk, int start, int end) {
+          return append(chunk.subSequence(start, end));
+        }
+
+        @Override
+        public Appendable append(char c) {
+          return append(String.valueOf(c));
+        }
+      });
+
+      assertEquals(dimacs.toString(), String.join("", chunks));
+      assertTrue(chunks.size() > 1);
+      assertTrue(chunks.stream().allMatch(chunk -> chunk.length() <= 8192));
+      // chunks are cut between tokens, so names with surrogate pairs stay whole
+      assertTrue(chunks.stream().noneMatch(chunk -> Character.isHighSurrogate(
+          chunk.charAt(chunk.length() - 1))));
+    }
+  }
+
+  @Test
+  public void testWriteToChannelEncodesUtf8() throws ConversionException, IOException {
+    DimacsCnf dimacsCnf = createLargeFormula(5000);
+
+    var out = new ByteArrayOutputStream();
+    try (WritableByteChannel channel = Channels.newChannel(out)) {
+      dimacsCnf.writeTo(channel);
+    }
+
+    assertArrayEquals(dimacsCnf.toString().getBytes(StandardCharsets.UTF_8), out.toByteArray());
+  }
+
+  /**
+   * Creates a formula with named variables that are chained by implications.
+   */
+  private static DimacsCnf createLargeFormula(int variableCount) throws ConversionException {
+    var formula = new StringBuilder();
+    for (int variable = 1; variable <= variableCount; variable++) {
+      formula.append("c %d äpfel \uD83C\uDF4E %d%n".formatted(variable, variable));
+    }
+    formula.append("p cnf %d %d%n".formatted(variableCount, variableCount - 1));
+    for (int variable = 1; variable < variableCount; variable++) {
+      formula.append("-%d %d 0%n".formatted(variable, variable + 1));
+    }
+    return DimacsCnf.fromDimacsCnfString(formula.toString());
+  }
+
+  private static String createSolution(int variableCount) {
+    var solution = new StringBuilder("s cnf 1 %d %d%n".formatted(variableCount, variableCount - 1));
+    for (int variable = 1; variable <= variableCount; variable++) {
+      solution.append("v %d%n".formatted(variable));
+    }
+    return solution.toString();
+  }
+
+  @Test
+  public void testGetVariables() throws ConversionException {
+    var dimacsCnf = DimacsCnf.fromDimacsCnfString("""
+        c 1 A
+        c 2 B
+        p cnf 2 2
+        -1 -2 0
+        1 0
+        """);
+
+    // variables are listed without the negation of their literals
+    List<Variable> variables = List.copyOf(dimacsCnf.getVariables());
+    assertEquals(List.of(new Variable(1, "A", false), new Variable(2, "B", false)), variables);
+    assertFalse(variables.stream().anyMatch(Variable::isNegated));
+    assertEquals("A", variables.get(0).name());
+    assertEquals(2, dimacsCnf.getOrClauseCount());
+    assertTrue(dimacsCnf.getOrClauses().get(0).stream().allMatch(Variable::isNegated));
+  }
 }